@@ -16,6 +16,13 @@ import java.util.Map;
 @Component
 public class PromptBuilder {
 
+    /** Giải thích key ngắn của dữ liệu finance (GET /api/summary/ai-digest) */
+    private static final String DATA_LEGEND = "Lưu ý về dữ liệu: mo=tháng, inc=thu, exp=chi, bal=thu-chi, "
+            + "sr=tỷ lệ tiết kiệm %, avgExp=chi TB/ngày, incTr/expTr=% so với tháng trước, "
+            + "topExp/topInc=hạng mục chi/thu lớn nhất, cat=category, amt=amount, cnt=count, pct=percent, "
+            + "prog=% tiến độ mục tiêu, days=số ngày còn lại, risk=mục tiêu có nguy cơ trễ, "
+            + "anom=khoản chi bất thường, z=số độ lệch chuẩn so với mức chi thường ngày, day=ngày trong tháng";
+
     private final ObjectMapper objectMapper;
 
     public PromptBuilder(ObjectMapper objectMapper) {
@@ -27,7 +34,7 @@ public class PromptBuilder {
         return String.format("""
                 Data Analyst EduFinAI. Phân tích dữ liệu ngày %s, tạo báo cáo ngắn gọn (3 dòng).
                 
-                Lưu ý về dữ liệu: cat=category, amt=amount, cnt=count, pct=percent
+                %s
                 
                 Dữ liệu:
                 - Giao dịch (7 ngày): %s
@@ -40,7 +47,7 @@ public class PromptBuilder {
                 - priorityAction: hành động quan trọng nhất cần làm ngay.
                 - Thiếu dữ liệu: insight="Chưa đủ dữ liệu", rootCause mô tả thiếu gì, priorityAction đề nghị đồng bộ.
                 - Tiếng Việt, không trùng với widget khác.
-                """, date, toJsonString(input.finance), toJsonString(input.learning));
+                """, date, DATA_LEGEND, toJsonString(input.finance), toJsonString(input.learning));
     }
 
     public String buildChatPrompt(ChatContext ctx) {
@@ -70,7 +77,7 @@ public class PromptBuilder {
         return String.format("""
                 Cố vấn tài chính EduFinAI. Trả lời ngắn gọn, hành động cụ thể, dựa trên dữ liệu (nếu có).
                 
-                Lưu ý về dữ liệu: cat=category, amt=amount, cnt=count, pct=percent
+                %s
                 
                 %s
                 %s
@@ -88,7 +95,7 @@ public class PromptBuilder {
                 - tips: 1-3 mẹo cụ thể, có thể hành động
                 - disclaimers: 1-2 lưu ý tham khảo và trách nhiệm
                 - Tiếng Việt
-                """, questionBlock, historyContext, toJsonString(ctx.systemContext), toJsonString(ctx.userData));
+                """, DATA_LEGEND, questionBlock, historyContext, toJsonString(ctx.systemContext), toJsonString(ctx.userData));
     }
 
     private String buildPresetInstruction(String context) {
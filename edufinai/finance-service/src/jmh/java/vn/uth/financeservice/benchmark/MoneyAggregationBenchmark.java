@@ -0,0 +1,105 @@
+package vn.uth.financeservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import vn.uth.financeservice.aggregation.IntKeyedMoneySums;
+import vn.uth.financeservice.aggregation.MoneyAccumulator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh cộng tiền kiểu cũ (reduce BigDecimal, HashMap&lt;Integer, BigDecimal&gt;.merge)
+ * với MoneyAccumulator / IntKeyedMoneySums trên dữ liệu tổng hợp.
+ *
+ * Chạy (kèm số byte cấp phát mỗi lần gọi - gc.alloc.rate.norm):
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="MoneyAggregation -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyAggregationBenchmark {
+
+    private static final int DAYS = 365;
+    private static final int CATEGORIES = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private BigDecimal[] amounts;
+    private int[] dayKeys;
+    private int[] categoryKeys;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(42);
+        int firstDay = IntKeyedMoneySums.dayKey(LocalDate.of(2025, 1, 1));
+        amounts = new BigDecimal[rows];
+        dayKeys = new int[rows];
+        categoryKeys = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            // 1.000 đ - 5.000.000 đ, 2 chữ số thập phân như cột DECIMAL(19,2)
+            amounts[i] = BigDecimal.valueOf(random.nextLong(100_000L, 500_000_000L), 2);
+            dayKeys[i] = firstDay + random.nextInt(DAYS);
+            categoryKeys[i] = random.nextInt(CATEGORIES);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimalReduce() {
+        return Arrays.stream(amounts).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal totalMoneyAccumulator() {
+        MoneyAccumulator acc = new MoneyAccumulator();
+        for (BigDecimal amount : amounts) {
+            acc.add(amount);
+        }
+        return acc.total();
+    }
+
+    @Benchmark
+    public void byDayHashMapMerge(Blackhole bh) {
+        Map<Integer, BigDecimal> byDay = new HashMap<>();
+        for (int i = 0; i < rows; i++) {
+            byDay.merge(dayKeys[i], amounts[i], BigDecimal::add);
+        }
+        bh.consume(byDay);
+    }
+
+    @Benchmark
+    public void byDayIntKeyed(Blackhole bh) {
+        IntKeyedMoneySums byDay = new IntKeyedMoneySums(DAYS);
+        for (int i = 0; i < rows; i++) {
+            byDay.add(dayKeys[i], amounts[i]);
+        }
+        bh.consume(byDay.total(dayKeys[0]));
+    }
+
+    @Benchmark
+    public void byCategoryHashMapMerge(Blackhole bh) {
+        Map<Integer, BigDecimal> byCategory = new HashMap<>();
+        for (int i = 0; i < rows; i++) {
+            byCategory.merge(categoryKeys[i], amounts[i], BigDecimal::add);
+        }
+        bh.consume(byCategory);
+    }
+
+    @Benchmark
+    public void byCategoryIntKeyed(Blackhole bh) {
+        IntKeyedMoneySums byCategory = new IntKeyedMoneySums(CATEGORIES);
+        for (int i = 0; i < rows; i++) {
+            byCategory.add(categoryKeys[i], amounts[i]);
+        }
+        bh.consume(byCategory.total(categoryKeys[0]));
+    }
+}
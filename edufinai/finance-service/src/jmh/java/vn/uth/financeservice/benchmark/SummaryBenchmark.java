@@ -0,0 +1,239 @@
+package vn.uth.financeservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import vn.uth.financeservice.dto.CategorySummaryDto;
+import vn.uth.financeservice.dto.DailyReportResponseDto;
+import vn.uth.financeservice.dto.RangeSummaryResponseDto;
+import vn.uth.financeservice.dto.SevenDaysResponseDto;
+import vn.uth.financeservice.entity.Goal;
+import vn.uth.financeservice.entity.GoalStatus;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.projection.CategoryTotalView;
+import vn.uth.financeservice.repository.projection.DailyReportRowView;
+import vn.uth.financeservice.repository.projection.TypeTotalView;
+import vn.uth.financeservice.service.SummaryCalculations;
+import vn.uth.financeservice.service.SummaryGranularity;
+import vn.uth.financeservice.service.SummaryRange;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline cho phần tính toán thuần của SummaryService (SummaryCalculations) và serialize response:
+ * - dailyReport: chia bucket + gom category + sắp xếp, chạy trên N transaction của cửa sổ 7 ngày
+ * - categoryTopN: tạo CategorySummaryDto + sắp xếp giảm dần trên N dòng category
+ * - trendPercentages: % thay đổi / tỷ lệ tiết kiệm cho N cặp số tiền
+ * - sevenDays: dựng SevenDaysResponseDto từ dữ liệu đã gom (ở production việc gom làm ở DB/rollup,
+ *   nên chi phí không phụ thuộc N)
+ * - serialize*: Jackson (cấu hình giống Spring Boot: ngày dạng ISO) cho response đã dựng sẵn
+ *
+ * Chạy trước và sau mỗi thay đổi để so sánh:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="SummaryBenchmark -prof gc -rf json -rff target/jmh-summary.json"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummaryBenchmark {
+
+    private static final int CATEGORIES = 20;
+    private static final int GOALS = 5;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private LocalDate today;
+    private List<DailyReportRowView> reportRows;
+    private List<CategoryTotalView> categoryRows;
+    private BigDecimal[] currentAmounts;
+    private BigDecimal[] previousAmounts;
+    private List<Goal> goals;
+
+    private SummaryCalculations.TypeTotals weekTotals;
+    private List<CategoryTotalView> weekCategoryTotals;
+    private List<RangeSummaryResponseDto.BucketDto> weekSeries;
+    private SummaryRange threeYears;
+    private List<SummaryCalculations.PeriodTotal> threeYearDailyRows;
+
+    private ObjectMapper objectMapper;
+    private DailyReportResponseDto dailyReport;
+    private SevenDaysResponseDto sevenDays;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(42);
+        today = LocalDate.of(2025, 6, 15);
+        String[] categoryNames = new String[CATEGORIES];
+        for (int c = 0; c < CATEGORIES; c++) {
+            categoryNames[c] = "Category " + c;
+        }
+
+        // N transaction trong 7 ngày gần nhất (70% chi tiêu, 30% thu nhập, 1/10 thu nhập là nạp goal)
+        reportRows = new ArrayList<>(rows);
+        Map<String, BigDecimal[]> weekByCategory = new HashMap<>();
+        Map<LocalDate, BigDecimal> weekExpenseDays = new TreeMap<>();
+        BigDecimal weekIncome = BigDecimal.ZERO;
+        BigDecimal weekExpense = BigDecimal.ZERO;
+        long incomeCount = 0;
+        long expenseCount = 0;
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime date = today.minusDays(random.nextInt(7)).atTime(random.nextInt(24), random.nextInt(60));
+            boolean expense = random.nextInt(10) < 7;
+            TransactionType type = expense ? TransactionType.EXPENSE : TransactionType.INCOME;
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(100_000L, 500_000_000L), 2);
+            String category = categoryNames[random.nextInt(CATEGORIES)];
+            boolean goalLinked = !expense && random.nextInt(10) == 0;
+            reportRows.add(new ReportRow(date, type, amount, "Txn " + i, category, goalLinked));
+
+            String key = type + "|" + category;
+            BigDecimal[] agg = weekByCategory.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            agg[0] = agg[0].add(amount);
+            agg[1] = agg[1].add(BigDecimal.ONE);
+            if (expense) {
+                weekExpense = weekExpense.add(amount);
+                expenseCount++;
+                weekExpenseDays.merge(date.toLocalDate(), amount, BigDecimal::add);
+            } else {
+                weekIncome = weekIncome.add(amount);
+                incomeCount++;
+            }
+        }
+
+        // N dòng category (cho benchmark sắp xếp top-N)
+        categoryRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            categoryRows.add(new CategoryRow(
+                    i % 2 == 0 ? TransactionType.EXPENSE : TransactionType.INCOME,
+                    "Category " + i,
+                    BigDecimal.valueOf(random.nextLong(100_000L, 500_000_000L), 2),
+                    (long) random.nextInt(1, 100)));
+        }
+
+        currentAmounts = new BigDecimal[rows];
+        previousAmounts = new BigDecimal[rows];
+        for (int i = 0; i < rows; i++) {
+            currentAmounts[i] = BigDecimal.valueOf(random.nextLong(0L, 500_000_000L), 2);
+            previousAmounts[i] = BigDecimal.valueOf(random.nextLong(0L, 500_000_000L), 2);
+        }
+
+        goals = new ArrayList<>();
+        for (int g = 0; g < GOALS; g++) {
+            Goal goal = new Goal();
+            goal.setTitle("Goal " + g);
+            goal.setAmount(new BigDecimal("10000000.00"));
+            goal.setSavedAmount(BigDecimal.valueOf(random.nextLong(0L, 1_000_000_000L), 2));
+            goal.setStatus(GoalStatus.ACTIVE);
+            goal.setEndAt(today.plusDays(random.nextInt(1, 90)).atStartOfDay());
+            goals.add(goal);
+        }
+
+        // Dữ liệu đã gom cho 7 ngày (giống kết quả đọc từ daily rollup)
+        weekTotals = SummaryCalculations.TypeTotals.of(List.of(
+                new TypeRow(TransactionType.INCOME, weekIncome, incomeCount),
+                new TypeRow(TransactionType.EXPENSE, weekExpense, expenseCount)));
+        weekCategoryTotals = new ArrayList<>();
+        weekByCategory.forEach((key, agg) -> {
+            String[] parts = key.split("\\|");
+            weekCategoryTotals.add(new CategoryRow(TransactionType.valueOf(parts[0]), parts[1], agg[0], agg[1].longValue()));
+        });
+        List<SummaryCalculations.PeriodTotal> weekExpenseRows = new ArrayList<>();
+        weekExpenseDays.forEach((day, total) -> weekExpenseRows.add(
+                new SummaryCalculations.PeriodTotal(day, TransactionType.EXPENSE, total, 1L)));
+        weekSeries = SummaryCalculations.buildSeries(new SummaryRange(today.minusDays(6), today),
+                SummaryGranularity.DAY, weekExpenseRows);
+
+        // Dòng (ngày, type) của 3 năm như kết quả sumByDayAndType (cho benchmark chia bucket của /range)
+        threeYears = new SummaryRange(today.minusYears(3).plusDays(1), today);
+        threeYearDailyRows = new ArrayList<>();
+        for (LocalDate day = threeYears.from(); !day.isAfter(today); day = day.plusDays(1)) {
+            threeYearDailyRows.add(new SummaryCalculations.PeriodTotal(day, TransactionType.EXPENSE,
+                    BigDecimal.valueOf(random.nextLong(100_000L, 500_000_000L), 2), random.nextInt(1, 20)));
+            threeYearDailyRows.add(new SummaryCalculations.PeriodTotal(day, TransactionType.INCOME,
+                    BigDecimal.valueOf(random.nextLong(100_000L, 500_000_000L), 2), random.nextInt(1, 5)));
+        }
+
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        dailyReport = SummaryCalculations.buildDailyReport(today, reportRows, goals);
+        sevenDays = SummaryCalculations.buildSevenDays(
+                today, weekTotals, BigDecimal.valueOf(123_456_789L, 2), weekCategoryTotals, weekSeries, goals);
+    }
+
+    @Benchmark
+    public DailyReportResponseDto dailyReport() {
+        return SummaryCalculations.buildDailyReport(today, reportRows, goals);
+    }
+
+    @Benchmark
+    public List<CategorySummaryDto> categoryTopN() {
+        return SummaryCalculations.toCategorySummaries(categoryRows, TransactionType.EXPENSE, new BigDecimal("1000000000.00"));
+    }
+
+    @Benchmark
+    public void trendPercentages(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(SummaryCalculations.changePercent(currentAmounts[i], previousAmounts[i]));
+            bh.consume(SummaryCalculations.savingRate(currentAmounts[i], previousAmounts[i]));
+        }
+    }
+
+    @Benchmark
+    public SevenDaysResponseDto sevenDays() {
+        return SummaryCalculations.buildSevenDays(
+                today, weekTotals, BigDecimal.valueOf(123_456_789L, 2), weekCategoryTotals, weekSeries, goals);
+    }
+
+    @Benchmark
+    public List<RangeSummaryResponseDto.BucketDto> rangeSeriesWeekly() {
+        return SummaryCalculations.buildSeries(threeYears, SummaryGranularity.WEEK, threeYearDailyRows);
+    }
+
+    @Benchmark
+    public byte[] serializeDailyReport() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dailyReport);
+    }
+
+    @Benchmark
+    public byte[] serializeSevenDays() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sevenDays);
+    }
+
+    // ===== Projection giả lập (thay cho proxy Spring Data) =====
+
+    private record ReportRow(LocalDateTime transactionDate, TransactionType txnType, BigDecimal amount,
+                             String name, String categoryName, Boolean goalLinked) implements DailyReportRowView {
+        public LocalDateTime getTransactionDate() { return transactionDate; }
+        public TransactionType getTxnType() { return txnType; }
+        public BigDecimal getAmount() { return amount; }
+        public String getName() { return name; }
+        public String getCategoryName() { return categoryName; }
+        public Boolean getGoalLinked() { return goalLinked; }
+        public Double getAnomalyScore() { return null; }
+    }
+
+    private record CategoryRow(TransactionType txnType, String categoryName, BigDecimal total,
+                               Long txnCount) implements CategoryTotalView {
+        public TransactionType getTxnType() { return txnType; }
+        public String getCategoryName() { return categoryName; }
+        public BigDecimal getTotal() { return total; }
+        public Long getTxnCount() { return txnCount; }
+    }
+
+    private record TypeRow(TransactionType txnType, BigDecimal total, Long txnCount) implements TypeTotalView {
+        public TransactionType getTxnType() { return txnType; }
+        public BigDecimal getTotal() { return total; }
+        public Long getTxnCount() { return txnCount; }
+        public BigDecimal getGoalTotal() { return null; }
+    }
+}
@@ -0,0 +1,162 @@
+package vn.uth.financeservice.aggregation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cộng dồn số tiền theo nhóm với key kiểu int (ngày = epochDay, category = chỉ số trong danh sách category, ...).
+ * - Bảng băm open addressing trên mảng int, không boxing key như HashMap&lt;Integer, BigDecimal&gt;
+ * - Mỗi nhóm là 1 MoneyAccumulator (chỉ tạo khi gặp key lần đầu, không tạo object mới cho mỗi dòng)
+ * - Duyệt kết quả theo thứ tự key xuất hiện lần đầu
+ *
+ * Không thread-safe.
+ */
+public final class IntKeyedMoneySums {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private MoneyAccumulator[] values;
+    private int[] insertionOrder; // slot index theo thứ tự thêm
+    private int size;
+    private int mask;
+
+    public IntKeyedMoneySums() {
+        this(16);
+    }
+
+    public IntKeyedMoneySums(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedKeys / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Key cho bucket theo ngày
+     */
+    public static int dayKey(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    public static LocalDate dayOf(int dayKey) {
+        return LocalDate.ofEpochDay(dayKey);
+    }
+
+    public IntKeyedMoneySums add(int key, BigDecimal amount) {
+        accumulator(key).add(amount);
+        return this;
+    }
+
+    public IntKeyedMoneySums addMinor(int key, long minorUnits) {
+        accumulator(key).addMinor(minorUnits);
+        return this;
+    }
+
+    /**
+     * Accumulator của key (tạo mới nếu chưa có)
+     */
+    public MoneyAccumulator accumulator(int key) {
+        int slot = findSlot(key);
+        MoneyAccumulator acc = values[slot];
+        if (acc != null) {
+            return acc;
+        }
+        if (size + 1 > values.length * LOAD_FACTOR) {
+            rehash(values.length << 1);
+            slot = findSlot(key);
+        }
+        acc = new MoneyAccumulator();
+        keys[slot] = key;
+        values[slot] = acc;
+        insertionOrder[size++] = slot;
+        return acc;
+    }
+
+    /**
+     * Tổng của key; BigDecimal.ZERO nếu chưa có key
+     */
+    public BigDecimal total(int key) {
+        MoneyAccumulator acc = values[findSlot(key)];
+        return acc != null ? acc.total() : BigDecimal.ZERO;
+    }
+
+    public long count(int key) {
+        MoneyAccumulator acc = values[findSlot(key)];
+        return acc != null ? acc.count() : 0L;
+    }
+
+    public boolean contains(int key) {
+        return values[findSlot(key)] != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Các key theo thứ tự xuất hiện lần đầu
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = keys[insertionOrder[i]];
+        }
+        return result;
+    }
+
+    public void forEach(Consumer consumer) {
+        for (int i = 0; i < size; i++) {
+            int slot = insertionOrder[i];
+            consumer.accept(keys[slot], values[slot]);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(int key, MoneyAccumulator sums);
+    }
+
+    private int findSlot(int key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        MoneyAccumulator[] oldValues = values;
+        int[] oldOrder = insertionOrder;
+        int oldSize = size;
+
+        allocate(newCapacity);
+        for (int i = 0; i < oldSize; i++) {
+            int oldSlot = oldOrder[i];
+            int slot = findSlot(oldKeys[oldSlot]);
+            keys[slot] = oldKeys[oldSlot];
+            values[slot] = oldValues[oldSlot];
+            insertionOrder[size++] = slot;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new MoneyAccumulator[capacity];
+        insertionOrder = new int[(int) (capacity * LOAD_FACTOR) + 1];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    // Trộn bit để các key liên tiếp (epochDay) không dồn vào cùng vùng slot
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, sums) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=').append(sums.total()));
+        return sb.append('}').toString();
+    }
+}
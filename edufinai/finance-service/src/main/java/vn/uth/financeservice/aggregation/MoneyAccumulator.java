@@ -0,0 +1,139 @@
+package vn.uth.financeservice.aggregation;
+
+import java.math.BigDecimal;
+
+/**
+ * Bộ cộng dồn số tiền theo đơn vị nhỏ nhất (2 chữ số thập phân, giống cột DECIMAL(19,2)) trên 1 biến long.
+ * - Không tạo BigDecimal mới cho mỗi phần tử như reduce(BigDecimal.ZERO, BigDecimal::add)
+ * - Khi tổng tràn long hoặc gặp số tiền có hơn 2 chữ số thập phân thì dồn phần đó sang BigDecimal (spill),
+ *   kết quả vẫn chính xác tuyệt đối
+ * - total() trả về cùng giá trị và cùng scale với reduce(BigDecimal.ZERO, BigDecimal::add)
+ *
+ * Không thread-safe: mỗi luồng dùng 1 instance riêng.
+ */
+public final class MoneyAccumulator {
+
+    /** Số chữ số thập phân của đơn vị nhỏ nhất */
+    public static final int SCALE = 2;
+
+    // BigDecimal có precision <= 18 thì unscaled value chắc chắn nằm trong long
+    private static final int MAX_LONG_PRECISION = 18;
+    private static final long[] POW10 = {1L, 10L, 100L};
+
+    private long minorSum;
+    private BigDecimal spill;
+    private long count;
+    private int maxScale;
+
+    /**
+     * Cộng 1 số tiền (null được bỏ qua)
+     */
+    public MoneyAccumulator add(BigDecimal amount) {
+        if (amount == null) {
+            return this;
+        }
+        count++;
+        int scale = amount.scale();
+        if (scale > maxScale) {
+            maxScale = scale;
+        }
+        if (scale == SCALE && amount.precision() <= MAX_LONG_PRECISION) {
+            addMinorUnits(amount.unscaledValue().longValue());
+        } else if (scale >= 0 && scale < SCALE && amount.precision() + (SCALE - scale) <= MAX_LONG_PRECISION) {
+            addMinorUnits(amount.unscaledValue().longValue() * POW10[SCALE - scale]);
+        } else {
+            // Số quá lớn hoặc có hơn 2 chữ số thập phân: cộng thẳng bằng BigDecimal
+            spill = spill == null ? amount : spill.add(amount);
+        }
+        return this;
+    }
+
+    /**
+     * Cộng 1 số tiền đã ở dạng đơn vị nhỏ nhất (vd 12345 = 123.45)
+     */
+    public MoneyAccumulator addMinor(long minorUnits) {
+        count++;
+        if (maxScale < SCALE) {
+            maxScale = SCALE;
+        }
+        addMinorUnits(minorUnits);
+        return this;
+    }
+
+    /**
+     * Gộp kết quả của 1 accumulator khác vào accumulator này
+     */
+    public MoneyAccumulator merge(MoneyAccumulator other) {
+        count += other.count;
+        if (other.maxScale > maxScale) {
+            maxScale = other.maxScale;
+        }
+        if (other.spill != null) {
+            spill = spill == null ? other.spill : spill.add(other.spill);
+        }
+        addMinorUnits(other.minorSum);
+        return this;
+    }
+
+    /**
+     * Tổng chính xác; BigDecimal.ZERO nếu chưa cộng phần tử nào
+     */
+    public BigDecimal total() {
+        if (count == 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal total = BigDecimal.valueOf(minorSum, SCALE);
+        if (spill != null) {
+            total = total.add(spill);
+        }
+        // Mọi phần tử có scale <= maxScale nên đổi scale không làm mất giá trị
+        return maxScale < SCALE ? total.setScale(maxScale) : total;
+    }
+
+    /**
+     * Số phần tử đã cộng (không tính null)
+     */
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * true nếu tổng đang nằm hoàn toàn trong long (chưa phải dùng BigDecimal)
+     */
+    public boolean fitsInLong() {
+        return spill == null;
+    }
+
+    /**
+     * Tổng theo đơn vị nhỏ nhất; chỉ hợp lệ khi fitsInLong()
+     */
+    public long minorUnits() {
+        if (spill != null) {
+            throw new ArithmeticException("Total does not fit in long minor units");
+        }
+        return minorSum;
+    }
+
+    public void reset() {
+        minorSum = 0;
+        spill = null;
+        count = 0;
+        maxScale = 0;
+    }
+
+    private void addMinorUnits(long minorUnits) {
+        long result = minorSum + minorUnits;
+        // Tràn khi 2 số hạng cùng dấu mà kết quả khác dấu
+        if (((minorSum ^ result) & (minorUnits ^ result)) < 0) {
+            BigDecimal current = BigDecimal.valueOf(minorSum, SCALE);
+            spill = spill == null ? current : spill.add(current);
+            minorSum = minorUnits;
+        } else {
+            minorSum = result;
+        }
+    }
+}
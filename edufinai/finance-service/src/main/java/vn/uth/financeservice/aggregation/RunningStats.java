@@ -0,0 +1,91 @@
+package vn.uth.financeservice.aggregation;
+
+/**
+ * Trung bình / phương sai chạy theo thuật toán Welford: cập nhật O(1) cho mỗi giá trị, không cần giữ lịch sử,
+ * ổn định số học hơn cách cộng dồn sum và sum bình phương.
+ * Cùng công thức với các câu UPDATE trên bảng spending_stats (SpendingStatsRepository).
+ *
+ * Không thread-safe: mỗi luồng dùng 1 instance riêng.
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2; // tổng bình phương độ lệch so với mean
+
+    public RunningStats() {
+    }
+
+    public RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    public RunningStats add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        return this;
+    }
+
+    /**
+     * Gỡ 1 giá trị đã cộng trước đó (transaction bị xóa)
+     */
+    public RunningStats remove(double x) {
+        if (count <= 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            return this;
+        }
+        double newMean = (count * mean - x) / (count - 1);
+        m2 = Math.max(0, m2 - (x - newMean) * (x - mean));
+        mean = newMean;
+        count--;
+        return this;
+    }
+
+    /**
+     * Gộp thống kê của 1 nhóm khác (Chan et al.), dùng khi cộng cả batch transaction 1 lần
+     */
+    public RunningStats merge(RunningStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        mean += delta * other.count / total;
+        count = total;
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double m2() {
+        return m2;
+    }
+
+    /**
+     * Độ lệch chuẩn mẫu (chia n - 1), 0 nếu chưa đủ 2 giá trị
+     */
+    public double stddev() {
+        return count < 2 ? 0 : Math.sqrt(m2 / (count - 1));
+    }
+
+    /**
+     * Số độ lệch chuẩn mà x cách trung bình; NaN nếu độ lệch chuẩn bằng 0
+     */
+    public double zScore(double x) {
+        double sd = stddev();
+        return sd > 0 ? (x - mean) / sd : Double.NaN;
+    }
+}
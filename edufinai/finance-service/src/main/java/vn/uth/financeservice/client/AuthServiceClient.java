@@ -13,6 +13,7 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 import vn.uth.financeservice.client.dto.AuthApiResponse;
 import vn.uth.financeservice.client.dto.AuthUserResponse;
+import vn.uth.financeservice.datasource.ReadYourWritesGuard;
 
 import java.util.UUID;
 
@@ -25,6 +26,7 @@ public class AuthServiceClient {
             new ParameterizedTypeReference<>() {};
 
     private final RestTemplate restTemplate;
+    private final ReadYourWritesGuard readYourWritesGuard;
 
     @Value("${services.auth.base-url:http://auth-service}")
     private String authServiceBaseUrl;
@@ -53,11 +55,15 @@ public class AuthServiceClient {
         if (user == null || !StringUtils.hasText(user.getId())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Thiếu thông tin userId");
         }
+        UUID userId;
         try {
-            return UUID.fromString(user.getId());
+            userId = UUID.fromString(user.getId());
         } catch (IllegalArgumentException ex) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Định dạng userId không hợp lệ");
         }
+        // Để định tuyến đọc replica/primary biết user của request (read-your-writes)
+        readYourWritesGuard.bindCurrentUser(userId);
+        return userId;
     }
 }
 
@@ -20,43 +20,49 @@ public class GamificationServiceClient {
     private static final Logger log = LoggerFactory.getLogger(GamificationServiceClient.class);
 
     private final RestTemplate restTemplate;
+    private final ServiceTokenProvider serviceTokenProvider;
     private final String gamificationServiceUrl;
 
     public GamificationServiceClient(RestTemplate restTemplate,
+                                     ServiceTokenProvider serviceTokenProvider,
                                      @Value("${services.gamification.base-url:http://GAMIFICATION-SERVICE}") String gamificationServiceUrl) {
         this.restTemplate = restTemplate;
+        this.serviceTokenProvider = serviceTokenProvider;
         this.gamificationServiceUrl = gamificationServiceUrl;
     }
 
     /**
-     * Publish challenge event khi user đạt mục tiêu tài chính
+     * Tạo body challenge event (ghi vào outbox, relay gửi đi sau)
      * 
      * @param userId ID của user
      * @param eventType Loại event (GOAL, EXPENSE)
      * @param action Hành động (COMPLETE, ACHIEVE)
      */
-    public void publishGoalAchievedEvent(UUID userId, String eventType, String action) {
-        try {
-            String url = gamificationServiceUrl + "/api/v1/gamify/challenge/event";
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("userId", userId.toString());
-            requestBody.put("eventType", eventType);
-            requestBody.put("action", action);
-            requestBody.put("amount", 1); // Ghi nhận 1 lần đạt mục tiêu
-            requestBody.put("occurredAt", ZonedDateTime.now().toString());
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            restTemplate.postForEntity(url, request, Map.class);
-            log.debug("Published goal achieved event for user {}: eventType={}, action={}", userId, eventType, action);
-        } catch (Exception e) {
-            // Log error nhưng không throw để không ảnh hưởng đến flow chính
-            log.warn("Failed to publish goal achieved event to gamification service for user {}: {}", userId, e.getMessage());
-        }
+    public Map<String, Object> buildChallengeEvent(UUID userId, String eventType, String action) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("userId", userId.toString());
+        requestBody.put("eventType", eventType);
+        requestBody.put("action", action);
+        requestBody.put("amount", 1); // Ghi nhận 1 lần đạt mục tiêu
+        requestBody.put("occurredAt", ZonedDateTime.now().toString());
+        return requestBody;
     }
-}
 
+    /**
+     * Gửi challenge event đã serialize sang gamification service.
+     * Dùng JWT service (không có JWT user khi chạy từ outbox relay). Lỗi được throw để relay retry.
+     *
+     * @param eventId ID của outbox event, gửi kèm header X-Event-Id để phía nhận có thể bỏ qua event trùng
+     */
+    public void deliverChallengeEvent(UUID eventId, String payloadJson) {
+        String url = gamificationServiceUrl + "/api/v1/gamify/challenge/event";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(serviceTokenProvider.getToken());
+        headers.set("X-Event-Id", eventId.toString());
+
+        restTemplate.postForEntity(url, new HttpEntity<>(payloadJson, headers), Map.class);
+        log.debug("Delivered challenge event {} to gamification service", eventId);
+    }
+}
@@ -0,0 +1,63 @@
+package vn.uth.financeservice.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+public class NotificationServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationServiceClient.class);
+
+    private final RestTemplate restTemplate;
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final String notificationServiceUrl;
+
+    public NotificationServiceClient(RestTemplate restTemplate,
+                                     ServiceTokenProvider serviceTokenProvider,
+                                     @Value("${services.notification.base-url:http://NOTIFICATION-SERVICE}") String notificationServiceUrl) {
+        this.restTemplate = restTemplate;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.notificationServiceUrl = notificationServiceUrl;
+    }
+
+    /**
+     * Tạo body push notification (ghi vào outbox, relay gửi đi sau)
+     *
+     * @param data dữ liệu kèm theo cho app (giá trị dạng chuỗi theo yêu cầu của FCM)
+     */
+    public Map<String, Object> buildUserNotification(String title, String body, Map<String, String> data) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("title", title);
+        requestBody.put("body", body);
+        requestBody.put("data", data);
+        return requestBody;
+    }
+
+    /**
+     * Gửi push notification đã serialize tới các thiết bị của user qua notification service.
+     * Lỗi được throw để relay retry.
+     *
+     * @param eventId ID của outbox event, gửi kèm header X-Event-Id để phía nhận có thể bỏ qua event trùng
+     */
+    public void deliverUserNotification(UUID eventId, UUID userId, String payloadJson) {
+        String url = notificationServiceUrl + "/api/notifications/user/" + userId;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(serviceTokenProvider.getToken());
+        headers.set("X-Event-Id", eventId.toString());
+
+        restTemplate.postForEntity(url, new HttpEntity<>(payloadJson, headers), Void.class);
+        log.debug("Delivered notification {} to user {}", eventId, userId);
+    }
+}
@@ -0,0 +1,58 @@
+package vn.uth.financeservice.client;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tạo JWT ngắn hạn (HS512, cùng jwt.secret với các service khác) để gọi service-to-service
+ * từ job chạy nền, nơi không có JWT của user để forward.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private static final Duration TOKEN_TTL = Duration.ofMinutes(5);
+    private static final Duration REFRESH_BEFORE_EXPIRY = Duration.ofMinutes(1);
+
+    private final JwtEncoder jwtEncoder;
+    private volatile String cachedToken;
+    private volatile Instant cachedExpiresAt = Instant.EPOCH;
+
+    public ServiceTokenProvider(@Value("${jwt.secret}") String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
+        this.jwtEncoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+    }
+
+    public String getToken() {
+        Instant now = Instant.now();
+        if (cachedToken == null || now.isAfter(cachedExpiresAt.minus(REFRESH_BEFORE_EXPIRY))) {
+            synchronized (this) {
+                if (cachedToken == null || now.isAfter(cachedExpiresAt.minus(REFRESH_BEFORE_EXPIRY))) {
+                    Instant expiresAt = now.plus(TOKEN_TTL);
+                    JwtClaimsSet claims = JwtClaimsSet.builder()
+                            .issuer("edufinai.uth.vn")
+                            .subject("finance-service")
+                            .issuedAt(now)
+                            .expiresAt(expiresAt)
+                            .claim("scope", "SERVICE")
+                            .build();
+                    JwsHeader header = JwsHeader.with(MacAlgorithm.HS512).build();
+                    cachedToken = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+                    cachedExpiresAt = expiresAt;
+                }
+            }
+        }
+        return cachedToken;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import vn.uth.financeservice.dto.BalanceInitializeRequestDto;
 import vn.uth.financeservice.dto.BalanceResponseDto;
 import vn.uth.financeservice.client.AuthServiceClient;
@@ -19,6 +20,7 @@ public class BalanceController {
 
     private final BalanceService balanceService;
     private final AuthServiceClient authServiceClient;
+    private final ConditionalGet conditionalGet;
 
     @PostMapping("/initialize")
     public ResponseEntity<?> initialize(@RequestBody @Validated BalanceInitializeRequestDto dto) {
@@ -27,17 +29,15 @@ public class BalanceController {
     }
 
     @GetMapping
-    public ResponseEntity<BalanceResponseDto> getCurrentBalance() {
+    public ResponseEntity<BalanceResponseDto> getCurrentBalance(WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
-        BalanceResponseDto balance = balanceService.getCurrentBalance(userId);
-        return ResponseEntity.ok(balance);
+        return conditionalGet.respond(request, userId, () -> balanceService.getCurrentBalance(userId));
     }
 
     @GetMapping("/check-initialized")
-    public ResponseEntity<Boolean> checkInitialized() {
+    public ResponseEntity<Boolean> checkInitialized(WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
-        boolean initialized = balanceService.hasInitializedBalance(userId);
-        return ResponseEntity.ok(initialized);
+        return conditionalGet.respond(request, userId, () -> balanceService.hasInitializedBalance(userId));
     }
 }
 
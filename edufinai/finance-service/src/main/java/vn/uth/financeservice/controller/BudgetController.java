@@ -0,0 +1,56 @@
+package vn.uth.financeservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import vn.uth.financeservice.client.AuthServiceClient;
+import vn.uth.financeservice.dto.BudgetRequestDto;
+import vn.uth.financeservice.dto.BudgetStatusDto;
+import vn.uth.financeservice.service.BudgetService;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ngân sách chi tiêu mỗi tháng theo category, cảnh báo (push notification) khi dùng tới 80% / 100%
+ */
+@RestController
+@RequestMapping("/api/v1/budgets")
+@RequiredArgsConstructor
+@Validated
+public class BudgetController {
+
+    private final BudgetService budgetService;
+    private final AuthServiceClient authServiceClient;
+    private final ConditionalGet conditionalGet;
+
+    /**
+     * API: PUT /api/v1/budgets
+     * Đặt hạn mức cho category (tạo mới hoặc thay hạn mức cũ), trả về trạng thái ngân sách tháng hiện tại
+     */
+    @PutMapping
+    public ResponseEntity<List<BudgetStatusDto>> upsert(@RequestBody @Validated BudgetRequestDto dto) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        budgetService.upsertBudget(userId, dto);
+        return ResponseEntity.ok(budgetService.getBudgetStatus(userId));
+    }
+
+    /**
+     * API: GET /api/v1/budgets
+     * Trạng thái ngân sách tháng hiện tại cho dashboard (đọc từ bộ đếm, không cộng lại transaction)
+     */
+    @GetMapping
+    public ResponseEntity<List<BudgetStatusDto>> status(WebRequest request) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        return conditionalGet.respond(request, userId, () -> budgetService.getBudgetStatus(userId));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable UUID id) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        budgetService.deleteBudget(id, userId);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,36 @@
+package vn.uth.financeservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import vn.uth.financeservice.service.DataVersionService;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET cho các API đọc: ETag = version dữ liệu của user.
+ * If-None-Match khớp thì trả 304 ngay, không chạy query.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGet {
+
+    // Trình duyệt được lưu response nhưng phải hỏi lại server (If-None-Match) mỗi lần dùng
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final DataVersionService dataVersionService;
+
+    public <T> ResponseEntity<T> respond(WebRequest request, UUID userId, Supplier<T> loader) {
+        // Đọc version trước khi query: nếu dữ liệu đổi trong lúc query thì ETag cũ hơn dữ liệu,
+        // lần gọi sau chỉ tải lại thừa 1 lần chứ không bị kẹt ở dữ liệu cũ
+        String etag = dataVersionService.etag(userId);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_CONTROL).body(loader.get());
+    }
+}
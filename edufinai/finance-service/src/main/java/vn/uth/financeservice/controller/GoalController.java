@@ -37,9 +37,9 @@ public class GoalController {
     @GetMapping
     public ResponseEntity<List<GoalResponseDto>> list() {
         UUID userId = authServiceClient.getCurrentUserId();
-        // Sử dụng getUserGoalsWithAutoStatusUpdate() để tự động check và update status
-        // (COMPLETED nếu đạt mục tiêu, FAILED nếu hết hạn mà chưa đạt)
-        List<Goal> goals = goalService.getUserGoalsWithAutoStatusUpdate(userId);
+        // Chỉ đọc: newStatus được cập nhật khi nạp/rút tiền,
+        // goal hết hạn mà chưa đạt được job nền chuyển sang FAILED
+        List<Goal> goals = goalService.getUserGoals(userId);
         List<GoalResponseDto> response = goals.stream()
                 .map(this::toGoalResponseDto)
                 .collect(Collectors.toList());
@@ -0,0 +1,70 @@
+package vn.uth.financeservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import vn.uth.financeservice.client.AuthServiceClient;
+import vn.uth.financeservice.dto.RecurringTransactionRequestDto;
+import vn.uth.financeservice.dto.RecurringTransactionResponseDto;
+import vn.uth.financeservice.entity.RecurringTransaction;
+import vn.uth.financeservice.service.RecurringTransactionService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Giao dịch định kỳ (tiền nhà, lương, subscription, ...): transaction được job nền sinh tự động khi đến hạn
+ */
+@RestController
+@RequestMapping("/api/v1/recurring-transactions")
+@RequiredArgsConstructor
+@Validated
+public class RecurringTransactionController {
+
+    private final RecurringTransactionService recurringTransactionService;
+    private final AuthServiceClient authServiceClient;
+
+    @PostMapping
+    public ResponseEntity<RecurringTransactionResponseDto> create(@RequestBody @Validated RecurringTransactionRequestDto dto) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        RecurringTransaction recurring = recurringTransactionService.createRecurring(userId, dto);
+        return ResponseEntity.ok(toResponseDto(recurring));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RecurringTransactionResponseDto>> list() {
+        UUID userId = authServiceClient.getCurrentUserId();
+        List<RecurringTransactionResponseDto> response = recurringTransactionService.getUserRecurring(userId).stream()
+                .map(this::toResponseDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable UUID id) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        recurringTransactionService.deleteRecurring(id, userId);
+        return ResponseEntity.ok().build();
+    }
+
+    private RecurringTransactionResponseDto toResponseDto(RecurringTransaction r) {
+        RecurringTransactionResponseDto dto = new RecurringTransactionResponseDto();
+        dto.setRecurringId(r.getRecurringId());
+        dto.setType(r.getType());
+        dto.setAmount(r.getAmount());
+        dto.setName(r.getName());
+        dto.setCategory(r.getCategory() != null ? r.getCategory().getName() : null);
+        dto.setNote(r.getNote());
+        dto.setFrequency(r.getFrequency());
+        dto.setIntervalCount(r.getIntervalCount());
+        dto.setCronExpression(r.getCronExpression());
+        dto.setStartDate(r.getStartDate());
+        dto.setEndDate(r.getEndDate());
+        dto.setNextRunDate(r.getNextRunDate());
+        dto.setLastRunDate(r.getLastRunDate());
+        dto.setActive(r.getActive());
+        return dto;
+    }
+}
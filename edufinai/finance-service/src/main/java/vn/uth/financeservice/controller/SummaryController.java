@@ -1,18 +1,30 @@
 package vn.uth.financeservice.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import vn.uth.financeservice.dto.SummaryResponseDto;
 import vn.uth.financeservice.dto.MonthOptimizedResponseDto;
 import vn.uth.financeservice.dto.SevenDaysResponseDto;
 import vn.uth.financeservice.dto.DailyReportResponseDto;
+import vn.uth.financeservice.dto.AiDigestDto;
+import vn.uth.financeservice.dto.HeatmapResponseDto;
+import vn.uth.financeservice.dto.RangeSummaryResponseDto;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.service.SummaryCache;
+import vn.uth.financeservice.service.SummaryGranularity;
+import vn.uth.financeservice.service.SummaryRange;
 import vn.uth.financeservice.service.SummaryService;
 import vn.uth.financeservice.client.AuthServiceClient;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Map;
 import java.util.UUID;
 
@@ -23,6 +35,8 @@ public class SummaryController {
 
     private final SummaryService summaryService;
     private final AuthServiceClient authServiceClient;
+    private final SummaryCache summaryCache;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping("/test-jwt")
     public ResponseEntity<Map<String, Object>> testJwt(JwtAuthenticationToken token) {
@@ -44,17 +58,16 @@ public class SummaryController {
     }
 
     @GetMapping("/month")
-    public ResponseEntity<SummaryResponseDto> getMonthlySummary() {
+    public ResponseEntity<SummaryResponseDto> getMonthlySummary(WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
-        SummaryResponseDto summary = summaryService.getMonthlySummary(userId);
-        return ResponseEntity.ok(summary);
+        return conditionalGet.respond(request, userId, () -> summaryService.getMonthlySummary(userId));
     }
 
     @GetMapping("/month-optimized")
-    public ResponseEntity<MonthOptimizedResponseDto> getMonthOptimizedSummary() {
+    public ResponseEntity<MonthOptimizedResponseDto> getMonthOptimizedSummary(WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
-        MonthOptimizedResponseDto summary = summaryService.getMonthOptimizedSummary(userId);
-        return ResponseEntity.ok(summary);
+        return conditionalGet.respond(request, userId, () -> summaryCache.get(userId, "month-optimized",
+                YearMonth.now().toString(), () -> summaryService.getMonthOptimizedSummary(userId)));
     }
 
     /**
@@ -64,10 +77,10 @@ public class SummaryController {
      * @return SevenDaysResponseDto
      */
     @GetMapping("/7days")
-    public ResponseEntity<SevenDaysResponseDto> get7DaysSummary() {
+    public ResponseEntity<SevenDaysResponseDto> get7DaysSummary(WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
-        SevenDaysResponseDto summary = summaryService.get7DaysSummary(userId);
-        return ResponseEntity.ok(summary);
+        return conditionalGet.respond(request, userId, () -> summaryCache.get(userId, "7days",
+                LocalDate.now().toString(), () -> summaryService.get7DaysSummary(userId)));
     }
 
     /**
@@ -77,11 +90,72 @@ public class SummaryController {
      * @return DailyReportResponseDto
      */
     @GetMapping("/daily")
-    public ResponseEntity<DailyReportResponseDto> getDailyReport() {
+    public ResponseEntity<DailyReportResponseDto> getDailyReport(WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
-        DailyReportResponseDto report = summaryService.getDailyReport(userId);
-        return ResponseEntity.ok(report);
+        return conditionalGet.respond(request, userId, () -> summaryCache.get(userId, "daily",
+                LocalDate.now().toString(), () -> summaryService.getDailyReport(userId)));
     }
-}
 
+    /**
+     * API: GET /api/summary/range?from=2025-01-01&to=2025-12-31&granularity=day|week|month&compareTo=previous
+     * Tổng hợp cho khoảng ngày tùy ý (tối đa 10 năm): tổng, breakdown theo category, chuỗi theo bucket,
+     * compareTo=previous thêm so sánh với kỳ liền trước cùng độ dài
+     *
+     * @return RangeSummaryResponseDto
+     */
+    @GetMapping("/range")
+    public ResponseEntity<RangeSummaryResponseDto> getRangeSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String compareTo,
+            WebRequest request) {
+        boolean comparePrevious = "previous".equalsIgnoreCase(compareTo);
+        if (compareTo != null && !comparePrevious) {
+            throw new IllegalArgumentException("compareTo must be previous");
+        }
+        SummaryRange range = new SummaryRange(from, to);
+        SummaryGranularity bucket = SummaryGranularity.parse(granularity);
+        UUID userId = authServiceClient.getCurrentUserId();
+        return conditionalGet.respond(request, userId, () -> summaryCache.get(userId, "range",
+                from + "|" + to + "|" + bucket + "|" + comparePrevious,
+                () -> summaryService.getRangeSummary(userId, range, bucket, comparePrevious)));
+    }
+
+    /**
+     * API: GET /api/summary/heatmap?type=expense|income&months=12
+     * Tổng theo ngày của N tháng gần nhất (1-24) dạng mảng số cho calendar heatmap
+     *
+     * @return HeatmapResponseDto
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<HeatmapResponseDto> getHeatmap(@RequestParam(defaultValue = "expense") String type,
+                                                         @RequestParam(defaultValue = "12") int months,
+                                                         WebRequest request) {
+        boolean income = "income".equalsIgnoreCase(type);
+        if (!income && !"expense".equalsIgnoreCase(type)) {
+            throw new IllegalArgumentException("type must be expense or income");
+        }
+        if (months < 1 || months > 24) {
+            throw new IllegalArgumentException("months must be between 1 and 24");
+        }
+        TransactionType txnType = income ? TransactionType.INCOME : TransactionType.EXPENSE;
+        UUID userId = authServiceClient.getCurrentUserId();
+        return conditionalGet.respond(request, userId, () -> summaryCache.get(userId, "heatmap",
+                txnType + "|" + months + "|" + LocalDate.now(),
+                () -> summaryService.getHeatmap(userId, txnType, months)));
+    }
 
+    /**
+     * API: GET /api/summary/ai-digest
+     * Dữ liệu tài chính tháng hiện tại dạng rút gọn (key ngắn, top category) để đưa vào prompt của ai-service
+     *
+     * @return AiDigestDto
+     */
+    @GetMapping("/ai-digest")
+    public ResponseEntity<AiDigestDto> getAiDigest(WebRequest request) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        return conditionalGet.respond(request, userId, () -> summaryCache.get(userId, "ai-digest",
+                LocalDate.now().toString(), () -> summaryService.getAiDigest(userId)));
+    }
+}
@@ -1,19 +1,31 @@
 package vn.uth.financeservice.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import vn.uth.financeservice.dto.CursorPageDto;
+import vn.uth.financeservice.dto.TransactionBulkRequestDto;
+import vn.uth.financeservice.dto.TransactionBulkResultDto;
+import vn.uth.financeservice.dto.TransactionImportResultDto;
 import vn.uth.financeservice.dto.TransactionRequestDto;
 import vn.uth.financeservice.dto.TransactionResponseDto;
 import vn.uth.financeservice.entity.Transaction;
 import vn.uth.financeservice.client.AuthServiceClient;
+import vn.uth.financeservice.service.TransactionExportService;
+import vn.uth.financeservice.service.TransactionImportService;
 import vn.uth.financeservice.service.TransactionService;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +38,9 @@ public class TransactionController {
 
     private final TransactionService transactionService;
     private final AuthServiceClient authServiceClient;
+    private final TransactionImportService transactionImportService;
+    private final TransactionExportService transactionExportService;
+    private final ConditionalGet conditionalGet;
 
     @PostMapping
     public ResponseEntity<TransactionResponseDto> create(@RequestBody @Validated TransactionRequestDto dto) {
@@ -42,12 +57,63 @@ public class TransactionController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * API: POST /api/v1/transactions/import
+     * Import hàng loạt từ body dạng CSV (text/csv) hoặc NDJSON (application/x-ndjson).
+     * Body được đọc dạng stream, dòng lỗi được trả về trong kết quả thay vì hủy cả file.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<TransactionImportResultDto> importTransactions(HttpServletRequest request) throws IOException {
+        UUID userId = authServiceClient.getCurrentUserId();
+        String contentType = request.getContentType() != null ? request.getContentType().toLowerCase() : "";
+        TransactionImportService.Format format = contentType.contains("json")
+                ? TransactionImportService.Format.NDJSON
+                : TransactionImportService.Format.CSV;
+        TransactionImportResultDto result = transactionImportService.importTransactions(
+                userId, request.getInputStream(), format);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * API: GET /api/v1/transactions/export?format=csv|ndjson
+     * Export toàn bộ lịch sử transaction (ACTIVE), dữ liệu được stream ngay khi đọc từ DB
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"csv".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+        TransactionExportService.Format exportFormat = ndjson
+                ? TransactionExportService.Format.NDJSON
+                : TransactionExportService.Format.CSV;
+
+        StreamingResponseBody body = out -> transactionExportService.export(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson")
+                        : MediaType.parseMediaType("text/csv;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + (ndjson ? "ndjson" : "csv") + "\"")
+                .body(body);
+    }
+
+    /**
+     * API: POST /api/v1/transactions/bulk
+     * Đổi category / xóa mềm / khôi phục các transaction khớp bộ lọc (1 câu lệnh cho mỗi thao tác)
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<TransactionBulkResultDto> bulkUpdate(@RequestBody @Validated TransactionBulkRequestDto dto) {
+        UUID userId = authServiceClient.getCurrentUserId();
+        return ResponseEntity.ok(transactionService.bulkUpdate(userId, dto));
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<List<TransactionResponseDto>> getRecentTransactions(
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
-        List<TransactionResponseDto> transactions = transactionService.getRecentTransactions(userId, limit);
-        return ResponseEntity.ok(transactions);
+        return conditionalGet.respond(request, userId, () -> transactionService.getRecentTransactions(userId, limit));
     }
 
     @GetMapping
@@ -55,7 +121,8 @@ public class TransactionController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "15") int size,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            WebRequest request) {
         UUID userId = authServiceClient.getCurrentUserId();
         Pageable pageable = PageRequest.of(page, size);
         
@@ -67,8 +134,30 @@ public class TransactionController {
                     .withHour(23).withMinute(59).withSecond(59);
         }
         
-        Page<TransactionResponseDto> transactions = transactionService.getTransactions(userId, pageable, startDate, endDate);
-        return ResponseEntity.ok(transactions);
+        LocalDateTime from = startDate;
+        LocalDateTime to = endDate;
+        return conditionalGet.respond(request, userId,
+                () -> transactionService.getTransactions(userId, pageable, from, to));
+    }
+
+    /**
+     * API: GET /api/v1/transactions/cursor
+     * Phân trang theo cursor cho infinite scroll (mới nhất trước)
+     *
+     * @param cursor nextCursor của trang trước, bỏ trống để lấy trang đầu
+     * @param size   số items mỗi trang (1-100)
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDto<TransactionResponseDto>> getTransactionsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "15") int size,
+            WebRequest request) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("size must be between 1 and 100");
+        }
+        UUID userId = authServiceClient.getCurrentUserId();
+        return conditionalGet.respond(request, userId,
+                () -> transactionService.getTransactionsByCursor(userId, cursor, size));
     }
 
     private TransactionResponseDto toTransactionResponseDto(Transaction t) {
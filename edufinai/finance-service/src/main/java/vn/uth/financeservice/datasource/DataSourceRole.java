@@ -0,0 +1,9 @@
+package vn.uth.financeservice.datasource;
+
+/**
+ * Key định tuyến của ReadWriteRoutingDataSource
+ */
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,36 @@
+package vn.uth.financeservice.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Chọn DB theo DB transaction hiện tại:
+ * - Transaction readOnly -> replica, trừ khi user của request vừa ghi dữ liệu (ReadYourWritesGuard)
+ * - Còn lại (ghi, hoặc không có transaction) -> primary
+ *
+ * Phải bọc trong LazyConnectionDataSourceProxy: transaction manager lấy connection khi begin,
+ * lúc đó cờ readOnly của transaction chưa được set; proxy chỉ lấy connection thật ở câu SQL đầu tiên.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadYourWritesGuard guard;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesGuard guard) {
+        this.guard = guard;
+        setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            guard.recordWriteAfterCommit();
+            return DataSourceRole.PRIMARY;
+        }
+        return guard.mustReadPrimary() ? DataSourceRole.PRIMARY : DataSourceRole.REPLICA;
+    }
+}
@@ -0,0 +1,103 @@
+package vn.uth.financeservice.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Chống đọc dữ liệu cũ từ replica (read-your-writes):
+ * - User của request được gắn vào request hiện tại (bindCurrentUser, gọi khi xác thực user)
+ * - Transaction ghi của request commit xong thì user bị "ghim" vào primary trong N giây
+ *   (app.datasource.replica.read-your-writes-seconds, 0 = tắt)
+ * - Ngoài request (scheduled job, thread export) không có user -> đọc replica bình thường
+ *
+ * Trạng thái nằm trong bộ nhớ của từng instance: đủ cho trường hợp request tiếp theo của user
+ * vào cùng instance; N nên lớn hơn độ trễ replica thường gặp.
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private static final String CURRENT_USER_ATTRIBUTE = ReadYourWritesGuard.class.getName() + ".userId";
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final Cache<UUID, Boolean> recentWriters; // null nếu tắt
+
+    @Autowired
+    public ReadYourWritesGuard(@Value("${app.datasource.replica.read-your-writes-seconds:5}") long windowSeconds) {
+        this(windowSeconds, Ticker.systemTicker());
+    }
+
+    ReadYourWritesGuard(long windowSeconds, Ticker ticker) {
+        this.recentWriters = windowSeconds <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_USERS)
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Gắn user vào request hiện tại (không làm gì nếu không ở trong request)
+     */
+    public void bindCurrentUser(UUID userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && userId != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public UUID currentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                ? (UUID) attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+    }
+
+    /**
+     * Ghi nhận user vừa ghi dữ liệu (bắt đầu tính cửa sổ N giây)
+     */
+    public void markWrite(UUID userId) {
+        if (recentWriters != null && userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * true nếu user của request hiện tại vừa ghi dữ liệu, cần đọc từ primary
+     */
+    public boolean mustReadPrimary() {
+        if (recentWriters == null) {
+            return false;
+        }
+        UUID userId = currentUser();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    /**
+     * Gọi khi transaction ghi lấy connection: đánh dấu user của request sau khi transaction commit
+     */
+    void recordWriteAfterCommit() {
+        if (recentWriters == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        UUID userId = currentUser();
+        if (userId == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markWrite(userId);
+            }
+        });
+    }
+}
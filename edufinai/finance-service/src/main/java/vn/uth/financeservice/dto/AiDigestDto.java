@@ -0,0 +1,276 @@
+package vn.uth.financeservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Dữ liệu tài chính rút gọn cho prompt của ai-service (GET /api/summary/ai-digest).
+ * Key ngắn, số tiền làm tròn tới đồng, phần trăm 1 chữ số thập phân, bỏ field null / list rỗng.
+ *
+ * mo=tháng, inc=thu, exp=chi, bal=thu-chi, sr=tỷ lệ tiết kiệm %, avgExp=chi trung bình/ngày,
+ * incTr/expTr=% thay đổi so với tháng trước, topExp/topInc=hạng mục chi/thu lớn nhất,
+ * cat=category, amt=amount, cnt=count, pct=percent, prog=% tiến độ goal, days=số ngày còn lại,
+ * risk=goal có nguy cơ không đạt, anom=khoản chi bất thường, z=số độ lệch chuẩn so với mức chi thường ngày,
+ * day=ngày trong tháng
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class AiDigestDto {
+    private String mo;
+    private Long inc;
+    private Long exp;
+    private Long bal;
+    private Double sr;
+    private Long avgExp;
+    private Double incTr;
+    private Double expTr;
+    private List<Cat> topExp;
+    private List<Cat> topInc;
+    private List<GoalDigest> goals;
+    private List<Anom> anom;
+
+    public AiDigestDto() {}
+
+    public String getMo() {
+        return mo;
+    }
+
+    public void setMo(String mo) {
+        this.mo = mo;
+    }
+
+    public Long getInc() {
+        return inc;
+    }
+
+    public void setInc(Long inc) {
+        this.inc = inc;
+    }
+
+    public Long getExp() {
+        return exp;
+    }
+
+    public void setExp(Long exp) {
+        this.exp = exp;
+    }
+
+    public Long getBal() {
+        return bal;
+    }
+
+    public void setBal(Long bal) {
+        this.bal = bal;
+    }
+
+    public Double getSr() {
+        return sr;
+    }
+
+    public void setSr(Double sr) {
+        this.sr = sr;
+    }
+
+    public Long getAvgExp() {
+        return avgExp;
+    }
+
+    public void setAvgExp(Long avgExp) {
+        this.avgExp = avgExp;
+    }
+
+    public Double getIncTr() {
+        return incTr;
+    }
+
+    public void setIncTr(Double incTr) {
+        this.incTr = incTr;
+    }
+
+    public Double getExpTr() {
+        return expTr;
+    }
+
+    public void setExpTr(Double expTr) {
+        this.expTr = expTr;
+    }
+
+    public List<Cat> getTopExp() {
+        return topExp;
+    }
+
+    public void setTopExp(List<Cat> topExp) {
+        this.topExp = topExp;
+    }
+
+    public List<Cat> getTopInc() {
+        return topInc;
+    }
+
+    public void setTopInc(List<Cat> topInc) {
+        this.topInc = topInc;
+    }
+
+    public List<GoalDigest> getGoals() {
+        return goals;
+    }
+
+    public void setGoals(List<GoalDigest> goals) {
+        this.goals = goals;
+    }
+
+    public List<Anom> getAnom() {
+        return anom;
+    }
+
+    public void setAnom(List<Anom> anom) {
+        this.anom = anom;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Cat {
+        private String cat;
+        private Long amt;
+        private Long cnt;
+        private Double pct;
+
+        public Cat() {}
+
+        public Cat(String cat, Long amt, Long cnt, Double pct) {
+            this.cat = cat;
+            this.amt = amt;
+            this.cnt = cnt;
+            this.pct = pct;
+        }
+
+        public String getCat() {
+            return cat;
+        }
+
+        public void setCat(String cat) {
+            this.cat = cat;
+        }
+
+        public Long getAmt() {
+            return amt;
+        }
+
+        public void setAmt(Long amt) {
+            this.amt = amt;
+        }
+
+        public Long getCnt() {
+            return cnt;
+        }
+
+        public void setCnt(Long cnt) {
+            this.cnt = cnt;
+        }
+
+        public Double getPct() {
+            return pct;
+        }
+
+        public void setPct(Double pct) {
+            this.pct = pct;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class GoalDigest {
+        private String title;
+        private Double prog;
+        private Long days;
+        private Boolean risk; // chỉ có khi true
+
+        public GoalDigest() {}
+
+        public GoalDigest(String title, Double prog, Long days, Boolean risk) {
+            this.title = title;
+            this.prog = prog;
+            this.days = days;
+            this.risk = risk;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public Double getProg() {
+            return prog;
+        }
+
+        public void setProg(Double prog) {
+            this.prog = prog;
+        }
+
+        public Long getDays() {
+            return days;
+        }
+
+        public void setDays(Long days) {
+            this.days = days;
+        }
+
+        public Boolean getRisk() {
+            return risk;
+        }
+
+        public void setRisk(Boolean risk) {
+            this.risk = risk;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Anom {
+        private String cat;
+        private Long amt;
+        private Double z;
+        private Integer day;
+
+        public Anom() {}
+
+        public Anom(String cat, Long amt, Double z, Integer day) {
+            this.cat = cat;
+            this.amt = amt;
+            this.z = z;
+            this.day = day;
+        }
+
+        public String getCat() {
+            return cat;
+        }
+
+        public void setCat(String cat) {
+            this.cat = cat;
+        }
+
+        public Long getAmt() {
+            return amt;
+        }
+
+        public void setAmt(Long amt) {
+            this.amt = amt;
+        }
+
+        public Double getZ() {
+            return z;
+        }
+
+        public void setZ(Double z) {
+            this.z = z;
+        }
+
+        public Integer getDay() {
+            return day;
+        }
+
+        public void setDay(Integer day) {
+            this.day = day;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package vn.uth.financeservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public class BudgetRequestDto {
+    @NotNull
+    private UUID categoryId;
+    @NotNull
+    private BigDecimal amount; // hạn mức chi mỗi tháng
+
+    public UUID getCategoryId() { return categoryId; }
+    public void setCategoryId(UUID categoryId) { this.categoryId = categoryId; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
@@ -0,0 +1,40 @@
+package vn.uth.financeservice.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Trạng thái ngân sách của 1 category trong tháng hiện tại
+ */
+public class BudgetStatusDto {
+    private UUID budgetId;
+    private UUID categoryId;
+    private String categoryName;
+    private String month; // yyyy-MM
+    private BigDecimal amount;
+    private BigDecimal spent;
+    private BigDecimal remaining; // âm nếu đã vượt ngân sách
+    private Double usagePercent;
+    private Integer alertLevel; // 0 / 80 / 100
+
+    public BudgetStatusDto() {}
+
+    public UUID getBudgetId() { return budgetId; }
+    public void setBudgetId(UUID budgetId) { this.budgetId = budgetId; }
+    public UUID getCategoryId() { return categoryId; }
+    public void setCategoryId(UUID categoryId) { this.categoryId = categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+    public String getMonth() { return month; }
+    public void setMonth(String month) { this.month = month; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public BigDecimal getSpent() { return spent; }
+    public void setSpent(BigDecimal spent) { this.spent = spent; }
+    public BigDecimal getRemaining() { return remaining; }
+    public void setRemaining(BigDecimal remaining) { this.remaining = remaining; }
+    public Double getUsagePercent() { return usagePercent; }
+    public void setUsagePercent(Double usagePercent) { this.usagePercent = usagePercent; }
+    public Integer getAlertLevel() { return alertLevel; }
+    public void setAlertLevel(Integer alertLevel) { this.alertLevel = alertLevel; }
+}
@@ -131,6 +131,7 @@ public class DailyReportResponseDto {
     public static class ExpenseBreakdownDto {
         private List<CategorySummaryDto> byCategory;
         private LargestTransactionDto largestTransaction;
+        private List<AnomalyDto> anomalies; // khoản chi bất thường hôm nay, z giảm dần
 
         public ExpenseBreakdownDto() {}
 
@@ -155,6 +156,14 @@ public class DailyReportResponseDto {
         public void setLargestTransaction(LargestTransactionDto largestTransaction) {
             this.largestTransaction = largestTransaction;
         }
+
+        public List<AnomalyDto> getAnomalies() {
+            return anomalies;
+        }
+
+        public void setAnomalies(List<AnomalyDto> anomalies) {
+            this.anomalies = anomalies;
+        }
     }
 
     /**
@@ -210,6 +219,68 @@ public class DailyReportResponseDto {
         }
     }
 
+    /**
+     * Khoản chi bất thường: score = số độ lệch chuẩn (z-score) so với mức chi thường ngày của category
+     */
+    public static class AnomalyDto {
+        private String name;
+        private BigDecimal amount;
+        private String category;
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime time;
+        private Double score;
+
+        public AnomalyDto() {}
+
+        public AnomalyDto(String name, BigDecimal amount, String category, LocalDateTime time, Double score) {
+            this.name = name;
+            this.amount = amount;
+            this.category = category;
+            this.time = time;
+            this.score = score;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public void setTime(LocalDateTime time) {
+            this.time = time;
+        }
+
+        public Double getScore() {
+            return score;
+        }
+
+        public void setScore(Double score) {
+            this.score = score;
+        }
+    }
+
     /**
      * Comparison with previous day and 7-day average
      */
@@ -0,0 +1,81 @@
+package vn.uth.financeservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tổng tiền theo ngày cho calendar heatmap (GET /api/summary/heatmap).
+ * values[i] = tổng của ngày start + i (0 nếu không có giao dịch), max dùng để chia mức màu.
+ */
+public class HeatmapResponseDto {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate start;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate end;
+    private String type;
+    private BigDecimal total;
+    private double max;
+    private double[] values;
+
+    public HeatmapResponseDto() {}
+
+    public HeatmapResponseDto(LocalDate start, LocalDate end, String type, BigDecimal total, double max,
+                              double[] values) {
+        this.start = start;
+        this.end = end;
+        this.type = type;
+        this.total = total;
+        this.max = max;
+        this.values = values;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDate start) {
+        this.start = start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    public void setEnd(LocalDate end) {
+        this.end = end;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public void setValues(double[] values) {
+        this.values = values;
+    }
+}
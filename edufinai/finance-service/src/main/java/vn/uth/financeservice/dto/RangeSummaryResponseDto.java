@@ -0,0 +1,288 @@
+package vn.uth.financeservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Summary cho khoảng ngày tùy ý (GET /api/summary/range): tổng, breakdown theo category,
+ * chuỗi thời gian theo day / week / month và (tùy chọn) so sánh với kỳ liền trước
+ */
+public class RangeSummaryResponseDto {
+    private PeriodDto period;
+    private String granularity;
+    private TotalsDto summary;
+    private List<CategorySummaryDto> incomeCategories;
+    private List<CategorySummaryDto> expenseCategories;
+    private List<BucketDto> series;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ComparisonDto comparison;
+
+    public RangeSummaryResponseDto() {}
+
+    public PeriodDto getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(PeriodDto period) {
+        this.period = period;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public TotalsDto getSummary() {
+        return summary;
+    }
+
+    public void setSummary(TotalsDto summary) {
+        this.summary = summary;
+    }
+
+    public List<CategorySummaryDto> getIncomeCategories() {
+        return incomeCategories;
+    }
+
+    public void setIncomeCategories(List<CategorySummaryDto> incomeCategories) {
+        this.incomeCategories = incomeCategories;
+    }
+
+    public List<CategorySummaryDto> getExpenseCategories() {
+        return expenseCategories;
+    }
+
+    public void setExpenseCategories(List<CategorySummaryDto> expenseCategories) {
+        this.expenseCategories = expenseCategories;
+    }
+
+    public List<BucketDto> getSeries() {
+        return series;
+    }
+
+    public void setSeries(List<BucketDto> series) {
+        this.series = series;
+    }
+
+    public ComparisonDto getComparison() {
+        return comparison;
+    }
+
+    public void setComparison(ComparisonDto comparison) {
+        this.comparison = comparison;
+    }
+
+    /**
+     * Tổng của 1 kỳ
+     */
+    public static class TotalsDto {
+        private BigDecimal totalIncome;
+        private BigDecimal totalExpense;
+        private BigDecimal netAmount;
+        private Long incomeCount;
+        private Long expenseCount;
+        private Double savingRate;
+        private BigDecimal averageDailyExpense;
+
+        public TotalsDto() {}
+
+        public TotalsDto(BigDecimal totalIncome, BigDecimal totalExpense, BigDecimal netAmount,
+                         Long incomeCount, Long expenseCount, Double savingRate, BigDecimal averageDailyExpense) {
+            this.totalIncome = totalIncome;
+            this.totalExpense = totalExpense;
+            this.netAmount = netAmount;
+            this.incomeCount = incomeCount;
+            this.expenseCount = expenseCount;
+            this.savingRate = savingRate;
+            this.averageDailyExpense = averageDailyExpense;
+        }
+
+        public BigDecimal getTotalIncome() {
+            return totalIncome;
+        }
+
+        public void setTotalIncome(BigDecimal totalIncome) {
+            this.totalIncome = totalIncome;
+        }
+
+        public BigDecimal getTotalExpense() {
+            return totalExpense;
+        }
+
+        public void setTotalExpense(BigDecimal totalExpense) {
+            this.totalExpense = totalExpense;
+        }
+
+        public BigDecimal getNetAmount() {
+            return netAmount;
+        }
+
+        public void setNetAmount(BigDecimal netAmount) {
+            this.netAmount = netAmount;
+        }
+
+        public Long getIncomeCount() {
+            return incomeCount;
+        }
+
+        public void setIncomeCount(Long incomeCount) {
+            this.incomeCount = incomeCount;
+        }
+
+        public Long getExpenseCount() {
+            return expenseCount;
+        }
+
+        public void setExpenseCount(Long expenseCount) {
+            this.expenseCount = expenseCount;
+        }
+
+        public Double getSavingRate() {
+            return savingRate;
+        }
+
+        public void setSavingRate(Double savingRate) {
+            this.savingRate = savingRate;
+        }
+
+        public BigDecimal getAverageDailyExpense() {
+            return averageDailyExpense;
+        }
+
+        public void setAverageDailyExpense(BigDecimal averageDailyExpense) {
+            this.averageDailyExpense = averageDailyExpense;
+        }
+    }
+
+    /**
+     * 1 điểm của chuỗi thời gian: [start, end] (bucket đầu / cuối bị cắt theo khoảng), bucket trống có giá trị 0
+     */
+    public static class BucketDto {
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate start;
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate end;
+        private BigDecimal income;
+        private BigDecimal expense;
+        private Long incomeCount;
+        private Long expenseCount;
+
+        public BucketDto() {}
+
+        public BucketDto(LocalDate start, LocalDate end, BigDecimal income, BigDecimal expense,
+                         Long incomeCount, Long expenseCount) {
+            this.start = start;
+            this.end = end;
+            this.income = income;
+            this.expense = expense;
+            this.incomeCount = incomeCount;
+            this.expenseCount = expenseCount;
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public void setStart(LocalDate start) {
+            this.start = start;
+        }
+
+        public LocalDate getEnd() {
+            return end;
+        }
+
+        public void setEnd(LocalDate end) {
+            this.end = end;
+        }
+
+        public BigDecimal getIncome() {
+            return income;
+        }
+
+        public void setIncome(BigDecimal income) {
+            this.income = income;
+        }
+
+        public BigDecimal getExpense() {
+            return expense;
+        }
+
+        public void setExpense(BigDecimal expense) {
+            this.expense = expense;
+        }
+
+        public Long getIncomeCount() {
+            return incomeCount;
+        }
+
+        public void setIncomeCount(Long incomeCount) {
+            this.incomeCount = incomeCount;
+        }
+
+        public Long getExpenseCount() {
+            return expenseCount;
+        }
+
+        public void setExpenseCount(Long expenseCount) {
+            this.expenseCount = expenseCount;
+        }
+    }
+
+    /**
+     * So sánh với kỳ liền trước cùng độ dài
+     */
+    public static class ComparisonDto {
+        private PeriodDto period;
+        private TotalsDto summary;
+        private Double incomeChangePct;
+        private Double expenseChangePct;
+
+        public ComparisonDto() {}
+
+        public ComparisonDto(PeriodDto period, TotalsDto summary, Double incomeChangePct, Double expenseChangePct) {
+            this.period = period;
+            this.summary = summary;
+            this.incomeChangePct = incomeChangePct;
+            this.expenseChangePct = expenseChangePct;
+        }
+
+        public PeriodDto getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(PeriodDto period) {
+            this.period = period;
+        }
+
+        public TotalsDto getSummary() {
+            return summary;
+        }
+
+        public void setSummary(TotalsDto summary) {
+            this.summary = summary;
+        }
+
+        public Double getIncomeChangePct() {
+            return incomeChangePct;
+        }
+
+        public void setIncomeChangePct(Double incomeChangePct) {
+            this.incomeChangePct = incomeChangePct;
+        }
+
+        public Double getExpenseChangePct() {
+            return expenseChangePct;
+        }
+
+        public void setExpenseChangePct(Double expenseChangePct) {
+            this.expenseChangePct = expenseChangePct;
+        }
+    }
+}
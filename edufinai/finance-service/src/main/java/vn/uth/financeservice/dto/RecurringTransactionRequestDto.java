@@ -0,0 +1,44 @@
+package vn.uth.financeservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class RecurringTransactionRequestDto {
+    @NotNull
+    private String type; // INCOME or EXPENSE
+    @NotNull
+    private BigDecimal amount;
+    @NotNull
+    private String name;
+    private UUID categoryId;
+    private String note;
+    @NotNull
+    private String frequency; // DAILY, WEEKLY, MONTHLY, YEARLY, CRON
+    private Integer intervalCount; // mặc định 1
+    private String cronExpression; // bắt buộc khi frequency = CRON, vd "0 0 0 1 * *" (ngày 1 hằng tháng)
+    private LocalDate startDate; // nếu null thì dùng hôm nay
+    private LocalDate endDate; // Optional
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public UUID getCategoryId() { return categoryId; }
+    public void setCategoryId(UUID categoryId) { this.categoryId = categoryId; }
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; }
+    public String getFrequency() { return frequency; }
+    public void setFrequency(String frequency) { this.frequency = frequency; }
+    public Integer getIntervalCount() { return intervalCount; }
+    public void setIntervalCount(Integer intervalCount) { this.intervalCount = intervalCount; }
+    public String getCronExpression() { return cronExpression; }
+    public void setCronExpression(String cronExpression) { this.cronExpression = cronExpression; }
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+}
@@ -0,0 +1,56 @@
+package vn.uth.financeservice.dto;
+
+import vn.uth.financeservice.entity.RecurrenceFrequency;
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class RecurringTransactionResponseDto {
+    private UUID recurringId;
+    private TransactionType type;
+    private BigDecimal amount;
+    private String name;
+    private String category;
+    private String note;
+    private RecurrenceFrequency frequency;
+    private Integer intervalCount;
+    private String cronExpression;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDate nextRunDate;
+    private LocalDate lastRunDate;
+    private Boolean active;
+
+    public RecurringTransactionResponseDto() {}
+
+    public UUID getRecurringId() { return recurringId; }
+    public void setRecurringId(UUID recurringId) { this.recurringId = recurringId; }
+    public TransactionType getType() { return type; }
+    public void setType(TransactionType type) { this.type = type; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; }
+    public RecurrenceFrequency getFrequency() { return frequency; }
+    public void setFrequency(RecurrenceFrequency frequency) { this.frequency = frequency; }
+    public Integer getIntervalCount() { return intervalCount; }
+    public void setIntervalCount(Integer intervalCount) { this.intervalCount = intervalCount; }
+    public String getCronExpression() { return cronExpression; }
+    public void setCronExpression(String cronExpression) { this.cronExpression = cronExpression; }
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+    public LocalDate getNextRunDate() { return nextRunDate; }
+    public void setNextRunDate(LocalDate nextRunDate) { this.nextRunDate = nextRunDate; }
+    public LocalDate getLastRunDate() { return lastRunDate; }
+    public void setLastRunDate(LocalDate lastRunDate) { this.lastRunDate = lastRunDate; }
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+}
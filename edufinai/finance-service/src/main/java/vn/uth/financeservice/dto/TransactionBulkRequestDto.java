@@ -0,0 +1,55 @@
+package vn.uth.financeservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class TransactionBulkRequestDto {
+
+    public enum Operation { RECATEGORIZE, SOFT_DELETE, RESTORE }
+
+    @NotNull
+    private Operation operation;
+    @NotNull
+    @Valid
+    private Filter filter;
+    private UUID targetCategoryId; // Bắt buộc khi operation = RECATEGORIZE
+
+    public Operation getOperation() { return operation; }
+    public void setOperation(Operation operation) { this.operation = operation; }
+    public Filter getFilter() { return filter; }
+    public void setFilter(Filter filter) { this.filter = filter; }
+    public UUID getTargetCategoryId() { return targetCategoryId; }
+    public void setTargetCategoryId(UUID targetCategoryId) { this.targetCategoryId = targetCategoryId; }
+
+    /**
+     * Điều kiện chọn transaction (kết hợp AND, field null = không lọc). Cần ít nhất 1 điều kiện.
+     */
+    public static class Filter {
+        private List<UUID> transactionIds;
+        private UUID categoryId;
+        private TransactionType type;
+        private LocalDateTime startDate;
+        private LocalDateTime endDate;
+
+        public boolean isEmpty() {
+            return (transactionIds == null || transactionIds.isEmpty())
+                    && categoryId == null && type == null && startDate == null && endDate == null;
+        }
+
+        public List<UUID> getTransactionIds() { return transactionIds; }
+        public void setTransactionIds(List<UUID> transactionIds) { this.transactionIds = transactionIds; }
+        public UUID getCategoryId() { return categoryId; }
+        public void setCategoryId(UUID categoryId) { this.categoryId = categoryId; }
+        public TransactionType getType() { return type; }
+        public void setType(TransactionType type) { this.type = type; }
+        public LocalDateTime getStartDate() { return startDate; }
+        public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+        public LocalDateTime getEndDate() { return endDate; }
+        public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+    }
+}
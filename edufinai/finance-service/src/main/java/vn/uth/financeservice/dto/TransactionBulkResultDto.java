@@ -0,0 +1,18 @@
+package vn.uth.financeservice.dto;
+
+public class TransactionBulkResultDto {
+    private TransactionBulkRequestDto.Operation operation;
+    private int affectedRows;
+
+    public TransactionBulkResultDto() {}
+
+    public TransactionBulkResultDto(TransactionBulkRequestDto.Operation operation, int affectedRows) {
+        this.operation = operation;
+        this.affectedRows = affectedRows;
+    }
+
+    public TransactionBulkRequestDto.Operation getOperation() { return operation; }
+    public void setOperation(TransactionBulkRequestDto.Operation operation) { this.operation = operation; }
+    public int getAffectedRows() { return affectedRows; }
+    public void setAffectedRows(int affectedRows) { this.affectedRows = affectedRows; }
+}
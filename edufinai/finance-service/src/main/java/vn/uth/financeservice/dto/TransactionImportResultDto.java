@@ -0,0 +1,46 @@
+package vn.uth.financeservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kết quả import hàng loạt: số dòng thành công / lỗi và chi tiết lỗi theo từng dòng
+ */
+public class TransactionImportResultDto {
+    private int totalRows;
+    private int importedRows;
+    private int failedRows;
+    private List<RowErrorDto> errors = new ArrayList<>(); // tối đa MAX_REPORTED_ERRORS dòng đầu tiên
+
+    public TransactionImportResultDto() {}
+
+    public int getTotalRows() { return totalRows; }
+    public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+
+    public int getImportedRows() { return importedRows; }
+    public void setImportedRows(int importedRows) { this.importedRows = importedRows; }
+
+    public int getFailedRows() { return failedRows; }
+    public void setFailedRows(int failedRows) { this.failedRows = failedRows; }
+
+    public List<RowErrorDto> getErrors() { return errors; }
+    public void setErrors(List<RowErrorDto> errors) { this.errors = errors; }
+
+    public static class RowErrorDto {
+        private long line; // số dòng trong file (bắt đầu từ 1)
+        private String message;
+
+        public RowErrorDto() {}
+
+        public RowErrorDto(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,40 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ngân sách chi tiêu mỗi tháng của user cho 1 category (áp dụng cho mọi tháng)
+ */
+@Entity
+@Table(name = "category_budget", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_budget_user_category", columnNames = {"user_id", "category_id"})
+})
+@Getter
+@Setter
+public class CategoryBudget {
+    @Id
+    @Column(name = "budget_id", columnDefinition = "BINARY(16)")
+    private UUID budgetId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false, columnDefinition = "BINARY(16)")
+    private Category category;
+
+    @Column(nullable = false)
+    private BigDecimal amount; // hạn mức mỗi tháng
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bộ đếm tổng chi (EXPENSE ACTIVE) trong tháng của category có ngân sách.
+ * Cộng/trừ delta trong cùng DB transaction với mỗi create/delete transaction,
+ * nên kiểm tra ngưỡng 80% / 100% chỉ cần đọc 1 dòng.
+ */
+@Entity
+@Table(name = "category_budget_usage")
+@Getter
+@Setter
+public class CategoryBudgetUsage {
+
+    @EmbeddedId
+    private CategoryBudgetUsageId id;
+
+    @Column(nullable = false)
+    private BigDecimal spent = BigDecimal.ZERO;
+
+    @Column(name = "alert_level", nullable = false)
+    private Integer alertLevel = 0; // ngưỡng cao nhất đã cảnh báo trong tháng: 0 / 80 / 100
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Khóa của bộ đếm ngân sách: (user, category, tháng)
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CategoryBudgetUsageId implements Serializable {
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(name = "category_id", columnDefinition = "BINARY(16)")
+    private UUID categoryId;
+
+    @Column(name = "month_start")
+    private LocalDate monthStart; // ngày 1 của tháng
+}
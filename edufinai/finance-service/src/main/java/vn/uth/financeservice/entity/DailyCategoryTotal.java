@@ -0,0 +1,32 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Bảng rollup tổng tiền / số lượng transaction ACTIVE theo (user, ngày, category, type, goal).
+ * Được cập nhật cùng transaction với mọi create/delete trên bảng transactions,
+ * nên các API summary chỉ cần đọc vài dòng / ngày thay vì toàn bộ transaction.
+ */
+@Entity
+@Table(name = "daily_user_category_totals")
+@Getter
+@Setter
+public class DailyCategoryTotal {
+
+    // Giá trị thay thế cho category_id = NULL (không thể dùng NULL trong primary key)
+    public static final UUID NO_CATEGORY = new UUID(0L, 0L);
+
+    @EmbeddedId
+    private DailyCategoryTotalId id;
+
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "txn_count", nullable = false)
+    private Long txnCount = 0L;
+}
@@ -0,0 +1,39 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Khóa của bảng rollup: (user, ngày, category, type, có gắn goal hay không)
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class DailyCategoryTotalId implements Serializable {
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(name = "txn_date")
+    private LocalDate txnDate;
+
+    @Column(name = "category_id", columnDefinition = "BINARY(16)")
+    private UUID categoryId; // DailyCategoryTotal.NO_CATEGORY nếu transaction không có category
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TransactionType type;
+
+    @Column(name = "goal_linked")
+    private boolean goalLinked;
+}
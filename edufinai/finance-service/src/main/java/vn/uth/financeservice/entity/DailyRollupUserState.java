@@ -0,0 +1,25 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Đánh dấu user đã được backfill rollup từ lịch sử transactions.
+ * User chưa có dòng này thì rollup chưa đầy đủ, cần backfill trước khi cộng delta / đọc.
+ */
+@Entity
+@Table(name = "daily_rollup_user_state")
+@Getter
+@Setter
+public class DailyRollupUserState {
+    @Id
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(name = "backfilled_at", nullable = false)
+    private LocalDateTime backfilledAt;
+}
@@ -3,6 +3,7 @@ package vn.uth.financeservice.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,7 +11,10 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "goal")
+@Table(name = "goal", indexes = {
+        @Index(name = "idx_goal_status_end_at", columnList = "status, end_at")
+})
+@DynamicUpdate
 @Getter @Setter
 public class Goal {
     @Id
@@ -46,6 +50,11 @@ public class Goal {
     @Column(name = "saved_amount", nullable = false)
     private BigDecimal savedAmount = BigDecimal.ZERO;
 
+    // savedAmount được cập nhật bằng UPDATE nguyên tử (GoalRepository.applySavedDelta), version chặn save() bản cũ
+    @Version
+    @Column(nullable = false)
+    private Long version; // null = chưa lưu (Spring Data dùng để nhận biết entity mới)
+
     @OneToMany(mappedBy = "goal", fetch = FetchType.LAZY)
     private List<Transaction> transactions;
 }
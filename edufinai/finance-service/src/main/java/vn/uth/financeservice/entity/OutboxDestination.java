@@ -0,0 +1,5 @@
+package vn.uth.financeservice.entity;
+
+public enum OutboxDestination {
+    GAMIFICATION, NOTIFICATION
+}
@@ -0,0 +1,5 @@
+package vn.uth.financeservice.entity;
+
+public enum OutboxStatus {
+    PENDING, DELIVERED, FAILED
+}
@@ -0,0 +1,5 @@
+package vn.uth.financeservice.entity;
+
+public enum RecurrenceFrequency {
+    DAILY, WEEKLY, MONTHLY, YEARLY, CRON
+}
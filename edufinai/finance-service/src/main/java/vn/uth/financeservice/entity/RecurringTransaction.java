@@ -0,0 +1,79 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mẫu giao dịch định kỳ (tiền nhà, lương, subscription, ...).
+ * Job RecurringTransactionService.materializeDue() sinh transaction cho mỗi lần đến hạn
+ * từ nextRunDate tới hôm nay rồi đẩy nextRunDate về lần kế tiếp.
+ */
+@Entity
+@Table(name = "recurring_transaction", indexes = {
+        @Index(name = "idx_recurring_active_next_run", columnList = "active, next_run_date, recurring_id"),
+        @Index(name = "idx_recurring_user", columnList = "user_id")
+})
+@Getter
+@Setter
+public class RecurringTransaction {
+    @Id
+    @Column(name = "recurring_id", columnDefinition = "BINARY(16)")
+    private UUID recurringId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TransactionType type; // INCOME or EXPENSE
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 255)
+    private String name;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", columnDefinition = "BINARY(16)")
+    private Category category;
+
+    @Column(columnDefinition = "TEXT")
+    private String note;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RecurrenceFrequency frequency;
+
+    @Column(name = "interval_count", nullable = false)
+    private Integer intervalCount = 1; // mỗi N ngày / tuần / tháng / năm
+
+    @Column(name = "cron_expression", length = 100)
+    private String cronExpression; // chỉ dùng khi frequency = CRON (cú pháp Spring, 6 trường)
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate; // lần đầu tiên, cũng là mốc ngày trong tháng / trong năm
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    @Column(name = "last_run_date")
+    private LocalDate lastRunDate;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
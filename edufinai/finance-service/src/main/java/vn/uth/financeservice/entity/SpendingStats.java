@@ -0,0 +1,34 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trung bình / phương sai chạy (Welford) của các khoản chi ACTIVE theo (user, category).
+ * Cập nhật bằng 1 câu lệnh nguyên tử trong cùng DB transaction với mỗi create/delete transaction,
+ * job định kỳ tính lại từ lịch sử để sửa sai lệch số học.
+ */
+@Entity
+@Table(name = "spending_stats")
+@Getter
+@Setter
+public class SpendingStats {
+
+    @EmbeddedId
+    private SpendingStatsId id;
+
+    @Column(name = "txn_count", nullable = false)
+    private Long txnCount = 0L;
+
+    @Column(nullable = false)
+    private Double mean = 0.0;
+
+    @Column(nullable = false)
+    private Double m2 = 0.0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
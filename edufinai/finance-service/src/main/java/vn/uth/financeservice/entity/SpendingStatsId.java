@@ -0,0 +1,29 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Khóa của thống kê chi tiêu: (user, category)
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SpendingStatsId implements Serializable {
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(name = "category_id", columnDefinition = "BINARY(16)")
+    private UUID categoryId; // DailyCategoryTotal.NO_CATEGORY nếu transaction không có category
+}
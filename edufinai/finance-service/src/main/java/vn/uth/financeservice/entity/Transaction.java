@@ -5,11 +5,19 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_txn_user_status_type_date", columnList = "user_id, status, type, transaction_date"),
+        @Index(name = "idx_txn_user_status_date_created", columnList = "user_id, status, transaction_date, created_at"),
+        @Index(name = "idx_txn_category_status_date", columnList = "category_id, status, transaction_date"),
+        @Index(name = "idx_txn_user_category_status_date", columnList = "user_id, category_id, status, transaction_date")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_txn_recurring_occurrence", columnNames = {"recurring_id", "occurrence_date"})
+})
 @Getter
 @Setter
 public class Transaction {
@@ -47,6 +55,17 @@ public class Transaction {
     @Column(nullable = false, length = 10)
     private String status; // ACTIVE or DELETED
 
+    // Chỉ có khi transaction được sinh từ giao dịch định kỳ (RecurringTransaction)
+    @Column(name = "recurring_id", columnDefinition = "BINARY(16)")
+    private UUID recurringId;
+
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
+
+    // Số độ lệch chuẩn so với mức chi thường ngày của category, chỉ có khi khoản chi bị đánh dấu bất thường
+    @Column(name = "anomaly_score")
+    private Double anomalyScore;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
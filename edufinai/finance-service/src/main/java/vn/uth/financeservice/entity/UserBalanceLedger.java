@@ -0,0 +1,39 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sổ cái số dư của user: lưu tổng cộng dồn của các transaction ACTIVE
+ * để đọc số dư chỉ cần 1 lần lookup theo primary key.
+ * Được cập nhật cùng transaction với mọi thay đổi trên bảng transactions.
+ */
+@Entity
+@Table(name = "user_balance_ledger")
+@Getter
+@Setter
+public class UserBalanceLedger {
+    @Id
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(name = "total_income", nullable = false)
+    private BigDecimal totalIncome = BigDecimal.ZERO; // INCOME không gắn goal
+
+    @Column(name = "total_goal_deposit", nullable = false)
+    private BigDecimal totalGoalDeposit = BigDecimal.ZERO; // INCOME có gắn goal
+
+    @Column(name = "total_expense", nullable = false)
+    private BigDecimal totalExpense = BigDecimal.ZERO;
+
+    @Column(name = "total_withdrawal", nullable = false)
+    private BigDecimal totalWithdrawal = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package vn.uth.financeservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Version dữ liệu của user: tăng 1 trong cùng DB transaction với mỗi thay đổi
+ * (transaction, goal, category, balance). User chưa có dòng này = version 0.
+ */
+@Entity
+@Table(name = "user_data_version")
+@Getter
+@Setter
+public class UserDataVersion {
+    @Id
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.CategoryBudget;
+import vn.uth.financeservice.repository.projection.BudgetStatusView;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CategoryBudgetRepository extends JpaRepository<CategoryBudget, UUID> {
+
+    @Query("SELECT b FROM CategoryBudget b WHERE b.userId = :userId AND b.category.categoryId = :categoryId")
+    Optional<CategoryBudget> findByUserIdAndCategoryId(@Param("userId") UUID userId,
+                                                       @Param("categoryId") UUID categoryId);
+
+    /**
+     * Trạng thái ngân sách của user trong tháng: đọc thẳng từ bộ đếm, không cộng lại transaction
+     */
+    @Query("""
+            SELECT b.budgetId AS budgetId, c.categoryId AS categoryId, c.name AS categoryName,
+                   b.amount AS amount, u.spent AS spent, u.alertLevel AS alertLevel
+            FROM CategoryBudget b
+            JOIN b.category c
+            LEFT JOIN CategoryBudgetUsage u
+                   ON u.id.userId = b.userId AND u.id.categoryId = c.categoryId AND u.id.monthStart = :monthStart
+            WHERE b.userId = :userId
+            ORDER BY c.name
+            """)
+    List<BudgetStatusView> findStatus(@Param("userId") UUID userId, @Param("monthStart") LocalDate monthStart);
+
+    @Modifying
+    @Query("DELETE FROM CategoryBudget b WHERE b.category.categoryId = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") UUID categoryId);
+}
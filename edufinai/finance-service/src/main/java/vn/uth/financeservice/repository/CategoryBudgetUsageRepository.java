@@ -0,0 +1,123 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.CategoryBudgetUsage;
+import vn.uth.financeservice.entity.CategoryBudgetUsageId;
+import vn.uth.financeservice.repository.projection.BudgetUsageStateView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CategoryBudgetUsageRepository extends JpaRepository<CategoryBudgetUsage, CategoryBudgetUsageId> {
+
+    /**
+     * Cộng delta vào bộ đếm của tháng. Trả về 0 nếu tháng chưa có dòng đếm (caller gọi seedFromRollup).
+     */
+    @Modifying
+    @Query("""
+            UPDATE CategoryBudgetUsage u SET u.spent = u.spent + :delta, u.updatedAt = :now
+            WHERE u.id.userId = :userId AND u.id.categoryId = :categoryId AND u.id.monthStart = :monthStart
+            """)
+    int addSpent(@Param("userId") UUID userId,
+                 @Param("categoryId") UUID categoryId,
+                 @Param("monthStart") LocalDate monthStart,
+                 @Param("delta") BigDecimal delta,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Tạo dòng đếm của tháng từ rollup (tối đa 31 dòng / category), chỉ khi category có ngân sách.
+     * Rollup đã gồm thay đổi hiện tại; nếu request song song vừa tạo dòng (chưa thấy thay đổi
+     * chưa commit của request này) thì cộng thêm delta.
+     *
+     * @return 0 nếu category không có ngân sách
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO category_budget_usage (user_id, category_id, month_start, spent, alert_level, updated_at)
+            SELECT b.user_id, b.category_id, :monthStart,
+                   COALESCE((SELECT SUM(r.total_amount) FROM daily_user_category_totals r
+                             WHERE r.user_id = b.user_id AND r.category_id = b.category_id AND r.type = 'EXPENSE'
+                               AND r.txn_date >= :monthStart AND r.txn_date < :nextMonthStart), 0),
+                   0, :now
+            FROM category_budget b
+            WHERE b.user_id = :userId AND b.category_id = :categoryId
+            ON DUPLICATE KEY UPDATE spent = spent + :delta, updated_at = :now
+            """, nativeQuery = true)
+    int seedFromRollup(@Param("userId") UUID userId,
+                       @Param("categoryId") UUID categoryId,
+                       @Param("monthStart") LocalDate monthStart,
+                       @Param("nextMonthStart") LocalDate nextMonthStart,
+                       @Param("delta") BigDecimal delta,
+                       @Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT u.spent AS spent, b.amount AS budgetAmount, u.alertLevel AS alertLevel, c.name AS categoryName
+            FROM CategoryBudgetUsage u, CategoryBudget b
+            JOIN b.category c
+            WHERE b.userId = u.id.userId AND c.categoryId = u.id.categoryId
+              AND u.id.userId = :userId AND u.id.categoryId = :categoryId AND u.id.monthStart = :monthStart
+            """)
+    Optional<BudgetUsageStateView> findState(@Param("userId") UUID userId,
+                                             @Param("categoryId") UUID categoryId,
+                                             @Param("monthStart") LocalDate monthStart);
+
+    /**
+     * Nâng ngưỡng đã cảnh báo. Chỉ 1 request thắng khi nhiều request cùng vượt ngưỡng (trả về 1),
+     * nên mỗi ngưỡng chỉ gửi 1 thông báo / tháng.
+     */
+    @Modifying
+    @Query("""
+            UPDATE CategoryBudgetUsage u SET u.alertLevel = :level
+            WHERE u.id.userId = :userId AND u.id.categoryId = :categoryId AND u.id.monthStart = :monthStart
+              AND u.alertLevel < :level
+            """)
+    int raiseAlertLevel(@Param("userId") UUID userId,
+                        @Param("categoryId") UUID categoryId,
+                        @Param("monthStart") LocalDate monthStart,
+                        @Param("level") int level);
+
+    /**
+     * Hạ ngưỡng khi chi tiêu giảm (xóa transaction, tăng hạn mức) để lần vượt sau lại được cảnh báo
+     */
+    @Modifying
+    @Query("""
+            UPDATE CategoryBudgetUsage u SET u.alertLevel = :level
+            WHERE u.id.userId = :userId AND u.id.categoryId = :categoryId AND u.id.monthStart = :monthStart
+              AND u.alertLevel > :level
+            """)
+    int lowerAlertLevel(@Param("userId") UUID userId,
+                        @Param("categoryId") UUID categoryId,
+                        @Param("monthStart") LocalDate monthStart,
+                        @Param("level") int level);
+
+    /**
+     * Tính lại mọi bộ đếm của user từ rollup (sau thao tác hàng loạt), giữ nguyên alertLevel
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE category_budget_usage u
+            SET u.spent = COALESCE((SELECT SUM(r.total_amount) FROM daily_user_category_totals r
+                                    WHERE r.user_id = u.user_id AND r.category_id = u.category_id AND r.type = 'EXPENSE'
+                                      AND r.txn_date >= u.month_start
+                                      AND r.txn_date < DATE_ADD(u.month_start, INTERVAL 1 MONTH)), 0),
+                u.updated_at = :now
+            WHERE u.user_id = :userId
+            """, nativeQuery = true)
+    int recomputeUser(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM CategoryBudgetUsage u WHERE u.id.userId = :userId AND u.id.categoryId = :categoryId")
+    int deleteByUserIdAndCategoryId(@Param("userId") UUID userId, @Param("categoryId") UUID categoryId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryBudgetUsage u WHERE u.id.categoryId = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") UUID categoryId);
+}
@@ -0,0 +1,152 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.DailyCategoryTotal;
+import vn.uth.financeservice.entity.DailyCategoryTotalId;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.projection.AmountTotalView;
+import vn.uth.financeservice.repository.projection.CategoryTotalView;
+import vn.uth.financeservice.repository.projection.DailyTotalView;
+import vn.uth.financeservice.repository.projection.DailyTypeTotalView;
+import vn.uth.financeservice.repository.projection.MonthlyTypeTotalView;
+import vn.uth.financeservice.repository.projection.TypeTotalView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DailyCategoryTotalRepository extends JpaRepository<DailyCategoryTotal, DailyCategoryTotalId> {
+
+    /**
+     * Cộng delta vào dòng rollup (insert nếu chưa có). amount/count âm khi xóa transaction.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO daily_user_category_totals
+                (user_id, txn_date, category_id, type, goal_linked, total_amount, txn_count)
+            VALUES (:userId, :txnDate, :categoryId, :type, :goalLinked, :amount, :count)
+            ON DUPLICATE KEY UPDATE
+                total_amount = total_amount + :amount,
+                txn_count = txn_count + :count
+            """, nativeQuery = true)
+    int applyDelta(@Param("userId") UUID userId,
+                   @Param("txnDate") LocalDate txnDate,
+                   @Param("categoryId") UUID categoryId,
+                   @Param("type") String type,
+                   @Param("goalLinked") boolean goalLinked,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM DailyCategoryTotal r WHERE r.id.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Tính lại toàn bộ rollup của user từ bảng transactions bằng 1 câu INSERT ... SELECT GROUP BY.
+     * Gọi sau deleteByUserId trong cùng DB transaction.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO daily_user_category_totals
+                (user_id, txn_date, category_id, type, goal_linked, total_amount, txn_count)
+            SELECT user_id,
+                   DATE(transaction_date),
+                   COALESCE(category_id, UNHEX(REPEAT('0', 32))),
+                   type,
+                   goal_id IS NOT NULL,
+                   SUM(amount),
+                   COUNT(*)
+            FROM transactions
+            WHERE user_id = :userId AND status = 'ACTIVE'
+            GROUP BY user_id, DATE(transaction_date), category_id, type, goal_id IS NOT NULL
+            """, nativeQuery = true)
+    int insertFromTransactions(@Param("userId") UUID userId);
+
+    /**
+     * User có transaction nhưng chưa được backfill rollup
+     */
+    @Query("SELECT DISTINCT t.userId FROM Transaction t WHERE NOT EXISTS " +
+           "(SELECT 1 FROM DailyRollupUserState s WHERE s.userId = t.userId) ORDER BY t.userId")
+    List<UUID> findUserIdsWithoutRollup(Pageable pageable);
+
+    // ===== Truy vấn cho Summary API (dòng có txnCount = 0 là dấu vết của transaction đã xóa) =====
+
+    /**
+     * Tổng tiền / số lượng theo type trong khoảng ngày (kèm phần tiền gắn goal)
+     */
+    @Query("SELECT r.id.type AS txnType, SUM(r.totalAmount) AS total, SUM(r.txnCount) AS txnCount, " +
+           "SUM(CASE WHEN r.id.goalLinked = true THEN r.totalAmount END) AS goalTotal " +
+           "FROM DailyCategoryTotal r WHERE r.id.userId = :userId AND r.txnCount > 0 " +
+           "AND r.id.txnDate BETWEEN :from AND :to GROUP BY r.id.type")
+    List<TypeTotalView> sumByType(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Tổng tiền / số lượng theo (type, tên category). Dòng không có category bị loại bởi JOIN
+     */
+    @Query("SELECT r.id.type AS txnType, c.name AS categoryName, SUM(r.totalAmount) AS total, SUM(r.txnCount) AS txnCount " +
+           "FROM DailyCategoryTotal r JOIN Category c ON c.categoryId = r.id.categoryId " +
+           "WHERE r.id.userId = :userId AND r.txnCount > 0 " +
+           "AND r.id.txnDate BETWEEN :from AND :to GROUP BY r.id.type, c.name")
+    List<CategoryTotalView> sumByCategory(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Tổng tiền / số lượng theo ngày của một type
+     */
+    @Query("SELECT r.id.txnDate AS txnDay, SUM(r.totalAmount) AS total, SUM(r.txnCount) AS txnCount " +
+           "FROM DailyCategoryTotal r WHERE r.id.userId = :userId AND r.id.type = :type AND r.txnCount > 0 " +
+           "AND r.id.txnDate BETWEEN :from AND :to GROUP BY r.id.txnDate")
+    List<DailyTotalView> sumByDay(
+            @Param("userId") UUID userId,
+            @Param("type") TransactionType type,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Tổng tiền / số lượng theo (ngày, type): tối đa 2 dòng / ngày có dữ liệu, dùng cho chuỗi ngày / tuần
+     */
+    @Query("SELECT r.id.txnDate AS txnDay, r.id.type AS txnType, SUM(r.totalAmount) AS total, SUM(r.txnCount) AS txnCount " +
+           "FROM DailyCategoryTotal r WHERE r.id.userId = :userId AND r.txnCount > 0 " +
+           "AND r.id.txnDate BETWEEN :from AND :to GROUP BY r.id.txnDate, r.id.type")
+    List<DailyTypeTotalView> sumByDayAndType(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Tổng tiền / số lượng theo (tháng, type), gom ngay trong DB: khoảng nhiều năm chỉ trả về tối đa 2 dòng / tháng
+     */
+    @Query("SELECT extract(year from r.id.txnDate) AS yr, extract(month from r.id.txnDate) AS mo, " +
+           "r.id.type AS txnType, SUM(r.totalAmount) AS total, SUM(r.txnCount) AS txnCount " +
+           "FROM DailyCategoryTotal r WHERE r.id.userId = :userId AND r.txnCount > 0 " +
+           "AND r.id.txnDate BETWEEN :from AND :to " +
+           "GROUP BY extract(year from r.id.txnDate), extract(month from r.id.txnDate), r.id.type")
+    List<MonthlyTypeTotalView> sumByMonthAndType(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Tổng tiền / số lượng của một category (mọi type) trong khoảng ngày
+     */
+    @Query("SELECT SUM(r.totalAmount) AS total, SUM(r.txnCount) AS txnCount " +
+           "FROM DailyCategoryTotal r WHERE r.id.userId = :userId AND r.id.categoryId = :categoryId " +
+           "AND r.txnCount > 0 AND r.id.txnDate BETWEEN :from AND :to")
+    AmountTotalView sumForCategory(
+            @Param("userId") UUID userId,
+            @Param("categoryId") UUID categoryId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
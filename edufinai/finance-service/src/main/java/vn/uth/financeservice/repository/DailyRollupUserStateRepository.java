@@ -0,0 +1,23 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.DailyRollupUserState;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface DailyRollupUserStateRepository extends JpaRepository<DailyRollupUserState, UUID> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO daily_rollup_user_state (user_id, backfilled_at)
+            VALUES (:userId, :now)
+            ON DUPLICATE KEY UPDATE backfilled_at = :now
+            """, nativeQuery = true)
+    int markBackfilled(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+}
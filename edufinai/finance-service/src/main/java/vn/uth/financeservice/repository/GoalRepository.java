@@ -1,10 +1,71 @@
 package vn.uth.financeservice.repository;
 
 import vn.uth.financeservice.entity.Goal;
+import vn.uth.financeservice.entity.GoalStatus;
+import vn.uth.financeservice.repository.projection.GoalRefView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 public interface GoalRepository extends JpaRepository<Goal, UUID>{
     List<Goal> findByUserId(UUID userId);
+
+    /**
+     * Goal đang ACTIVE đã hết hạn mà chưa đủ tiền (dùng index (status, end_at))
+     */
+    @Query("""
+            SELECT g.goalId AS goalId, g.userId AS userId FROM Goal g
+            WHERE g.status = :status AND g.endAt < :now AND g.savedAmount < g.amount
+            ORDER BY g.endAt
+            """)
+    List<GoalRefView> findOverdue(@Param("status") GoalStatus status,
+                                  @Param("now") LocalDateTime now,
+                                  Pageable pageable);
+
+    /**
+     * Chuyển các goal quá hạn sang FAILED bằng 1 câu UPDATE.
+     * Lặp lại điều kiện quá hạn để không đè lên goal vừa được nạp đủ tiền / xác nhận ở request khác.
+     * Tăng version (@Version) để request đã load goal trước câu UPDATE này bị lỗi optimistic lock khi save,
+     * thay vì ghi đè status FAILED bằng status cũ.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Goal g SET g.status = :failed, g.newStatus = :failed, g.version = g.version + 1, g.updatedAt = :now
+            WHERE g.goalId IN :goalIds
+              AND g.status = :active AND g.endAt < :now AND g.savedAmount < g.amount
+            """)
+    int markOverdueFailed(@Param("goalIds") Collection<UUID> goalIds,
+                          @Param("active") GoalStatus active,
+                          @Param("failed") GoalStatus failed,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Cộng/trừ savedAmount bằng 1 câu UPDATE có điều kiện (không đọc - sửa - ghi trong Java):
+     * chỉ áp dụng khi goal thuộc user, không ở trạng thái bị loại trừ (null = không loại trừ)
+     * và savedAmount sau khi cộng không âm.
+     * Tăng version để các lần save() entity đang giữ bản cũ bị từ chối (optimistic lock).
+     *
+     * Không clear persistence context: gọi trước khi load Goal trong cùng DB transaction.
+     *
+     * @return 1 nếu thành công, 0 nếu điều kiện không thỏa (không tồn tại / không thuộc user / không đủ tiền / sai trạng thái)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Goal g SET g.savedAmount = g.savedAmount + :delta, g.version = g.version + 1, g.updatedAt = :now
+            WHERE g.goalId = :goalId AND g.userId = :userId
+              AND (:excludedStatus IS NULL OR g.status <> :excludedStatus)
+              AND g.savedAmount + :delta >= 0
+            """)
+    int applySavedDelta(@Param("goalId") UUID goalId,
+                        @Param("userId") UUID userId,
+                        @Param("delta") BigDecimal delta,
+                        @Param("excludedStatus") GoalStatus excludedStatus,
+                        @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,36 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.OutboxEvent;
+import vn.uth.financeservice.entity.OutboxStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Lấy và khóa 1 batch event đến hạn gửi. SKIP LOCKED để nhiều instance chạy relay
+     * song song không lấy trùng event của nhau.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_event
+            WHERE status = 'PENDING' AND next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(OutboxStatus status);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
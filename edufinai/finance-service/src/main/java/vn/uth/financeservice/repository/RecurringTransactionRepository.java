@@ -0,0 +1,48 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.Category;
+import vn.uth.financeservice.entity.RecurringTransaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RecurringTransactionRepository extends JpaRepository<RecurringTransaction, UUID> {
+
+    List<RecurringTransaction> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    /**
+     * Khóa 1 chunk template đến hạn, đi theo keyset (next_run_date, recurring_id) sau vị trí của chunk trước
+     * (index idx_recurring_active_next_run, không OFFSET).
+     * SKIP LOCKED: nhiều instance chạy job cùng lúc sẽ lấy các chunk khác nhau thay vì chờ nhau.
+     */
+    @Query(value = """
+            SELECT * FROM recurring_transaction
+            WHERE active = true
+              AND next_run_date <= :today
+              AND (next_run_date > :afterDate OR (next_run_date = :afterDate AND recurring_id > :afterId))
+            ORDER BY next_run_date, recurring_id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<RecurringTransaction> lockDueChunk(@Param("today") LocalDate today,
+                                            @Param("afterDate") LocalDate afterDate,
+                                            @Param("afterId") UUID afterId,
+                                            @Param("limit") int limit);
+
+    /**
+     * Chuyển template của category bị xóa sang category khác (giống TransactionRepository.reassignCategory)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RecurringTransaction r SET r.category = :target, r.updatedAt = :now WHERE r.category.categoryId = :categoryId")
+    int reassignCategory(@Param("categoryId") UUID categoryId,
+                         @Param("target") Category target,
+                         @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,128 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.SpendingStats;
+import vn.uth.financeservice.entity.SpendingStatsId;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.projection.ExpenseMomentsView;
+import vn.uth.financeservice.repository.projection.SpendingStatsView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SpendingStatsRepository extends JpaRepository<SpendingStats, SpendingStatsId> {
+
+    @Query("""
+            SELECT s.id.categoryId AS categoryId, s.txnCount AS txnCount, s.mean AS mean, s.m2 AS m2
+            FROM SpendingStats s WHERE s.id.userId = :userId AND s.id.categoryId = :categoryId
+            """)
+    Optional<SpendingStatsView> findState(@Param("userId") UUID userId, @Param("categoryId") UUID categoryId);
+
+    /**
+     * Gộp thống kê của n giá trị mới (mean, m2 của riêng nhóm đó) vào dòng đang có (Chan et al.).
+     * MySQL gán các cột theo thứ tự từ trái sang phải: m2 và mean phải đứng trước txn_count
+     * để dùng count / mean cũ.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO spending_stats (user_id, category_id, txn_count, mean, m2, updated_at)
+            VALUES (:userId, :categoryId, :n, :mean, :m2, :now)
+            ON DUPLICATE KEY UPDATE
+                m2 = m2 + :m2 + POW(:mean - mean, 2) * txn_count * :n / (txn_count + :n),
+                mean = mean + (:mean - mean) * :n / (txn_count + :n),
+                txn_count = txn_count + :n,
+                updated_at = :now
+            """, nativeQuery = true)
+    int merge(@Param("userId") UUID userId,
+              @Param("categoryId") UUID categoryId,
+              @Param("n") long n,
+              @Param("mean") double mean,
+              @Param("m2") double m2,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Gỡ 1 giá trị x (transaction bị xóa), cùng công thức với RunningStats.remove
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE spending_stats SET
+                m2 = CASE WHEN txn_count <= 1 THEN 0
+                          ELSE GREATEST(0, m2 - (:x - (txn_count * mean - :x) / (txn_count - 1)) * (:x - mean)) END,
+                mean = CASE WHEN txn_count <= 1 THEN 0 ELSE (txn_count * mean - :x) / (txn_count - 1) END,
+                txn_count = GREATEST(txn_count - 1, 0),
+                updated_at = :now
+            WHERE user_id = :userId AND category_id = :categoryId
+            """, nativeQuery = true)
+    int remove(@Param("userId") UUID userId,
+               @Param("categoryId") UUID categoryId,
+               @Param("x") double x,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * Tạo dòng thống kê của 1 category từ lịch sử (lần đầu category được dùng sau khi có bảng spending_stats).
+     * Bỏ qua transaction excludeId (transaction đang được tạo / xóa, có thể đã flush hoặc chưa).
+     * Không ghi đè nếu request song song vừa tạo dòng.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO spending_stats (user_id, category_id, txn_count, mean, m2, updated_at)
+            SELECT :userId, :categoryId, COUNT(*), COALESCE(AVG(amount), 0), COALESCE(VAR_POP(amount) * COUNT(*), 0), :now
+            FROM transactions
+            WHERE user_id = :userId AND status = 'ACTIVE' AND type = 'EXPENSE'
+              AND COALESCE(category_id, UNHEX(REPEAT('0', 32))) = :categoryId
+              AND transaction_id <> :excludeId
+            """, nativeQuery = true)
+    int seedCategory(@Param("userId") UUID userId,
+                     @Param("categoryId") UUID categoryId,
+                     @Param("excludeId") UUID excludeId,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SpendingStats s WHERE s.id.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Tính lại toàn bộ thống kê của user từ bảng transactions. Gọi sau deleteByUserId trong cùng DB transaction.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO spending_stats (user_id, category_id, txn_count, mean, m2, updated_at)
+            SELECT user_id, COALESCE(category_id, UNHEX(REPEAT('0', 32))), COUNT(*), AVG(amount),
+                   VAR_POP(amount) * COUNT(*), :now
+            FROM transactions
+            WHERE user_id = :userId AND status = 'ACTIVE' AND type = 'EXPENSE'
+            GROUP BY user_id, category_id
+            """, nativeQuery = true)
+    int insertFromTransactions(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT s.id.categoryId AS categoryId, s.txnCount AS txnCount, s.mean AS mean, s.m2 AS m2
+            FROM SpendingStats s WHERE s.id.userId = :userId
+            """)
+    List<SpendingStatsView> findByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Tổng / tổng bình phương theo category tính bằng DECIMAL (chính xác) để đối chiếu với thống kê đang lưu
+     */
+    @Query("""
+            SELECT c.categoryId AS categoryId, COUNT(t) AS txnCount, SUM(t.amount) AS total,
+                   SUM(t.amount * t.amount) AS sumSquares
+            FROM Transaction t LEFT JOIN t.category c
+            WHERE t.userId = :userId AND t.status = :status AND t.type = :type
+            GROUP BY c.categoryId
+            """)
+    List<ExpenseMomentsView> sumExpenseMoments(@Param("userId") UUID userId,
+                                               @Param("status") String status,
+                                               @Param("type") TransactionType type);
+
+    @Modifying
+    @Query("DELETE FROM SpendingStats s WHERE s.id.categoryId = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") UUID categoryId);
+}
@@ -1,20 +1,33 @@
 package vn.uth.financeservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.Category;
 import vn.uth.financeservice.entity.Transaction;
 import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.projection.AnomalyView;
+import vn.uth.financeservice.repository.projection.DailyReportRowView;
+import vn.uth.financeservice.repository.projection.LedgerTotalsView;
+import vn.uth.financeservice.repository.projection.OccurrenceRefView;
+import vn.uth.financeservice.repository.projection.TransactionExportView;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, TransactionRepositoryCustom {
     List<Transaction> findByUserId(UUID userId);
     
     List<Transaction> findByUserIdAndTypeAndStatus(UUID userId, TransactionType type, String status);
@@ -43,6 +56,33 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
     
+    /**
+     * Trang đầu của phân trang keyset (không có COUNT, caller truyền size + 1 để biết còn trang sau)
+     */
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.category WHERE t.userId = :userId AND t.status = :status " +
+           "ORDER BY t.transactionDate DESC, t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findKeysetFirstPage(
+            @Param("userId") UUID userId,
+            @Param("status") String status,
+            Pageable pageable);
+    
+    /**
+     * Các trang tiếp theo: lấy các transaction đứng sau cursor (transactionDate, createdAt, transactionId)
+     * theo cùng thứ tự sắp xếp
+     */
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.category WHERE t.userId = :userId AND t.status = :status " +
+           "AND (t.transactionDate < :transactionDate " +
+           "OR (t.transactionDate = :transactionDate AND t.createdAt < :createdAt) " +
+           "OR (t.transactionDate = :transactionDate AND t.createdAt = :createdAt AND t.transactionId < :transactionId)) " +
+           "ORDER BY t.transactionDate DESC, t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findKeysetPageAfter(
+            @Param("userId") UUID userId,
+            @Param("status") String status,
+            @Param("transactionDate") LocalDateTime transactionDate,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("transactionId") UUID transactionId,
+            Pageable pageable);
+    
     @Query("SELECT t FROM Transaction t WHERE t.userId = :userId AND t.status = :status ORDER BY t.transactionDate DESC, t.createdAt DESC")
     List<Transaction> findTopByUserIdAndStatusOrderByTransactionDateDesc(
             @Param("userId") UUID userId, 
@@ -53,6 +93,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
         return findTopByUserIdAndStatusOrderByTransactionDateDesc(userId, status, org.springframework.data.domain.Pageable.ofSize(limit));
     }
     
+    /**
+     * Các lần đã sinh transaction (kể cả đã xóa) của nhiều giao dịch định kỳ, từ ngày from trở đi
+     * (dùng unique index (recurring_id, occurrence_date))
+     */
+    @Query("SELECT t.recurringId AS recurringId, t.occurrenceDate AS occurrenceDate FROM Transaction t " +
+           "WHERE t.recurringId IN :recurringIds AND t.occurrenceDate >= :from")
+    List<OccurrenceRefView> findOccurrences(@Param("recurringIds") Collection<UUID> recurringIds,
+                                            @Param("from") LocalDate from);
+
     @Query("SELECT t FROM Transaction t WHERE t.goal.goalId = :goalId")
     List<Transaction> findByGoalId(@Param("goalId") UUID goalId);
     
@@ -60,15 +109,98 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     List<Transaction> findByCategoryId(@Param("categoryId") UUID categoryId);
     
     /**
-     * Lấy tất cả transactions của một category trong khoảng thời gian cụ thể
-     * Dùng cho Category Transactions API
+     * Chuyển toàn bộ transaction của một category sang category khác bằng 1 câu UPDATE
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.category = :target, t.updatedAt = :now WHERE t.category.categoryId = :categoryId")
+    int reassignCategory(
+            @Param("categoryId") UUID categoryId,
+            @Param("target") Category target,
+            @Param("now") LocalDateTime now);
+    
+    /**
+     * Xóa (hard delete) toàn bộ transaction gắn với goal bằng 1 câu DELETE
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.goal.goalId = :goalId")
+    int deleteByGoalId(@Param("goalId") UUID goalId);
+    
+    /**
+     * 1 trang transactions của user trong một category và khoảng thời gian [startDate, endDate)
+     * Dùng cho Category Transactions API: lọc theo user + phân trang ở DB (không COUNT,
+     * tổng số lượng lấy từ daily rollup), dùng index (user_id, category_id, status, transaction_date)
      */
-    @Query("SELECT t FROM Transaction t WHERE t.category.categoryId = :categoryId AND t.status = :status AND t.transactionDate >= :startDate AND t.transactionDate <= :endDate ORDER BY t.transactionDate DESC")
-    List<Transaction> findByCategoryIdAndStatusAndTransactionDateBetween(
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.category LEFT JOIN FETCH t.goal " +
+           "WHERE t.userId = :userId AND t.category.categoryId = :categoryId AND t.status = :status " +
+           "AND t.transactionDate >= :startDate AND t.transactionDate < :endDate " +
+           "ORDER BY t.transactionDate DESC, t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findCategoryPage(
+            @Param("userId") UUID userId,
             @Param("categoryId") UUID categoryId,
             @Param("status") String status,
             @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
-}
-
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable);
+    
+    /**
+     * Tổng tiền theo type của user (tách phần gắn goal), dùng để rebuild balance ledger
+     */
+    @Query("SELECT t.type AS txnType, " +
+           "SUM(CASE WHEN t.goal IS NULL THEN t.amount END) AS freeAmount, " +
+           "SUM(CASE WHEN t.goal IS NOT NULL THEN t.amount END) AS goalAmount " +
+           "FROM Transaction t WHERE t.userId = :userId AND t.status = :status GROUP BY t.type")
+    List<LedgerTotalsView> sumLedgerTotalsByUserId(
+            @Param("userId") UUID userId,
+            @Param("status") String status);
+    
+    /**
+     * Toàn bộ lịch sử của user dạng stream (forward-only cursor, fetch size Integer.MIN_VALUE
+     * để MySQL driver trả từng dòng thay vì nạp hết result set). Phải đóng stream trong transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t.transactionId AS transactionId, t.transactionDate AS transactionDate, t.type AS txnType, " +
+           "t.amount AS amount, t.name AS name, c.name AS categoryName, t.note AS note, g.goalId AS goalId " +
+           "FROM Transaction t LEFT JOIN t.category c LEFT JOIN t.goal g " +
+           "WHERE t.userId = :userId AND t.status = :status ORDER BY t.transactionDate DESC, t.createdAt DESC")
+    Stream<TransactionExportView> streamForExport(
+            @Param("userId") UUID userId,
+            @Param("status") String status);
+    
+    @Query("SELECT DISTINCT t.userId FROM Transaction t ORDER BY t.userId")
+    List<UUID> findDistinctUserIds(Pageable pageable);
+    
+    // ===== Summary API =====
+    
+    /**
+     * Các transaction trong khoảng thời gian dưới dạng projection gọn (1 query duy nhất cho Daily Report)
+     */
+    @Query("SELECT t.transactionDate AS transactionDate, t.type AS txnType, t.amount AS amount, t.name AS name, " +
+           "c.name AS categoryName, CASE WHEN t.goal IS NOT NULL THEN true ELSE false END AS goalLinked, " +
+           "t.anomalyScore AS anomalyScore " +
+           "FROM Transaction t LEFT JOIN t.category c WHERE t.userId = :userId AND t.status = :status " +
+           "AND t.transactionDate BETWEEN :start AND :end")
+    List<DailyReportRowView> findReportRowsBetween(
+            @Param("userId") UUID userId,
+            @Param("status") String status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
 
+    /**
+     * Khoản chi bị đánh dấu bất thường trong khoảng thời gian, z giảm dần (AI digest)
+     */
+    @Query("SELECT t.amount AS amount, c.name AS categoryName, t.anomalyScore AS anomalyScore, " +
+           "t.transactionDate AS transactionDate " +
+           "FROM Transaction t LEFT JOIN t.category c WHERE t.userId = :userId AND t.status = :status " +
+           "AND t.anomalyScore IS NOT NULL AND t.transactionDate BETWEEN :start AND :end " +
+           "ORDER BY t.anomalyScore DESC")
+    List<AnomalyView> findAnomaliesBetween(
+            @Param("userId") UUID userId,
+            @Param("status") String status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Pageable pageable);
+}
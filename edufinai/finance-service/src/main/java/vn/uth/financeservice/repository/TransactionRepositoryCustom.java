@@ -0,0 +1,20 @@
+package vn.uth.financeservice.repository;
+
+import vn.uth.financeservice.dto.TransactionBulkRequestDto;
+import vn.uth.financeservice.entity.Category;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Thao tác hàng loạt với điều kiện động (mỗi thao tác là 1 câu UPDATE duy nhất).
+ * Transaction gắn goal luôn bị loại trừ vì còn ảnh hưởng saved_amount của goal.
+ */
+public interface TransactionRepositoryCustom {
+
+    int bulkUpdateStatus(UUID userId, TransactionBulkRequestDto.Filter filter,
+                         String fromStatus, String toStatus, LocalDateTime now);
+
+    int bulkUpdateCategory(UUID userId, TransactionBulkRequestDto.Filter filter,
+                           Category target, LocalDateTime now);
+}
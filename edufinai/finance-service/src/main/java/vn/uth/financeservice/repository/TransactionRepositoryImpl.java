@@ -0,0 +1,79 @@
+package vn.uth.financeservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import vn.uth.financeservice.dto.TransactionBulkRequestDto;
+import vn.uth.financeservice.entity.Category;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int bulkUpdateStatus(UUID userId, TransactionBulkRequestDto.Filter filter,
+                                String fromStatus, String toStatus, LocalDateTime now) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("toStatus", toStatus);
+        params.put("now", now);
+        params.put("fromStatus", fromStatus);
+        String jpql = "UPDATE Transaction t SET t.status = :toStatus, t.updatedAt = :now "
+                + where(userId, filter, params) + " AND t.status = :fromStatus";
+        return execute(jpql, params);
+    }
+
+    @Override
+    public int bulkUpdateCategory(UUID userId, TransactionBulkRequestDto.Filter filter,
+                                  Category target, LocalDateTime now) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("target", target);
+        params.put("now", now);
+        params.put("status", "ACTIVE");
+        String jpql = "UPDATE Transaction t SET t.category = :target, t.updatedAt = :now "
+                + where(userId, filter, params) + " AND t.status = :status";
+        return execute(jpql, params);
+    }
+
+    private String where(UUID userId, TransactionBulkRequestDto.Filter filter, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder("WHERE t.userId = :userId AND t.goal IS NULL");
+        params.put("userId", userId);
+
+        if (filter.getTransactionIds() != null && !filter.getTransactionIds().isEmpty()) {
+            where.append(" AND t.transactionId IN :ids");
+            params.put("ids", filter.getTransactionIds());
+        }
+        if (filter.getCategoryId() != null) {
+            where.append(" AND t.category.categoryId = :categoryId");
+            params.put("categoryId", filter.getCategoryId());
+        }
+        if (filter.getType() != null) {
+            where.append(" AND t.type = :type");
+            params.put("type", filter.getType());
+        }
+        if (filter.getStartDate() != null) {
+            where.append(" AND t.transactionDate >= :startDate");
+            params.put("startDate", filter.getStartDate());
+        }
+        if (filter.getEndDate() != null) {
+            where.append(" AND t.transactionDate <= :endDate");
+            params.put("endDate", filter.getEndDate());
+        }
+        return where.toString();
+    }
+
+    private int execute(String jpql, Map<String, Object> params) {
+        // Đẩy thay đổi đang chờ xuống DB trước, và bỏ entity cũ khỏi persistence context sau khi update
+        entityManager.flush();
+        Query query = entityManager.createQuery(jpql);
+        params.forEach(query::setParameter);
+        int updated = query.executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
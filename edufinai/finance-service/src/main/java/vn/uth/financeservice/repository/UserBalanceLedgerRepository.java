@@ -0,0 +1,66 @@
+package vn.uth.financeservice.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.UserBalanceLedger;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserBalanceLedgerRepository extends JpaRepository<UserBalanceLedger, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM UserBalanceLedger l WHERE l.userId = :userId")
+    Optional<UserBalanceLedger> findByUserIdForUpdate(@Param("userId") UUID userId);
+
+    /**
+     * Cộng dồn delta vào ledger bằng 1 câu UPDATE nguyên tử.
+     * Trả về 0 nếu user chưa có ledger (caller cần rebuild từ lịch sử).
+     */
+    @Modifying
+    @Query("""
+            UPDATE UserBalanceLedger l
+               SET l.totalIncome = l.totalIncome + :income,
+                   l.totalGoalDeposit = l.totalGoalDeposit + :goalDeposit,
+                   l.totalExpense = l.totalExpense + :expense,
+                   l.totalWithdrawal = l.totalWithdrawal + :withdrawal,
+                   l.updatedAt = :now
+             WHERE l.userId = :userId
+            """)
+    int increment(@Param("userId") UUID userId,
+                  @Param("income") BigDecimal income,
+                  @Param("goalDeposit") BigDecimal goalDeposit,
+                  @Param("expense") BigDecimal expense,
+                  @Param("withdrawal") BigDecimal withdrawal,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Ghi đè toàn bộ tổng của user (insert nếu chưa có) - dùng khi rebuild/reconcile.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_balance_ledger
+                (user_id, total_income, total_goal_deposit, total_expense, total_withdrawal, updated_at)
+            VALUES (:userId, :income, :goalDeposit, :expense, :withdrawal, :now)
+            ON DUPLICATE KEY UPDATE
+                total_income = :income,
+                total_goal_deposit = :goalDeposit,
+                total_expense = :expense,
+                total_withdrawal = :withdrawal,
+                updated_at = :now
+            """, nativeQuery = true)
+    int upsertTotals(@Param("userId") UUID userId,
+                     @Param("income") BigDecimal income,
+                     @Param("goalDeposit") BigDecimal goalDeposit,
+                     @Param("expense") BigDecimal expense,
+                     @Param("withdrawal") BigDecimal withdrawal,
+                     @Param("now") LocalDateTime now);
+}
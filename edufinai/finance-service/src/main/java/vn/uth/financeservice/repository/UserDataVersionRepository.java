@@ -0,0 +1,30 @@
+package vn.uth.financeservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uth.financeservice.entity.UserDataVersion;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, UUID> {
+
+    @Query("SELECT v.version FROM UserDataVersion v WHERE v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") UUID userId);
+
+    /**
+     * Tăng version (tạo dòng với version = 1 nếu chưa có), 1 câu lệnh, không cần đọc trước
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_data_version (user_id, version, updated_at)
+            VALUES (:userId, 1, :now)
+            ON DUPLICATE KEY UPDATE version = version + 1, updated_at = :now
+            """, nativeQuery = true)
+    int increment(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tiền / số lượng (SUM trả về null nếu không có dòng nào).
+ */
+public interface AmountTotalView {
+    BigDecimal getTotal();
+
+    Long getTxnCount();
+}
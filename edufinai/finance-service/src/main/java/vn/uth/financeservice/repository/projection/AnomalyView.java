@@ -0,0 +1,17 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Khoản chi bất thường rút gọn cho AI digest
+ */
+public interface AnomalyView {
+    BigDecimal getAmount();
+
+    String getCategoryName();
+
+    Double getAnomalyScore();
+
+    LocalDateTime getTransactionDate();
+}
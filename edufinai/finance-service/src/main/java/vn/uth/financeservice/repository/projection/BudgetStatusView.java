@@ -0,0 +1,21 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Ngân sách của user kèm bộ đếm chi tiêu của 1 tháng (spent / alertLevel null nếu tháng chưa có dòng đếm)
+ */
+public interface BudgetStatusView {
+    UUID getBudgetId();
+
+    UUID getCategoryId();
+
+    String getCategoryName();
+
+    BigDecimal getAmount();
+
+    BigDecimal getSpent();
+
+    Integer getAlertLevel();
+}
@@ -0,0 +1,16 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Bộ đếm chi tiêu của 1 (user, category, tháng) kèm hạn mức ngân sách, dùng để kiểm tra ngưỡng cảnh báo
+ */
+public interface BudgetUsageStateView {
+    BigDecimal getSpent();
+
+    BigDecimal getBudgetAmount();
+
+    Integer getAlertLevel();
+
+    String getCategoryName();
+}
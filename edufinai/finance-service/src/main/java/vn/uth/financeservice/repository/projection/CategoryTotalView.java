@@ -0,0 +1,18 @@
+package vn.uth.financeservice.repository.projection;
+
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tiền / số lượng transaction theo (type, tên category) trong một khoảng thời gian.
+ */
+public interface CategoryTotalView {
+    TransactionType getTxnType();
+
+    String getCategoryName();
+
+    BigDecimal getTotal();
+
+    Long getTxnCount();
+}
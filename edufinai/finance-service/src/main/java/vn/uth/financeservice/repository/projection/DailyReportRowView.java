@@ -0,0 +1,25 @@
+package vn.uth.financeservice.repository.projection;
+
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Một transaction rút gọn (không load entity / category / goal) cho Daily Report.
+ */
+public interface DailyReportRowView {
+    LocalDateTime getTransactionDate();
+
+    TransactionType getTxnType();
+
+    BigDecimal getAmount();
+
+    String getName();
+
+    String getCategoryName();
+
+    Boolean getGoalLinked();
+
+    Double getAnomalyScore(); // null nếu không bất thường
+}
@@ -0,0 +1,15 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tổng tiền / số lượng transaction theo ngày.
+ */
+public interface DailyTotalView {
+    LocalDate getTxnDay();
+
+    BigDecimal getTotal();
+
+    Long getTxnCount();
+}
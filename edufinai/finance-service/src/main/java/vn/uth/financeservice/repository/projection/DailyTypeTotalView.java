@@ -0,0 +1,19 @@
+package vn.uth.financeservice.repository.projection;
+
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tổng tiền / số lượng transaction theo (ngày, type).
+ */
+public interface DailyTypeTotalView {
+    LocalDate getTxnDay();
+
+    TransactionType getTxnType();
+
+    BigDecimal getTotal();
+
+    Long getTxnCount();
+}
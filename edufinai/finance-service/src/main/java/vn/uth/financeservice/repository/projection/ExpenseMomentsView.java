@@ -0,0 +1,17 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Tổng / tổng bình phương (DECIMAL, chính xác) các khoản chi ACTIVE của 1 category, để đối chiếu spending_stats
+ */
+public interface ExpenseMomentsView {
+    UUID getCategoryId(); // null nếu transaction không có category
+
+    Long getTxnCount();
+
+    BigDecimal getTotal();
+
+    BigDecimal getSumSquares();
+}
@@ -0,0 +1,12 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Id của goal kèm user sở hữu (dùng cho job cập nhật status hàng loạt).
+ */
+public interface GoalRefView {
+    UUID getGoalId();
+
+    UUID getUserId();
+}
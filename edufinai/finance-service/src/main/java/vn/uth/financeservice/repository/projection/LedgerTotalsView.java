@@ -0,0 +1,17 @@
+package vn.uth.financeservice.repository.projection;
+
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tiền theo type, tách riêng phần có gắn goal và không gắn goal.
+ * SUM trả về null nếu không có dòng nào thuộc nhánh đó.
+ */
+public interface LedgerTotalsView {
+    TransactionType getTxnType();
+
+    BigDecimal getFreeAmount(); // goal IS NULL
+
+    BigDecimal getGoalAmount(); // goal IS NOT NULL
+}
@@ -0,0 +1,20 @@
+package vn.uth.financeservice.repository.projection;
+
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tiền / số lượng transaction theo (năm, tháng, type).
+ */
+public interface MonthlyTypeTotalView {
+    Integer getYr();
+
+    Integer getMo();
+
+    TransactionType getTxnType();
+
+    BigDecimal getTotal();
+
+    Long getTxnCount();
+}
@@ -0,0 +1,13 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Transaction đã sinh từ giao dịch định kỳ: (template, ngày)
+ */
+public interface OccurrenceRefView {
+    UUID getRecurringId();
+
+    LocalDate getOccurrenceDate();
+}
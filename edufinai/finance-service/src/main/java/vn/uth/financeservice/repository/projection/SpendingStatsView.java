@@ -0,0 +1,16 @@
+package vn.uth.financeservice.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Thống kê chạy (count, mean, m2) đang lưu của 1 (user, category)
+ */
+public interface SpendingStatsView {
+    UUID getCategoryId();
+
+    Long getTxnCount();
+
+    Double getMean();
+
+    Double getM2();
+}
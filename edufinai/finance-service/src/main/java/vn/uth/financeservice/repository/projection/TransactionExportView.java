@@ -0,0 +1,28 @@
+package vn.uth.financeservice.repository.projection;
+
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Một dòng export lịch sử transaction (projection, không load entity vào persistence context).
+ */
+public interface TransactionExportView {
+    UUID getTransactionId();
+
+    LocalDateTime getTransactionDate();
+
+    TransactionType getTxnType();
+
+    BigDecimal getAmount();
+
+    String getName();
+
+    String getCategoryName();
+
+    String getNote();
+
+    UUID getGoalId();
+}
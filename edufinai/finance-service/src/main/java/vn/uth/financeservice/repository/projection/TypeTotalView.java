@@ -0,0 +1,19 @@
+package vn.uth.financeservice.repository.projection;
+
+import vn.uth.financeservice.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tiền / số lượng transaction theo type trong một khoảng thời gian.
+ * goalTotal = phần tiền của các transaction có gắn goal (null nếu không có).
+ */
+public interface TypeTotalView {
+    TransactionType getTxnType();
+
+    BigDecimal getTotal();
+
+    Long getTxnCount();
+
+    BigDecimal getGoalTotal();
+}
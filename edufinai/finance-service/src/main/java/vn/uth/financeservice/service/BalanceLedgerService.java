@@ -0,0 +1,182 @@
+package vn.uth.financeservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.aggregation.MoneyAccumulator;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.entity.UserBalanceLedger;
+import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.repository.UserBalanceLedgerRepository;
+import vn.uth.financeservice.repository.projection.LedgerTotalsView;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Duy trì sổ cái số dư (user_balance_ledger) theo kiểu incremental:
+ * - Mỗi create/delete transaction cộng/trừ delta trong cùng DB transaction
+ * - Job reconcile định kỳ tính lại từ bảng transactions để sửa sai lệch (nếu có)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceLedgerService {
+
+    private static final int RECONCILE_PAGE_SIZE = 500;
+
+    private final UserBalanceLedgerRepository ledgerRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersionService dataVersionService;
+
+    /**
+     * Cộng (sign = 1) hoặc trừ (sign = -1) một transaction vào ledger của user.
+     * Nếu user chưa có ledger (dữ liệu cũ trước khi có ledger) thì rebuild từ lịch sử,
+     * lúc này transaction hiện tại đã được flush nên đã nằm trong kết quả.
+     */
+    @Transactional
+    public void apply(Transaction t, int sign) {
+        applyAll(t.getUserId(), List.of(t), sign);
+    }
+
+    /**
+     * Tạo ledger từ lịch sử nếu user chưa có, trong DB transaction của caller.
+     * Gọi trước apply() khi transaction mới chưa được INSERT (kết quả rebuild chưa gồm transaction đó).
+     */
+    @Transactional
+    public void ensureExists(UUID userId) {
+        if (!ledgerRepository.existsById(userId)) {
+            rebuild(userId);
+        }
+    }
+
+    /**
+     * Cộng/trừ nhiều transaction của cùng 1 user bằng đúng 1 câu UPDATE (dùng cho import / thao tác hàng loạt)
+     */
+    @Transactional
+    public void applyAll(UUID userId, List<Transaction> transactions, int sign) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        MoneyAccumulator income = new MoneyAccumulator();
+        MoneyAccumulator goalDeposit = new MoneyAccumulator();
+        MoneyAccumulator expense = new MoneyAccumulator();
+        MoneyAccumulator withdrawal = new MoneyAccumulator();
+
+        for (Transaction t : transactions) {
+            switch (t.getType()) {
+                case INCOME -> (t.getGoal() == null ? income : goalDeposit).add(t.getAmount());
+                case EXPENSE -> expense.add(t.getAmount());
+                case WITHDRAWAL -> withdrawal.add(t.getAmount());
+            }
+        }
+
+        int updated = ledgerRepository.increment(
+                userId,
+                signed(income, sign),
+                signed(goalDeposit, sign),
+                signed(expense, sign),
+                signed(withdrawal, sign),
+                LocalDateTime.now());
+        if (updated == 0) {
+            rebuild(userId);
+        }
+    }
+
+    /**
+     * Tính lại ledger của user từ bảng transactions (chỉ ACTIVE) và ghi đè.
+     * Khóa dòng ledger trước khi tính để không đè mất delta của request đang chạy song song.
+     *
+     * @return true nếu giá trị cũ lệch so với giá trị tính lại
+     */
+    @Transactional
+    public boolean rebuild(UUID userId) {
+        UserBalanceLedger current = ledgerRepository.findByUserIdForUpdate(userId).orElse(null);
+        UserBalanceLedger fresh = computeFromTransactions(userId);
+
+        ledgerRepository.upsertTotals(
+                userId,
+                fresh.getTotalIncome(),
+                fresh.getTotalGoalDeposit(),
+                fresh.getTotalExpense(),
+                fresh.getTotalWithdrawal(),
+                fresh.getUpdatedAt());
+
+        return current == null || !sameTotals(current, fresh);
+    }
+
+    /**
+     * Tính tổng từ bảng transactions bằng 1 câu GROUP BY (không load entity).
+     * Kết quả là ledger tạm (không persist), dùng cho rebuild hoặc fallback khi đọc.
+     */
+    @Transactional(readOnly = true)
+    public UserBalanceLedger computeFromTransactions(UUID userId) {
+        UserBalanceLedger ledger = new UserBalanceLedger();
+        ledger.setUserId(userId);
+        ledger.setUpdatedAt(LocalDateTime.now());
+
+        List<LedgerTotalsView> totals = transactionRepository.sumLedgerTotalsByUserId(userId, "ACTIVE");
+        for (LedgerTotalsView row : totals) {
+            BigDecimal free = row.getFreeAmount() != null ? row.getFreeAmount() : BigDecimal.ZERO;
+            BigDecimal goal = row.getGoalAmount() != null ? row.getGoalAmount() : BigDecimal.ZERO;
+            switch (row.getTxnType()) {
+                case INCOME -> {
+                    ledger.setTotalIncome(free);
+                    ledger.setTotalGoalDeposit(goal);
+                }
+                case EXPENSE -> ledger.setTotalExpense(free.add(goal));
+                case WITHDRAWAL -> ledger.setTotalWithdrawal(free.add(goal));
+            }
+        }
+        return ledger;
+    }
+
+    /**
+     * Job reconcile: tính lại ledger cho toàn bộ user có transaction.
+     * Mỗi user chạy trong 1 DB transaction riêng để không giữ lock lâu.
+     */
+    @Scheduled(cron = "${app.ledger.reconcile-cron:0 30 2 * * *}", zone = "Asia/Ho_Chi_Minh")
+    public void reconcileAll() {
+        int page = 0;
+        int checked = 0;
+        int drifted = 0;
+        List<UUID> userIds;
+        do {
+            userIds = transactionRepository.findDistinctUserIds(PageRequest.of(page++, RECONCILE_PAGE_SIZE));
+            for (UUID userId : userIds) {
+                Boolean changed = transactionTemplate.execute(status -> {
+                    boolean rebuilt = rebuild(userId);
+                    if (rebuilt) {
+                        // Số dư trả về cho user thay đổi -> ETag cũ không còn đúng
+                        dataVersionService.bump(userId);
+                    }
+                    return rebuilt;
+                });
+                checked++;
+                if (Boolean.TRUE.equals(changed)) {
+                    drifted++;
+                }
+            }
+        } while (userIds.size() == RECONCILE_PAGE_SIZE);
+
+        log.info("Balance ledger reconcile finished: checked={}, rebuilt={}", checked, drifted);
+    }
+
+    private static BigDecimal signed(MoneyAccumulator sum, int sign) {
+        return sign < 0 ? sum.total().negate() : sum.total();
+    }
+
+    private boolean sameTotals(UserBalanceLedger a, UserBalanceLedger b) {
+        return a.getTotalIncome().compareTo(b.getTotalIncome()) == 0
+                && a.getTotalGoalDeposit().compareTo(b.getTotalGoalDeposit()) == 0
+                && a.getTotalExpense().compareTo(b.getTotalExpense()) == 0
+                && a.getTotalWithdrawal().compareTo(b.getTotalWithdrawal()) == 0;
+    }
+}
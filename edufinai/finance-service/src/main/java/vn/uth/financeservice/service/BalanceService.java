@@ -4,10 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vn.uth.financeservice.dto.BalanceResponseDto;
-import vn.uth.financeservice.entity.Transaction;
-import vn.uth.financeservice.entity.TransactionType;
 import vn.uth.financeservice.entity.UserBalance;
-import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.entity.UserBalanceLedger;
+import vn.uth.financeservice.repository.UserBalanceLedgerRepository;
 import vn.uth.financeservice.repository.UserBalanceRepository;
 
 import java.math.BigDecimal;
@@ -19,7 +18,10 @@ import java.util.UUID;
 public class BalanceService {
 
     private final UserBalanceRepository userBalanceRepository;
-    private final TransactionRepository transactionRepository;
+    private final UserBalanceLedgerRepository ledgerRepository;
+    private final BalanceLedgerService balanceLedgerService;
+    private final SummaryCache summaryCache;
+    private final DataVersionService dataVersionService;
 
     @Transactional
     public UserBalance initializeBalance(UUID userId, BigDecimal amount) {
@@ -37,6 +39,9 @@ public class BalanceService {
         balance.setCreatedAt(LocalDateTime.now());
         balance.setUpdatedAt(LocalDateTime.now());
 
+        // Summary 7 ngày có số dư hiện tại
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
         return userBalanceRepository.save(balance);
     }
 
@@ -47,33 +52,15 @@ public class BalanceService {
                 .map(UserBalance::getInitialBalance)
                 .orElse(BigDecimal.ZERO);
 
-        // Tính tổng thu nhập thông thường (INCOME không có goalId, chỉ ACTIVE)
-        BigDecimal totalIncome = transactionRepository
-                .findByUserIdAndTypeAndStatusAndGoalIsNull(userId, TransactionType.INCOME, "ACTIVE")
-                .stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Đọc tổng cộng dồn từ ledger (1 lookup theo primary key, không phụ thuộc độ dài lịch sử)
+        // Fallback: user chưa có ledger (dữ liệu cũ) → tính bằng 1 câu GROUP BY, job reconcile sẽ tạo ledger sau
+        UserBalanceLedger ledger = ledgerRepository.findById(userId)
+                .orElseGet(() -> balanceLedgerService.computeFromTransactions(userId));
 
-        // Tính tổng nạp vào goal (INCOME có goalId, chỉ ACTIVE) - sẽ trừ khỏi số dư
-        BigDecimal totalGoalDeposit = transactionRepository
-                .findByUserIdAndTypeAndStatusAndGoalIsNotNull(userId, TransactionType.INCOME, "ACTIVE")
-                .stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Tính tổng chi tiêu (chỉ ACTIVE)
-        BigDecimal totalExpense = transactionRepository
-                .findByUserIdAndTypeAndStatus(userId, TransactionType.EXPENSE, "ACTIVE")
-                .stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Tính tổng rút tiền từ goal (chỉ ACTIVE) - sẽ cộng vào số dư
-        BigDecimal totalWithdrawal = transactionRepository
-                .findByUserIdAndTypeAndStatus(userId, TransactionType.WITHDRAWAL, "ACTIVE")
-                .stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalIncome = ledger.getTotalIncome();           // Thu nhập thông thường (INCOME không có goalId)
+        BigDecimal totalGoalDeposit = ledger.getTotalGoalDeposit(); // Nạp vào goal (INCOME có goalId) - sẽ trừ khỏi số dư
+        BigDecimal totalExpense = ledger.getTotalExpense();         // Chi tiêu
+        BigDecimal totalWithdrawal = ledger.getTotalWithdrawal();   // Rút tiền từ goal - sẽ cộng vào số dư
 
         // Số dư hiện tại = initialBalance + totalIncome - totalExpense - totalGoalDeposit + totalWithdrawal
         // Logic: Nạp vào goal trừ khỏi số dư, rút từ goal cộng vào số dư
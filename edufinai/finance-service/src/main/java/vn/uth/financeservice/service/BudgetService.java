@@ -0,0 +1,232 @@
+package vn.uth.financeservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uth.financeservice.aggregation.MoneyAccumulator;
+import vn.uth.financeservice.dto.BudgetRequestDto;
+import vn.uth.financeservice.dto.BudgetStatusDto;
+import vn.uth.financeservice.entity.Category;
+import vn.uth.financeservice.entity.CategoryBudget;
+import vn.uth.financeservice.entity.CategoryType;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.CategoryBudgetRepository;
+import vn.uth.financeservice.repository.CategoryBudgetUsageRepository;
+import vn.uth.financeservice.repository.CategoryRepository;
+import vn.uth.financeservice.repository.projection.BudgetStatusView;
+import vn.uth.financeservice.repository.projection.BudgetUsageStateView;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ngân sách chi tiêu theo category / tháng và cảnh báo khi dùng tới 80% / 100%:
+ * - Bộ đếm category_budget_usage được cộng/trừ delta theo từng transaction (gọi từ TransactionAggregateService),
+ *   kiểm tra ngưỡng chỉ đọc 1 dòng, không cộng lại transaction của tháng
+ * - Vượt ngưỡng trong tháng hiện tại: ghi push notification vào outbox (relay gửi sang notification service),
+ *   mỗi ngưỡng 1 lần / tháng
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetService {
+
+    static final int WARNING_LEVEL = 80;
+    static final int EXCEEDED_LEVEL = 100;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final CategoryBudgetRepository budgetRepository;
+    private final CategoryBudgetUsageRepository usageRepository;
+    private final CategoryRepository categoryRepository;
+    private final DailyRollupService dailyRollupService;
+    private final OutboxService outboxService;
+    private final DataVersionService dataVersionService;
+
+    /**
+     * Tạo hoặc đổi hạn mức ngân sách của category (mỗi category 1 ngân sách)
+     */
+    @Transactional
+    public CategoryBudget upsertBudget(UUID userId, BudgetRequestDto request) {
+        if (request.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("amount phải lớn hơn 0");
+        }
+        Category category = categoryRepository.findById(request.getCategoryId())
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+        if (!category.getIsDefault() && !category.getUserId().equals(userId)) {
+            throw new RuntimeException("Forbidden");
+        }
+        if (category.getType() == CategoryType.INCOME) {
+            throw new IllegalArgumentException("Chỉ đặt ngân sách cho category chi tiêu");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CategoryBudget budget = budgetRepository.findByUserIdAndCategoryId(userId, category.getCategoryId())
+                .orElseGet(() -> {
+                    CategoryBudget b = new CategoryBudget();
+                    b.setBudgetId(UUID.randomUUID());
+                    b.setUserId(userId);
+                    b.setCategory(category);
+                    b.setCreatedAt(now);
+                    return b;
+                });
+        budget.setAmount(request.getAmount());
+        budget.setUpdatedAt(now);
+        budgetRepository.saveAndFlush(budget);
+
+        // Bộ đếm tháng hiện tại lấy từ rollup (user cũ có thể chưa được backfill rollup)
+        dailyRollupService.ensureBackfilled(userId);
+        YearMonth month = YearMonth.now();
+        usageRepository.seedFromRollup(userId, category.getCategoryId(), month.atDay(1),
+                month.plusMonths(1).atDay(1), BigDecimal.ZERO, now);
+        evaluate(userId, category.getCategoryId(), month);
+        dataVersionService.bump(userId);
+        return budget;
+    }
+
+    @Transactional
+    public void deleteBudget(UUID budgetId, UUID userId) {
+        CategoryBudget budget = budgetRepository.findById(budgetId)
+                .orElseThrow(() -> new RuntimeException("Budget not found"));
+        if (!budget.getUserId().equals(userId)) {
+            throw new RuntimeException("Forbidden");
+        }
+        usageRepository.deleteByUserIdAndCategoryId(userId, budget.getCategory().getCategoryId());
+        budgetRepository.delete(budget);
+        dataVersionService.bump(userId);
+    }
+
+    /**
+     * Trạng thái ngân sách tháng hiện tại, đọc từ bộ đếm
+     */
+    @Transactional(readOnly = true)
+    public List<BudgetStatusDto> getBudgetStatus(UUID userId) {
+        YearMonth month = YearMonth.now();
+        return budgetRepository.findStatus(userId, month.atDay(1)).stream()
+                .map(view -> toStatusDto(view, month))
+                .toList();
+    }
+
+    /**
+     * Cộng (sign = 1) / trừ (sign = -1) các transaction EXPENSE có category vào bộ đếm ngân sách.
+     * Gom theo (category, tháng) trước, mỗi nhóm 1 câu UPDATE; chạy sau khi rollup đã được cập nhật.
+     */
+    @Transactional
+    public void applyAll(UUID userId, List<Transaction> transactions, int sign) {
+        Map<UUID, Map<YearMonth, MoneyAccumulator>> deltas = new LinkedHashMap<>();
+        for (Transaction t : transactions) {
+            if (t.getType() != TransactionType.EXPENSE || t.getCategory() == null) {
+                continue;
+            }
+            deltas.computeIfAbsent(t.getCategory().getCategoryId(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(YearMonth.from(t.getTransactionDate()), k -> new MoneyAccumulator())
+                    .add(t.getAmount());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((categoryId, byMonth) -> byMonth.forEach((month, sum) -> {
+            BigDecimal delta = sign < 0 ? sum.total().negate() : sum.total();
+            LocalDate monthStart = month.atDay(1);
+            int updated = usageRepository.addSpent(userId, categoryId, monthStart, delta, now);
+            if (updated == 0) {
+                updated = usageRepository.seedFromRollup(userId, categoryId, monthStart,
+                        month.plusMonths(1).atDay(1), delta, now);
+            }
+            if (updated > 0) {
+                evaluate(userId, categoryId, month);
+            }
+        }));
+    }
+
+    /**
+     * Tính lại bộ đếm của user từ rollup sau thay đổi hàng loạt (gọi sau khi rollup đã rebuild)
+     */
+    @Transactional
+    public void rebuildUser(UUID userId) {
+        usageRepository.recomputeUser(userId, LocalDateTime.now());
+    }
+
+    /**
+     * So sánh bộ đếm với hạn mức: vượt ngưỡng mới thì nâng alertLevel và (tháng hiện tại) gửi thông báo,
+     * chi tiêu giảm dưới ngưỡng thì hạ alertLevel
+     */
+    private void evaluate(UUID userId, UUID categoryId, YearMonth month) {
+        LocalDate monthStart = month.atDay(1);
+        BudgetUsageStateView state = usageRepository.findState(userId, categoryId, monthStart).orElse(null);
+        if (state == null) {
+            return;
+        }
+        int level = alertLevel(state.getSpent(), state.getBudgetAmount());
+        if (level > state.getAlertLevel()) {
+            boolean raised = usageRepository.raiseAlertLevel(userId, categoryId, monthStart, level) == 1;
+            if (raised && month.equals(YearMonth.now())) {
+                enqueueAlert(userId, categoryId, month, level, state);
+            }
+        } else if (level < state.getAlertLevel()) {
+            usageRepository.lowerAlertLevel(userId, categoryId, monthStart, level);
+        }
+    }
+
+    private void enqueueAlert(UUID userId, UUID categoryId, YearMonth month, int level, BudgetUsageStateView state) {
+        String title = level >= EXCEEDED_LEVEL
+                ? "Vượt ngân sách " + state.getCategoryName()
+                : "Sắp hết ngân sách " + state.getCategoryName();
+        String body = String.format("Bạn đã chi %s / %s (%s%%) cho %s trong tháng %s",
+                state.getSpent().toPlainString(), state.getBudgetAmount().toPlainString(),
+                percent(state.getSpent(), state.getBudgetAmount()), state.getCategoryName(), month);
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("type", "BUDGET_ALERT");
+        data.put("categoryId", categoryId.toString());
+        data.put("month", month.toString());
+        data.put("level", String.valueOf(level));
+        outboxService.enqueueUserNotification(userId, "BUDGET_" + level, title, body, data);
+        log.debug("Budget alert {}% queued: userId={}, categoryId={}, month={}", level, userId, categoryId, month);
+    }
+
+    /**
+     * Ngưỡng đang đạt: 100 nếu spent >= hạn mức, 80 nếu spent >= 80% hạn mức, còn lại 0
+     */
+    static int alertLevel(BigDecimal spent, BigDecimal budgetAmount) {
+        if (budgetAmount == null || budgetAmount.signum() <= 0) {
+            return 0;
+        }
+        BigDecimal scaledSpent = spent.multiply(HUNDRED);
+        if (scaledSpent.compareTo(budgetAmount.multiply(BigDecimal.valueOf(EXCEEDED_LEVEL))) >= 0) {
+            return EXCEEDED_LEVEL;
+        }
+        if (scaledSpent.compareTo(budgetAmount.multiply(BigDecimal.valueOf(WARNING_LEVEL))) >= 0) {
+            return WARNING_LEVEL;
+        }
+        return 0;
+    }
+
+    private BudgetStatusDto toStatusDto(BudgetStatusView view, YearMonth month) {
+        BigDecimal spent = view.getSpent() != null ? view.getSpent() : BigDecimal.ZERO;
+        BudgetStatusDto dto = new BudgetStatusDto();
+        dto.setBudgetId(view.getBudgetId());
+        dto.setCategoryId(view.getCategoryId());
+        dto.setCategoryName(view.getCategoryName());
+        dto.setMonth(month.toString());
+        dto.setAmount(view.getAmount());
+        dto.setSpent(spent);
+        dto.setRemaining(view.getAmount().subtract(spent));
+        dto.setUsagePercent(percent(spent, view.getAmount()).doubleValue());
+        dto.setAlertLevel(view.getAlertLevel() != null ? view.getAlertLevel() : alertLevel(spent, view.getAmount()));
+        return dto;
+    }
+
+    private static BigDecimal percent(BigDecimal spent, BigDecimal amount) {
+        if (amount.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return spent.multiply(HUNDRED).divide(amount, 1, RoundingMode.HALF_UP);
+    }
+}
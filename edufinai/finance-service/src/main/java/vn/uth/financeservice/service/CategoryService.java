@@ -1,17 +1,24 @@
 package vn.uth.financeservice.service;
 
-import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import vn.uth.financeservice.dto.CategoryRequestDto;
 import vn.uth.financeservice.dto.CategoryTransactionsDto;
 import vn.uth.financeservice.dto.TransactionResponseDto;
 import vn.uth.financeservice.entity.Category;
 import vn.uth.financeservice.entity.CategoryType;
 import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.repository.CategoryBudgetRepository;
+import vn.uth.financeservice.repository.CategoryBudgetUsageRepository;
 import vn.uth.financeservice.repository.CategoryRepository;
+import vn.uth.financeservice.repository.DailyCategoryTotalRepository;
+import vn.uth.financeservice.repository.RecurringTransactionRepository;
+import vn.uth.financeservice.repository.SpendingStatsRepository;
 import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.repository.projection.AmountTotalView;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -28,7 +35,16 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final TransactionRepository transactionRepository;
-    private final EntityManager entityManager;
+    private final RecurringTransactionRepository recurringTransactionRepository;
+    private final CategoryBudgetRepository budgetRepository;
+    private final CategoryBudgetUsageRepository budgetUsageRepository;
+    private final SpendingStatsRepository spendingStatsRepository;
+    private final DailyCategoryTotalRepository dailyRollupRepository;
+    private final DailyRollupService dailyRollupService;
+    private final TransactionAggregateService transactionAggregateService;
+    private final SummaryCache summaryCache;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional(readOnly = true)
     public List<Category> getUserCategories(UUID userId) {
@@ -51,6 +67,8 @@ public class CategoryService {
         category.setIsDefault(false);
         category.setCreatedAt(LocalDateTime.now());
         
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
         return categoryRepository.save(category);
     }
 
@@ -86,21 +104,26 @@ public class CategoryService {
         // Tìm hoặc tạo category "Khác" (default category, type = BOTH)
         Category otherCategory = getOrCreateOtherCategory();
         
-        // Tìm tất cả transaction dùng category này
-        List<Transaction> relatedTransactions = transactionRepository.findByCategoryId(categoryId);
-        
-        // Update tất cả transaction sang category "Khác"
-        for (Transaction transaction : relatedTransactions) {
-            transaction.setCategory(otherCategory);
-            transaction.setUpdatedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
-        }
-        
-        // Flush để đảm bảo tất cả transaction đã được update trước khi xóa category
-        entityManager.flush();
+        // Chuyển tất cả transaction sang category "Khác" bằng 1 câu UPDATE
+        // (flush trước + clear sau nên category bên dưới đã detached, xóa theo id)
+        int reassigned = transactionRepository.reassignCategory(categoryId, otherCategory, LocalDateTime.now());
+        // Giao dịch định kỳ dùng category này cũng chuyển sang "Khác"
+        recurringTransactionRepository.reassignCategory(categoryId, otherCategory, LocalDateTime.now());
         
+        // Ngân sách và thống kê chi tiêu của category bị xóa theo
+        budgetUsageRepository.deleteByCategoryId(categoryId);
+        budgetRepository.deleteByCategoryId(categoryId);
+        spendingStatsRepository.deleteByCategoryId(categoryId);
+
         // Xóa category
-        categoryRepository.delete(category);
+        categoryRepository.deleteById(categoryId);
+
+        // Daily rollup gom theo category nên cần tính lại cho user
+        if (reassigned > 0) {
+            transactionAggregateService.rebuildUser(userId);
+        }
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
     }
     
     /**
@@ -134,10 +157,21 @@ public class CategoryService {
      * @param size Số items mỗi trang
      * @return CategoryTransactionsDto với period, summary, và danh sách transactions
      */
-    @Transactional(readOnly = true)
     public CategoryTransactionsDto getCategoryTransactions(
             UUID categoryId, UUID userId, Integer month, Integer year,
             int page, int size) {
+        // Backfill rollup (commit riêng) TRƯỚC khi mở transaction đọc: nếu snapshot REPEATABLE READ
+        // được tạo trước thì sumForCategory không thấy rollup vừa ghi, summary ra 0 ở lần đầu
+        dailyRollupService.ensureBackfilled(userId);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> loadCategoryTransactions(categoryId, userId, month, year, page, size));
+    }
+
+    private CategoryTransactionsDto loadCategoryTransactions(
+            UUID categoryId, UUID userId, Integer month, Integer year,
+            int page, int size) {
         
         // 1. Tìm category và kiểm tra quyền truy cập
         Category category = categoryRepository.findById(categoryId)
@@ -154,41 +188,32 @@ public class CategoryService {
                 month != null ? month : LocalDate.now().getMonthValue()
         );
         LocalDateTime startDate = period.atDay(1).atStartOfDay();
-        LocalDateTime endDate = period.atEndOfMonth().atTime(23, 59, 59);
+        LocalDateTime endDate = period.plusMonths(1).atDay(1).atStartOfDay();
         
-        // 3. Lấy tất cả transactions của category trong khoảng thời gian
-        List<Transaction> transactions = transactionRepository
-                .findByCategoryIdAndStatusAndTransactionDateBetween(
-                        categoryId, "ACTIVE", startDate, endDate
-                );
+        // 3. Lấy 1 trang transactions của user trong category (lọc user + phân trang ở DB)
+        List<Transaction> pagedTransactions = transactionRepository.findCategoryPage(
+                userId, categoryId, "ACTIVE", startDate, endDate, PageRequest.of(page, size));
         
-        // 4. Tính summary (tổng tiền, số lượng, trung bình)
-        BigDecimal totalAmount = transactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // 4. Tính summary (tổng tiền, số lượng, trung bình) từ daily rollup của user
+        AmountTotalView totals = dailyRollupRepository.sumForCategory(
+                userId, categoryId, period.atDay(1), period.atEndOfMonth());
+        BigDecimal totalAmount = totals != null && totals.getTotal() != null ? totals.getTotal() : BigDecimal.ZERO;
+        long totalCount = totals != null && totals.getTxnCount() != null ? totals.getTxnCount() : 0L;
         
-        BigDecimal averageAmount = transactions.isEmpty()
+        BigDecimal averageAmount = totalCount == 0
                 ? BigDecimal.ZERO
                 : totalAmount.divide(
-                        BigDecimal.valueOf(transactions.size()),
+                        BigDecimal.valueOf(totalCount),
                         2,
                         RoundingMode.HALF_UP
                 );
         
-        // 5. Phân trang (in-memory pagination)
-        int start = page * size;
-        int end = Math.min(start + size, transactions.size());
-        List<Transaction> pagedTransactions =
-                start < transactions.size()
-                        ? transactions.subList(start, end)
-                        : List.of();
-        
-        // 6. Convert sang TransactionResponseDto
+        // 5. Convert sang TransactionResponseDto
         List<TransactionResponseDto> transactionDtos = pagedTransactions.stream()
                 .map(this::toTransactionResponseDto)
                 .collect(Collectors.toList());
         
-        // 7. Tạo response
+        // 6. Tạo response
         CategoryTransactionsDto.PeriodInfo periodInfo =
                 new CategoryTransactionsDto.PeriodInfo(
                         period.getMonthValue(),
@@ -200,7 +225,7 @@ public class CategoryService {
         CategoryTransactionsDto.TransactionSummary summary =
                 new CategoryTransactionsDto.TransactionSummary(
                         totalAmount,
-                        transactions.size(),
+                        (int) totalCount,
                         averageAmount
                 );
         
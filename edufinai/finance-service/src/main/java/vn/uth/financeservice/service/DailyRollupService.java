@@ -0,0 +1,143 @@
+package vn.uth.financeservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.aggregation.MoneyAccumulator;
+import vn.uth.financeservice.entity.DailyCategoryTotal;
+import vn.uth.financeservice.entity.DailyCategoryTotalId;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.repository.DailyCategoryTotalRepository;
+import vn.uth.financeservice.repository.DailyRollupUserStateRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Duy trì bảng rollup daily_user_category_totals:
+ * - Mỗi create/delete transaction cộng/trừ delta vào đúng 1 dòng (user, ngày, category, type, goal)
+ * - User chưa có rollup (dữ liệu cũ) được backfill từ bảng transactions khi ghi/đọc lần đầu
+ *   hoặc bởi job backfill định kỳ
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyRollupService {
+
+    private static final int BACKFILL_PAGE_SIZE = 200;
+
+    private final DailyCategoryTotalRepository rollupRepository;
+    private final DailyRollupUserStateRepository stateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Cộng (sign = 1) hoặc trừ (sign = -1) một transaction vào rollup của user.
+     * Nếu user chưa được backfill thì rebuild toàn bộ, transaction hiện tại đã được flush nên đã nằm trong kết quả.
+     */
+    @Transactional
+    public void apply(Transaction t, int sign) {
+        applyAll(t.getUserId(), List.of(t), sign);
+    }
+
+    /**
+     * Cộng/trừ nhiều transaction của cùng 1 user: gom theo khóa rollup trước,
+     * mỗi khóa (ngày, category, type, goal) chỉ còn 1 câu upsert
+     */
+    @Transactional
+    public void applyAll(UUID userId, List<Transaction> transactions, int sign) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        if (!stateRepository.existsById(userId)) {
+            rebuildUser(userId);
+            return;
+        }
+
+        Map<DailyCategoryTotalId, MoneyAccumulator> deltas = new LinkedHashMap<>();
+        for (Transaction t : transactions) {
+            UUID categoryId = t.getCategory() != null ? t.getCategory().getCategoryId() : DailyCategoryTotal.NO_CATEGORY;
+            DailyCategoryTotalId key = new DailyCategoryTotalId(
+                    userId, t.getTransactionDate().toLocalDate(), categoryId, t.getType(), t.getGoal() != null);
+            deltas.computeIfAbsent(key, k -> new MoneyAccumulator()).add(t.getAmount());
+        }
+
+        for (Map.Entry<DailyCategoryTotalId, MoneyAccumulator> delta : deltas.entrySet()) {
+            DailyCategoryTotalId key = delta.getKey();
+            BigDecimal amount = delta.getValue().total();
+            long count = delta.getValue().count();
+            rollupRepository.applyDelta(
+                    userId,
+                    key.getTxnDate(),
+                    key.getCategoryId(),
+                    key.getType().name(),
+                    key.isGoalLinked(),
+                    sign < 0 ? amount.negate() : amount,
+                    sign < 0 ? -count : count);
+        }
+    }
+
+    /**
+     * Xóa và tính lại toàn bộ rollup của user từ bảng transactions (chỉ ACTIVE)
+     */
+    @Transactional
+    public void rebuildUser(UUID userId) {
+        rollupRepository.deleteByUserId(userId);
+        rollupRepository.insertFromTransactions(userId);
+        stateRepository.markBackfilled(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Rebuild rollup nếu user chưa được backfill, trong DB transaction của caller.
+     * Gọi trước apply() khi transaction mới chưa được INSERT (kết quả rebuild chưa gồm transaction đó).
+     */
+    @Transactional
+    public void ensureRebuilt(UUID userId) {
+        if (!stateRepository.existsById(userId)) {
+            rebuildUser(userId);
+        }
+    }
+
+    /**
+     * Gọi trước khi đọc rollup: backfill user chưa có rollup trong 1 DB transaction ghi riêng
+     * (request đọc thường chạy trong transaction readOnly)
+     */
+    public void ensureBackfilled(UUID userId) {
+        if (stateRepository.existsById(userId)) {
+            return;
+        }
+        TransactionTemplate writeTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        writeTemplate.executeWithoutResult(status -> rebuildUser(userId));
+    }
+
+    /**
+     * Job backfill: tính rollup cho các user có transaction nhưng chưa có rollup.
+     * User đã xử lý không còn xuất hiện trong truy vấn nên luôn lấy trang đầu.
+     */
+    @Scheduled(initialDelayString = "${app.rollup.backfill-initial-delay-ms:60000}",
+               fixedDelayString = "${app.rollup.backfill-interval-ms:21600000}")
+    public void backfillAll() {
+        int processed = 0;
+        List<UUID> userIds;
+        do {
+            userIds = rollupRepository.findUserIdsWithoutRollup(PageRequest.of(0, BACKFILL_PAGE_SIZE));
+            for (UUID userId : userIds) {
+                transactionTemplate.executeWithoutResult(status -> rebuildUser(userId));
+                processed++;
+            }
+        } while (userIds.size() == BACKFILL_PAGE_SIZE);
+
+        if (processed > 0) {
+            log.info("Daily rollup backfill finished: users={}", processed);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package vn.uth.financeservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uth.financeservice.repository.UserDataVersionRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Version dữ liệu theo user cho conditional GET (ETag / 304).
+ * - Mọi thay đổi dữ liệu của user gọi bump() trong cùng DB transaction với thay đổi đó
+ * - API đọc chỉ cần 1 câu SELECT theo khóa chính để biết dữ liệu có đổi hay không
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final UserDataVersionRepository versionRepository;
+
+    @Transactional(readOnly = true)
+    public long currentVersion(UUID userId) {
+        return versionRepository.findVersion(userId).orElse(0L);
+    }
+
+    @Transactional
+    public void bump(UUID userId) {
+        versionRepository.increment(userId, LocalDateTime.now());
+    }
+
+    @Transactional
+    public void bumpAll(Collection<UUID> userIds) {
+        LocalDateTime now = LocalDateTime.now();
+        userIds.stream().distinct().forEach(userId -> versionRepository.increment(userId, now));
+    }
+
+    /**
+     * ETag (weak) cho dữ liệu hiện tại của user.
+     * Gồm cả userId (trình duyệt dùng chung giữa 2 tài khoản) và ngày hiện tại
+     * (summary / danh sách mặc định theo "hôm nay", "tháng này" đổi khi sang ngày mới dù dữ liệu không đổi).
+     */
+    public String etag(UUID userId) {
+        return "W/\"" + userId + "." + currentVersion(userId) + "." + LocalDate.now() + "\"";
+    }
+}
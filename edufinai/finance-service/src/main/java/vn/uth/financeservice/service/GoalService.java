@@ -2,8 +2,14 @@ package vn.uth.financeservice.service;
 
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.aggregation.MoneyAccumulator;
 import vn.uth.financeservice.dto.GoalRequestDto;
 import vn.uth.financeservice.dto.GoalStatusUpDate;
 import vn.uth.financeservice.dto.GoalWithdrawRequestDto;
@@ -16,9 +22,9 @@ import vn.uth.financeservice.entity.TransactionType;
 import vn.uth.financeservice.repository.GoalRepository;
 import vn.uth.financeservice.repository.TransactionRepository;
 import vn.uth.financeservice.repository.CategoryRepository;
+import vn.uth.financeservice.repository.projection.GoalRefView;
 import vn.uth.financeservice.entity.Category;
 import vn.uth.financeservice.entity.CategoryType;
-import vn.uth.financeservice.client.GamificationServiceClient;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -28,13 +34,20 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class GoalService {
 
+    private static final int EXPIRY_CHUNK_SIZE = 500;
+
     private final GoalRepository goalRepository;
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
+    private final OutboxService outboxService;
+    private final TransactionAggregateService transactionAggregateService;
+    private final SummaryCache summaryCache;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
     private final EntityManager entityManager;
-    private final GamificationServiceClient gamificationServiceClient;
 
     @Transactional
     public Goal createGoal(UUID userId, GoalRequestDto request) {
@@ -48,6 +61,8 @@ public class GoalService {
         g.setStatus(GoalStatus.ACTIVE);
         g.setNewStatus(GoalStatus.ACTIVE); // Set newStatus để tránh lỗi NOT NULL
         g.setUpdatedAt(LocalDateTime.now()); // tránh lỗi NOT NULL
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
         return goalRepository.save(g);
     }
 
@@ -84,9 +99,11 @@ public class GoalService {
         goal.setUpdatedAt(LocalDateTime.now());
 
         Goal savedGoal = goalRepository.save(goal);
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
 
-        // Publish event đến gamification service để ghi nhận challenge progress
-        gamificationServiceClient.publishGoalAchievedEvent(userId, "GOAL", "COMPLETE");
+        // Ghi event vào outbox (cùng DB transaction), relay chạy nền sẽ gửi sang gamification service
+        outboxService.enqueueChallengeEvent(userId, "GOAL", "COMPLETE");
 
         return savedGoal;
     }
@@ -149,6 +166,8 @@ public class GoalService {
         
         if (needUpdate) {
             goal.setUpdatedAt(now);
+            summaryCache.evictAfterCommit(goal.getUserId());
+            dataVersionService.bump(goal.getUserId());
             return goalRepository.save(goal);
         }
 
@@ -158,54 +177,103 @@ public class GoalService {
     @Transactional(readOnly = true)
     public List<Goal> getUserGoals(UUID userId) {
         // Method này chỉ đọc, không update status
-        // Sử dụng getUserGoalsWithAutoStatusUpdate() nếu muốn tự động update status
+        // Goal quá hạn được chuyển sang FAILED bởi job expireOverdueGoals()
         return goalRepository.findByUserId(userId);
     }
 
     /**
-     * Lấy danh sách goals và tự động check/update status
-     * Sử dụng method này thay vì getUserGoals() nếu muốn tự động update status
+     * Job chuyển goal quá hạn (ACTIVE, end_at < now, chưa đủ tiền) sang FAILED.
+     * Chạy theo từng chunk, mỗi chunk 1 câu SELECT theo index (status, end_at) + 1 câu UPDATE
+     * trong DB transaction riêng để không giữ lock lâu.
+     *
+     * @return số goal đã chuyển sang FAILED
      */
-    @Transactional
-    public List<Goal> getUserGoalsWithAutoStatusUpdate(UUID userId) {
-        List<Goal> goals = goalRepository.findByUserId(userId);
-        
-        // Check và update status cho từng goal
-        return goals.stream()
-                .map(this::checkAndUpdateGoalStatus)
-                .collect(Collectors.toList());
+    @Scheduled(initialDelayString = "${app.goal.expiry-initial-delay-ms:30000}",
+               fixedDelayString = "${app.goal.expiry-interval-ms:60000}")
+    public int expireOverdueGoals() {
+        int expired = 0;
+        int found;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            List<GoalRefView> overdue = goalRepository.findOverdue(
+                    GoalStatus.ACTIVE, now, PageRequest.of(0, EXPIRY_CHUNK_SIZE));
+            found = overdue.size();
+            if (found == 0) {
+                break;
+            }
+            List<UUID> goalIds = overdue.stream().map(GoalRefView::getGoalId).collect(Collectors.toList());
+            Integer updated = transactionTemplate.execute(status -> {
+                int n = goalRepository.markOverdueFailed(goalIds, GoalStatus.ACTIVE, GoalStatus.FAILED, now);
+                List<UUID> userIds = overdue.stream().map(GoalRefView::getUserId).distinct().toList();
+                userIds.forEach(summaryCache::evictAfterCommit);
+                dataVersionService.bumpAll(userIds);
+                return n;
+            });
+            expired += updated != null ? updated : 0;
+        } while (found == EXPIRY_CHUNK_SIZE);
+
+        if (expired > 0) {
+            log.info("Goal expiry finished: {} goals marked FAILED", expired);
+        }
+        return expired;
     }
 
     /**
-     * Rút tiền từ goal
-     * Tạo WITHDRAWAL transaction và giảm savedAmount của goal
+     * Goal của user (đọc thường, không khóa dòng); ném RuntimeException nếu không tồn tại / không thuộc user
      */
-    @Transactional
-    public Transaction withdrawFromGoal(UUID goalId, GoalWithdrawRequestDto request, UUID userId) {
-        // Tìm goal
+    @Transactional(readOnly = true)
+    public Goal getOwnedGoal(UUID goalId, UUID userId) {
         Goal goal = goalRepository.findById(goalId)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
-
-        // Kiểm tra quyền sở hữu
         if (!goal.getUserId().equals(userId)) {
             throw new RuntimeException("Forbidden");
         }
+        return goal;
+    }
 
-        // Không cho phép rút nếu goal đã được xác nhận hoàn thành
-        if (goal.getStatus() == GoalStatus.COMPLETED) {
-            throw new RuntimeException("Không thể rút tiền từ mục tiêu đã hoàn thành");
-        }
-
-        // Kiểm tra số tiền có thể rút
-        BigDecimal savedAmount = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
-        BigDecimal withdrawAmount = request.getAmount();
+    /**
+     * Cộng (delta > 0) / trừ (delta < 0) savedAmount của goal bằng 1 câu UPDATE nguyên tử
+     * (GoalRepository.applySavedDelta), sau đó cập nhật status theo số tiền mới.
+     * Lỗi (không tồn tại / không thuộc user / không đủ tiền / trạng thái bị loại trừ) ném RuntimeException,
+     * DB transaction của caller bị rollback.
+     *
+     * @param excludedStatus goal ở trạng thái này không được thay đổi số tiền (null = không giới hạn)
+     * @return goal với savedAmount mới
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Goal applySavedAmountDelta(UUID goalId, UUID userId, BigDecimal delta, GoalStatus excludedStatus) {
+        int updated = goalRepository.applySavedDelta(goalId, userId, delta, excludedStatus, LocalDateTime.now());
+        Goal goal = goalRepository.findById(goalId)
+                .orElseThrow(() -> new RuntimeException("Goal not found"));
 
-        if (savedAmount.compareTo(withdrawAmount) < 0) {
+        if (updated == 0) {
+            if (!goal.getUserId().equals(userId)) {
+                throw new RuntimeException("Forbidden");
+            }
+            if (excludedStatus != null && goal.getStatus() == excludedStatus) {
+                throw new RuntimeException(goal.getStatus() == GoalStatus.COMPLETED
+                        ? "Không thể rút tiền từ mục tiêu đã hoàn thành"
+                        : "Không thể thay đổi số tiền của mục tiêu ở trạng thái " + goal.getStatus());
+            }
             throw new RuntimeException(
-                    String.format("Không đủ số tiền trong mục tiêu. Số tiền có thể rút: %s", savedAmount)
+                    String.format("Không đủ số tiền trong mục tiêu. Số tiền có thể rút: %s", goal.getSavedAmount())
             );
         }
 
+        // Goal có thể đã nằm trong persistence context từ trước câu UPDATE (vd transaction.getGoal())
+        entityManager.refresh(goal);
+        return checkAndUpdateGoalStatus(goal);
+    }
+
+    /**
+     * Rút tiền từ goal
+     * Tạo WITHDRAWAL transaction và giảm savedAmount của goal
+     */
+    @Transactional
+    public Transaction withdrawFromGoal(UUID goalId, GoalWithdrawRequestDto request, UUID userId) {
+        BigDecimal withdrawAmount = request.getAmount();
+        Goal goal = getOwnedGoal(goalId, userId); // đọc thường, dòng goal chỉ bị khóa ở câu UPDATE cuối
+
         // Tìm category "Rút tiền" hoặc tạo mới nếu chưa có
         Category withdrawalCategory = categoryRepository
                 .findByUserIdAndName(userId, "Rút tiền")
@@ -238,15 +306,15 @@ public class GoalService {
         transaction.setCreatedAt(LocalDateTime.now());
         transaction.setUpdatedAt(LocalDateTime.now());
 
-        // Giảm savedAmount của goal
-        goal.setSavedAmount(savedAmount.subtract(withdrawAmount));
-        goal.setUpdatedAt(LocalDateTime.now());
-        goalRepository.save(goal);
+        // Cộng vào balance ledger + daily rollup trước (transaction chưa INSERT)
+        transactionAggregateService.onCreatedBeforeInsert(transaction);
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
 
-        // Tự động check và update goal status
-        checkAndUpdateGoalStatus(goal);
-
-        // Lưu transaction
+        // Làm cuối cùng (giống TransactionService.createTransaction): giảm savedAmount bằng 1 câu UPDATE
+        // có điều kiện (đủ tiền, chưa COMPLETED, đúng chủ sở hữu) - 2 lần rút song song không thể cùng
+        // thành công khi chỉ đủ tiền cho 1 lần - rồi mới INSERT transaction (foreign key tới goal)
+        transaction.setGoal(applySavedAmountDelta(goalId, userId, withdrawAmount.negate(), GoalStatus.COMPLETED));
         return transactionRepository.save(transaction);
     }
 
@@ -278,15 +346,17 @@ public class GoalService {
                 .collect(Collectors.toList());
 
         // Tính tổng nạp và rút
-        BigDecimal totalDeposit = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalWithdrawal = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.WITHDRAWAL)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator depositSum = new MoneyAccumulator();
+        MoneyAccumulator withdrawalSum = new MoneyAccumulator();
+        for (Transaction t : transactions) {
+            if (t.getType() == TransactionType.INCOME) {
+                depositSum.add(t.getAmount());
+            } else if (t.getType() == TransactionType.WITHDRAWAL) {
+                withdrawalSum.add(t.getAmount());
+            }
+        }
+        BigDecimal totalDeposit = depositSum.total();
+        BigDecimal totalWithdrawal = withdrawalSum.total();
 
         // Tạo summary
         GoalTransactionHistoryDto.TransactionSummary summary = 
@@ -351,19 +421,16 @@ public class GoalService {
             throw new RuntimeException("Không thể xóa mục tiêu đã hoàn thành");
         }
 
-        // Tìm tất cả transaction liên quan đến goal
-        List<Transaction> relatedTransactions = transactionRepository.findByGoalId(goalId);
-
-        // Xóa tất cả transaction liên quan đến goal
-        for (Transaction transaction : relatedTransactions) {
-            transactionRepository.delete(transaction);
-        }
-
-        // Flush để đảm bảo tất cả transaction đã được xóa trước khi xóa goal
-        // Điều này fix lỗi Hibernate TransientObjectException và foreign key constraint
-        entityManager.flush();
+        // Xóa tất cả transaction liên quan đến goal bằng 1 câu DELETE
+        // (chạy trước khi xóa goal để không vi phạm foreign key; persistence context được clear sau câu DELETE)
+        transactionRepository.deleteByGoalId(goalId);
 
         // Xóa goal khỏi database
-        goalRepository.delete(goal);
+        goalRepository.deleteById(goalId);
+
+        // Tính lại balance ledger + daily rollup sau khi xóa (GROUP BY thay vì trừ từng transaction)
+        transactionAggregateService.rebuildUser(userId);
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
     }
 }
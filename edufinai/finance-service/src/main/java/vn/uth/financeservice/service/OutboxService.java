@@ -0,0 +1,189 @@
+package vn.uth.financeservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.client.GamificationServiceClient;
+import vn.uth.financeservice.client.NotificationServiceClient;
+import vn.uth.financeservice.entity.OutboxDestination;
+import vn.uth.financeservice.entity.OutboxEvent;
+import vn.uth.financeservice.entity.OutboxStatus;
+import vn.uth.financeservice.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Transactional outbox cho event gửi sang service khác (gamification, notification):
+ * - enqueue(): ghi event trong cùng DB transaction với thay đổi nghiệp vụ (request không phải chờ service kia)
+ * - relay(): job nền nhận (claim) batch event đến hạn, gửi đi, đánh dấu DELIVERED;
+ *   lỗi thì retry với backoff tăng dần, quá số lần thì chuyển FAILED để kiểm tra thủ công
+ *
+ * Gọi HTTP sang service khác luôn nằm ngoài DB transaction: không giữ connection/khóa dòng
+ * trong lúc chờ service chậm, và event đã gửi không bị rollback về PENDING để gửi lại.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private static final int RELAY_BATCH_SIZE = 50;
+    private static final int MAX_ATTEMPTS = 12;
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(5);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+    private static final Duration DELIVERED_RETENTION = Duration.ofDays(7);
+    // Thời gian "giữ chỗ" khi claim: đủ cho cả batch gửi hết kể cả khi mọi request đều timeout
+    // (50 x (3s connect + 5s read)). Instance chết giữa chừng thì event tự đến hạn lại sau lease.
+    static final Duration CLAIM_LEASE = Duration.ofMinutes(10);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final GamificationServiceClient gamificationServiceClient;
+    private final NotificationServiceClient notificationServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Ghi challenge event cho gamification service (tham gia DB transaction hiện tại)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueueChallengeEvent(UUID userId, String eventType, String action) {
+        return enqueue(userId, OutboxDestination.GAMIFICATION, eventType + "_" + action,
+                gamificationServiceClient.buildChallengeEvent(userId, eventType, action));
+    }
+
+    /**
+     * Ghi push notification cho user (tham gia DB transaction hiện tại)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueueUserNotification(UUID userId, String eventType, String title, String body,
+                                               Map<String, String> data) {
+        return enqueue(userId, OutboxDestination.NOTIFICATION, eventType,
+                notificationServiceClient.buildUserNotification(title, body, data));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(UUID userId, OutboxDestination destination, String eventType, Object payload) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setEventId(UUID.randomUUID());
+        event.setUserId(userId);
+        event.setDestination(destination);
+        event.setEventType(eventType);
+        event.setPayload(toJson(payload));
+        event.setStatus(OutboxStatus.PENDING);
+        event.setAttempts(0);
+        event.setNextAttemptAt(now);
+        event.setCreatedAt(now);
+        return outboxEventRepository.save(event);
+    }
+
+    /**
+     * Relay: xử lý lần lượt từng batch cho đến khi không còn event đến hạn. Mỗi batch gồm 3 bước:
+     * 1. claim trong 1 transaction ngắn (SKIP LOCKED + đẩy next_attempt_at ra sau lease) rồi commit ngay,
+     *    instance khác sẽ không lấy lại các event này cho đến khi hết lease
+     * 2. gửi từng event, không có DB transaction nào đang mở
+     * 3. ghi kết quả (DELIVERED hoặc backoff) của từng event trong 1 transaction ngắn riêng
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:5000}")
+    public void relay() {
+        List<OutboxEvent> claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> claimDueBatch());
+            if (claimed == null) {
+                return;
+            }
+            for (OutboxEvent event : claimed) {
+                deliverAndRecord(event);
+            }
+        } while (claimed.size() == RELAY_BATCH_SIZE);
+    }
+
+    /**
+     * Dọn event đã gửi thành công quá thời gian lưu giữ
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 15 3 * * *}", zone = "Asia/Ho_Chi_Minh")
+    @Transactional
+    public void cleanupDelivered() {
+        int deleted = outboxEventRepository.deleteDeliveredBefore(
+                OutboxStatus.DELIVERED, LocalDateTime.now().minus(DELIVERED_RETENTION));
+        if (deleted > 0) {
+            log.info("Outbox cleanup: deleted {} delivered events", deleted);
+        }
+    }
+
+    private List<OutboxEvent> claimDueBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.lockDueBatch(now, RELAY_BATCH_SIZE);
+        LocalDateTime leaseUntil = now.plus(CLAIM_LEASE);
+        for (OutboxEvent event : events) {
+            event.setNextAttemptAt(leaseUntil); // flush khi commit
+        }
+        return events;
+    }
+
+    private void deliverAndRecord(OutboxEvent event) {
+        try {
+            deliver(event);
+            event.setStatus(OutboxStatus.DELIVERED);
+            event.setDeliveredAt(LocalDateTime.now());
+            event.setLastError(null);
+        } catch (Exception e) {
+            markFailedAttempt(event, e);
+        }
+        try {
+            transactionTemplate.execute(status -> outboxEventRepository.save(event));
+        } catch (Exception e) {
+            // Không ghi được kết quả: event vẫn PENDING, sẽ được gửi lại sau lease (phía nhận bỏ trùng theo X-Event-Id)
+            log.error("Outbox event {} ({}): cannot record delivery result: {}",
+                    event.getEventId(), event.getEventType(), e.getMessage());
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        switch (event.getDestination()) {
+            case GAMIFICATION -> gamificationServiceClient.deliverChallengeEvent(event.getEventId(), event.getPayload());
+            case NOTIFICATION -> notificationServiceClient.deliverUserNotification(
+                    event.getEventId(), event.getUserId(), event.getPayload());
+        }
+    }
+
+    private void markFailedAttempt(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+
+        if (attempts >= MAX_ATTEMPTS) {
+            event.setStatus(OutboxStatus.FAILED);
+            log.error("Outbox event {} ({}) failed after {} attempts: {}",
+                    event.getEventId(), event.getEventType(), attempts, message);
+            return;
+        }
+
+        // Backoff lũy thừa: 5s, 10s, 20s, ... tối đa 30 phút
+        Duration backoff = BASE_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(MAX_BACKOFF) > 0) {
+            backoff = MAX_BACKOFF;
+        }
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+        log.warn("Outbox event {} ({}) delivery failed (attempt {}), retry in {}s: {}",
+                event.getEventId(), event.getEventType(), attempts, backoff.toSeconds(), message);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package vn.uth.financeservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Chạy song song các query đọc độc lập của 1 request trên virtual thread:
+ * - Mỗi query chạy trong DB transaction readOnly riêng (REQUIRES_NEW, connection riêng, đi replica nếu có)
+ * - join() chờ tất cả trong deadline chung của request (app.parallel-reads.deadline-ms)
+ * - Query đầu tiên lỗi hoặc hết deadline: hủy (interrupt) các query còn lại rồi ném lỗi
+ *
+ * Cách dùng giống StructuredTaskScope (chưa dùng trực tiếp vì vẫn là preview ở Java 21):
+ * <pre>
+ * try (ParallelReads.Scope scope = parallelReads.open()) {
+ *     Supplier&lt;A&gt; a = scope.fork(() -> repoA.query(...));
+ *     Supplier&lt;B&gt; b = scope.fork(() -> repoB.query(...));
+ *     scope.join();
+ *     return build(a.get(), b.get());
+ * }
+ * </pre>
+ * Không gọi bên trong 1 DB transaction đang mở: connection của transaction ngoài bị giữ trong lúc chờ,
+ * pool nhỏ có thể bị cạn. app.parallel-reads.enabled=false thì chạy tuần tự trên thread hiện tại.
+ */
+@Component
+public class ParallelReads {
+
+    private static final ThreadFactory THREAD_FACTORY = Thread.ofVirtual().name("parallel-read-", 0).factory();
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final boolean enabled;
+    private final Duration deadline;
+
+    public ParallelReads(PlatformTransactionManager transactionManager,
+                         @Value("${app.parallel-reads.enabled:true}") boolean enabled,
+                         @Value("${app.parallel-reads.deadline-ms:3000}") long deadlineMs) {
+        this.enabled = enabled;
+        this.deadline = Duration.ofMillis(deadlineMs);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.readOnlyTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Timeout của transaction = query timeout ở JDBC: query chậm bị DB hủy chứ không chạy tiếp sau deadline
+        this.readOnlyTemplate.setTimeout((int) Math.max(1, (deadlineMs + 999) / 1000));
+    }
+
+    public Scope open() {
+        return new Scope();
+    }
+
+    public final class Scope implements AutoCloseable {
+
+        private final ExecutorService executor = enabled ? Executors.newThreadPerTaskExecutor(THREAD_FACTORY) : null;
+        private final List<CompletableFuture<?>> forks = new ArrayList<>();
+        private final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        private final long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        private boolean joined;
+
+        private Scope() {
+        }
+
+        /**
+         * Bắt đầu 1 query; kết quả chỉ đọc được sau join()
+         */
+        public <T> Supplier<T> fork(Supplier<T> query) {
+            if (joined) {
+                throw new IllegalStateException("Scope already joined");
+            }
+            if (executor == null) {
+                T value = readOnlyTemplate.execute(status -> query.get());
+                return () -> value;
+            }
+
+            // Virtual thread không thừa hưởng request của thread gọi (cần cho định tuyến read-your-writes)
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                try {
+                    return readOnlyTemplate.execute(status -> query.get());
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            }, executor);
+            future.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    firstFailure.completeExceptionally(ex);
+                }
+            });
+            forks.add(future);
+            return () -> {
+                if (!joined) {
+                    throw new IllegalStateException("Call join() before reading results");
+                }
+                return future.resultNow();
+            };
+        }
+
+        /**
+         * Chờ tất cả query xong; lỗi đầu tiên (hoặc hết deadline) hủy các query còn lại
+         */
+        public void join() {
+            if (executor == null) {
+                joined = true;
+                return;
+            }
+            CompletableFuture<Void> all = CompletableFuture.allOf(forks.toArray(CompletableFuture[]::new));
+            try {
+                CompletableFuture.anyOf(all, firstFailure).get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                joined = true;
+            } catch (TimeoutException ex) {
+                executor.shutdownNow();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Truy vấn vượt quá thời gian cho phép (" + deadline.toMillis() + " ms)");
+            } catch (ExecutionException ex) {
+                executor.shutdownNow();
+                Throwable cause = ex.getCause() instanceof CompletionException && ex.getCause().getCause() != null
+                        ? ex.getCause().getCause()
+                        : ex.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new RuntimeException(cause);
+            } catch (InterruptedException ex) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for parallel reads", ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (executor == null) {
+                return;
+            }
+            if (!joined) {
+                // Thoát scope mà chưa join (có lỗi ở thread gọi): không để query chạy mồ côi
+                executor.shutdownNow();
+            }
+            executor.close();
+        }
+    }
+}
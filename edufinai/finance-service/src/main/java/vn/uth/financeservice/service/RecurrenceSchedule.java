@@ -0,0 +1,89 @@
+package vn.uth.financeservice.service;
+
+import org.springframework.scheduling.support.CronExpression;
+import vn.uth.financeservice.entity.RecurrenceFrequency;
+import vn.uth.financeservice.entity.RecurringTransaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tính các ngày đến hạn của giao dịch định kỳ (không truy cập DB).
+ * MONTHLY / YEARLY bám theo ngày của startDate: mốc ngày 31 rơi vào ngày cuối tháng ở tháng ngắn hơn,
+ * tháng sau đó quay lại ngày 31. CRON chỉ dùng phần ngày của biểu thức (giờ bị bỏ qua).
+ */
+public final class RecurrenceSchedule {
+
+    private RecurrenceSchedule() {
+    }
+
+    /**
+     * Các ngày đến hạn từ nextRunDate tới upTo (tối đa maxCount ngày)
+     *
+     * @param dates       ngày cần sinh transaction, tăng dần
+     * @param nextRunDate lần kế tiếp sau các ngày trên, null nếu lịch đã kết thúc (qua endDate)
+     */
+    public record Due(List<LocalDate> dates, LocalDate nextRunDate) {
+    }
+
+    public static Due due(RecurringTransaction r, LocalDate upTo, int maxCount) {
+        CronExpression cron = cron(r);
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate cursor = r.getNextRunDate();
+        while (cursor != null && !cursor.isAfter(upTo) && !isAfterEnd(r, cursor) && dates.size() < maxCount) {
+            dates.add(cursor);
+            cursor = next(r, cron, cursor);
+        }
+        return new Due(dates, cursor == null || isAfterEnd(r, cursor) ? null : cursor);
+    }
+
+    /**
+     * Lần đầu tiên của lịch (>= startDate), null nếu không có lần nào trước endDate
+     */
+    public static LocalDate first(RecurringTransaction r) {
+        LocalDate first = r.getFrequency() == RecurrenceFrequency.CRON
+                ? next(r, cron(r), r.getStartDate().minusDays(1))
+                : r.getStartDate();
+        return first == null || isAfterEnd(r, first) ? null : first;
+    }
+
+    /**
+     * Kiểm tra biểu thức cron (ném IllegalArgumentException nếu sai cú pháp)
+     */
+    public static CronExpression cron(RecurringTransaction r) {
+        if (r.getFrequency() != RecurrenceFrequency.CRON) {
+            return null;
+        }
+        if (r.getCronExpression() == null || r.getCronExpression().isBlank()) {
+            throw new IllegalArgumentException("cronExpression is required for CRON frequency");
+        }
+        return CronExpression.parse(r.getCronExpression().trim());
+    }
+
+    private static LocalDate next(RecurringTransaction r, CronExpression cron, LocalDate current) {
+        int interval = r.getIntervalCount() != null ? r.getIntervalCount() : 1;
+        LocalDate anchor = r.getStartDate();
+        return switch (r.getFrequency()) {
+            case DAILY -> current.plusDays(interval);
+            case WEEKLY -> current.plusWeeks(interval);
+            case MONTHLY -> clampDay(YearMonth.from(current).plusMonths(interval), anchor.getDayOfMonth());
+            case YEARLY -> clampDay(YearMonth.of(current.getYear() + interval, anchor.getMonth()), anchor.getDayOfMonth());
+            case CRON -> {
+                LocalDateTime fire = cron.next(current.atTime(LocalTime.MAX));
+                yield fire != null ? fire.toLocalDate() : null;
+            }
+        };
+    }
+
+    private static LocalDate clampDay(YearMonth month, int day) {
+        return month.atDay(Math.min(day, month.lengthOfMonth()));
+    }
+
+    private static boolean isAfterEnd(RecurringTransaction r, LocalDate date) {
+        return r.getEndDate() != null && date.isAfter(r.getEndDate());
+    }
+}
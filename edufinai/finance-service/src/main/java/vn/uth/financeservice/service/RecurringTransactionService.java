@@ -0,0 +1,262 @@
+package vn.uth.financeservice.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.dto.RecurringTransactionRequestDto;
+import vn.uth.financeservice.entity.Category;
+import vn.uth.financeservice.entity.RecurrenceFrequency;
+import vn.uth.financeservice.entity.RecurringTransaction;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.CategoryRepository;
+import vn.uth.financeservice.repository.RecurringTransactionRepository;
+import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.repository.projection.OccurrenceRefView;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Giao dịch định kỳ: quản lý template và job sinh transaction cho các lần đến hạn.
+ * - Job quét template theo chunk (keyset, không load hết vào bộ nhớ), mỗi chunk 1 DB transaction:
+ *   khóa template, INSERT transaction theo JDBC batch, cập nhật ledger / rollup của từng user, đẩy nextRunDate
+ * - Idempotent theo (template, ngày): ngày đã có transaction (kể cả đã bị user xóa) được bỏ qua,
+ *   unique index (recurring_id, occurrence_date) chặn trùng ở mức DB
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringTransactionService {
+
+    private static final int CHUNK_SIZE = 500;
+    // Template trễ nhiều lần (vd DAILY với startDate trong quá khứ) được sinh dần qua nhiều chunk
+    private static final int MAX_OCCURRENCES_PER_CHUNK = 31;
+    private static final LocalDate KEYSET_START = LocalDate.of(1000, 1, 1);
+    private static final UUID KEYSET_START_ID = new UUID(0L, 0L);
+
+    private final RecurringTransactionRepository recurringRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionAggregateService transactionAggregateService;
+    private final SummaryCache summaryCache;
+    private final DataVersionService dataVersionService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Tạo template; nếu lần đầu đã đến hạn (startDate <= hôm nay) thì sinh transaction ngay
+     */
+    @Transactional
+    public RecurringTransaction createRecurring(UUID userId, RecurringTransactionRequestDto request) {
+        TransactionType type;
+        RecurrenceFrequency frequency;
+        try {
+            type = TransactionType.valueOf(request.getType().toUpperCase(Locale.ROOT));
+            frequency = RecurrenceFrequency.valueOf(request.getFrequency().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type hoặc frequency không hợp lệ");
+        }
+        if (type != TransactionType.INCOME && type != TransactionType.EXPENSE) {
+            throw new IllegalArgumentException("type phải là INCOME hoặc EXPENSE");
+        }
+        if (request.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("amount phải lớn hơn 0");
+        }
+        int interval = request.getIntervalCount() != null ? request.getIntervalCount() : 1;
+        if (interval < 1) {
+            throw new IllegalArgumentException("intervalCount phải lớn hơn 0");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        RecurringTransaction r = new RecurringTransaction();
+        r.setRecurringId(UUID.randomUUID());
+        r.setUserId(userId);
+        r.setType(type);
+        r.setAmount(request.getAmount());
+        r.setName(request.getName());
+        r.setNote(request.getNote());
+        r.setFrequency(frequency);
+        r.setIntervalCount(interval);
+        r.setCronExpression(frequency == RecurrenceFrequency.CRON ? request.getCronExpression() : null);
+        r.setStartDate(request.getStartDate() != null ? request.getStartDate() : now.toLocalDate());
+        r.setEndDate(request.getEndDate());
+        r.setActive(true);
+        r.setCreatedAt(now);
+        r.setUpdatedAt(now);
+
+        if (request.getCategoryId() != null) {
+            Category category = categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new RuntimeException("Category not found"));
+            if (!category.getIsDefault() && !category.getUserId().equals(userId)) {
+                throw new RuntimeException("Forbidden");
+            }
+            r.setCategory(category);
+        }
+
+        LocalDate first = RecurrenceSchedule.first(r); // kiểm tra luôn cú pháp cron
+        if (first == null) {
+            throw new IllegalArgumentException("Lịch định kỳ không có lần nào trước endDate");
+        }
+        r.setNextRunDate(first);
+        entityManager.persist(r);
+
+        if (!first.isAfter(now.toLocalDate())) {
+            materialize(List.of(r), now.toLocalDate());
+        }
+        return r;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringTransaction> getUserRecurring(UUID userId) {
+        return recurringRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    /**
+     * Xóa template: transaction đã sinh vẫn giữ nguyên
+     */
+    @Transactional
+    public void deleteRecurring(UUID recurringId, UUID userId) {
+        RecurringTransaction r = recurringRepository.findById(recurringId)
+                .orElseThrow(() -> new RuntimeException("Recurring transaction not found"));
+        if (!r.getUserId().equals(userId)) {
+            throw new RuntimeException("Forbidden");
+        }
+        recurringRepository.delete(r);
+    }
+
+    /**
+     * Job hằng đêm: sinh transaction cho mọi template đến hạn (nextRunDate <= hôm nay) của tất cả user.
+     * Chunk lỗi được log và bỏ qua (rollback, không đẩy nextRunDate), lần chạy sau sẽ thử lại.
+     *
+     * @return số transaction đã sinh
+     */
+    @Scheduled(cron = "${app.recurring.materialize-cron:0 5 0 * * *}", zone = "Asia/Ho_Chi_Minh")
+    public int materializeDue() {
+        LocalDate today = LocalDate.now();
+        ChunkPosition position = new ChunkPosition(KEYSET_START, KEYSET_START_ID);
+        int created = 0;
+        int templates = 0;
+        int failedChunks = 0;
+        int found;
+        do {
+            ChunkPosition after = position;
+            // Vị trí keyset lấy theo next_run_date lúc đọc, trước khi bị đẩy lên:
+            // template còn lần trễ chưa sinh sẽ được gặp lại ở chunk sau trong cùng lần chạy
+            ChunkPosition[] last = {null};
+            int[] size = {0};
+            try {
+                Integer n = transactionTemplate.execute(status -> {
+                    List<RecurringTransaction> chunk = recurringRepository.lockDueChunk(
+                            today, after.nextRunDate(), after.recurringId(), CHUNK_SIZE);
+                    size[0] = chunk.size();
+                    if (chunk.isEmpty()) {
+                        return 0;
+                    }
+                    RecurringTransaction tail = chunk.get(chunk.size() - 1);
+                    last[0] = new ChunkPosition(tail.getNextRunDate(), tail.getRecurringId());
+                    return materialize(chunk, today);
+                });
+                created += n != null ? n : 0;
+            } catch (RuntimeException e) {
+                failedChunks++;
+                log.warn("Recurring materialization chunk failed after {}: {}", after, e.getMessage(), e);
+            }
+            found = size[0];
+            templates += found;
+            if (last[0] == null) {
+                break;
+            }
+            position = last[0];
+        } while (found == CHUNK_SIZE);
+
+        log.info("Recurring materialization finished: templates={}, created={}, failedChunks={}",
+                templates, created, failedChunks);
+        return created;
+    }
+
+    /**
+     * Sinh transaction cho các template (đã khóa / vừa tạo) từ nextRunDate tới today, chạy trong DB transaction của caller.
+     * INSERT gửi theo JDBC batch (hibernate.jdbc.batch_size), ledger + rollup cập nhật 1 lần cho mỗi user.
+     *
+     * @return số transaction đã sinh
+     */
+    private int materialize(List<RecurringTransaction> templates, LocalDate today) {
+        LocalDate from = templates.stream().map(RecurringTransaction::getNextRunDate)
+                .min(Comparator.naturalOrder()).orElse(today);
+        Set<String> existing = new HashSet<>();
+        for (OccurrenceRefView o : transactionRepository.findOccurrences(
+                templates.stream().map(RecurringTransaction::getRecurringId).toList(), from)) {
+            existing.add(o.getRecurringId() + "|" + o.getOccurrenceDate());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, List<Transaction>> createdByUser = new LinkedHashMap<>();
+        for (RecurringTransaction r : templates) {
+            RecurrenceSchedule.Due due = RecurrenceSchedule.due(r, today, MAX_OCCURRENCES_PER_CHUNK);
+            for (LocalDate date : due.dates()) {
+                if (existing.contains(r.getRecurringId() + "|" + date)) {
+                    continue;
+                }
+                Transaction t = toTransaction(r, date, now);
+                entityManager.persist(t); // id gán sẵn nên persist không cần SELECT như save()/merge
+                createdByUser.computeIfAbsent(r.getUserId(), k -> new ArrayList<>()).add(t);
+            }
+            if (!due.dates().isEmpty()) {
+                r.setLastRunDate(due.dates().get(due.dates().size() - 1));
+            }
+            if (due.nextRunDate() == null) {
+                r.setActive(false); // qua endDate: giữ nextRunDate cũ, template không còn được quét
+            } else {
+                r.setNextRunDate(due.nextRunDate());
+            }
+            r.setUpdatedAt(now);
+        }
+        entityManager.flush();
+
+        int created = 0;
+        for (Map.Entry<UUID, List<Transaction>> entry : createdByUser.entrySet()) {
+            transactionAggregateService.onCreated(entry.getKey(), entry.getValue());
+            summaryCache.evictAfterCommit(entry.getKey());
+            created += entry.getValue().size();
+        }
+        dataVersionService.bumpAll(createdByUser.keySet());
+        entityManager.flush();
+        entityManager.clear();
+        return created;
+    }
+
+    private Transaction toTransaction(RecurringTransaction r, LocalDate date, LocalDateTime now) {
+        Transaction t = new Transaction();
+        t.setTransactionId(UUID.randomUUID());
+        t.setUserId(r.getUserId());
+        t.setType(r.getType());
+        t.setAmount(r.getAmount());
+        t.setName(r.getName());
+        t.setNote(r.getNote());
+        t.setCategory(r.getCategory());
+        t.setTransactionDate(date.atStartOfDay());
+        t.setRecurringId(r.getRecurringId());
+        t.setOccurrenceDate(date);
+        t.setStatus("ACTIVE");
+        t.setCreatedAt(now);
+        t.setUpdatedAt(now);
+        return t;
+    }
+
+    private record ChunkPosition(LocalDate nextRunDate, UUID recurringId) {
+    }
+}
@@ -0,0 +1,229 @@
+package vn.uth.financeservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.aggregation.RunningStats;
+import vn.uth.financeservice.entity.DailyCategoryTotal;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.SpendingStatsRepository;
+import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.repository.projection.ExpenseMomentsView;
+import vn.uth.financeservice.repository.projection.SpendingStatsView;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Phát hiện khoản chi bất thường theo thống kê chạy (Welford) của từng (user, category):
+ * - Mỗi create/delete cập nhật count / mean / m2 bằng 1 câu lệnh nguyên tử, không quét lại lịch sử
+ * - Khoản chi tạo lẻ được chấm điểm z = (amount - mean) / stddev so với thống kê trước nó,
+ *   z >= ngưỡng (và đủ số mẫu) thì lưu anomalyScore vào transaction
+ * - Import / giao dịch định kỳ chỉ cập nhật thống kê, không đánh dấu (dữ liệu cũ hoặc khoản chi đã biết trước)
+ * - Job định kỳ đối chiếu với tổng DECIMAL từ bảng transactions, lệch thì tính lại thống kê của user
+ */
+@Service
+@Slf4j
+public class SpendingAnomalyService {
+
+    private static final int RECONCILE_PAGE_SIZE = 500;
+    private static final double RELATIVE_TOLERANCE = 1e-6;
+    // seedCategory không cần bỏ qua transaction nào
+    private static final UUID NO_EXCLUDE = new UUID(0L, 0L);
+
+    private final SpendingStatsRepository statsRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double zThreshold;
+    private final long minSamples;
+
+    public SpendingAnomalyService(SpendingStatsRepository statsRepository,
+                                  TransactionRepository transactionRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.anomaly.z-threshold:3.0}") double zThreshold,
+                                  @Value("${app.anomaly.min-samples:10}") long minSamples) {
+        this.statsRepository = statsRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.zThreshold = zThreshold;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Chấm điểm khoản chi vừa tạo theo thống kê hiện có rồi cộng nó vào thống kê.
+     * Transaction (managed) được gán anomalyScore nếu bất thường, Hibernate ghi khi flush.
+     */
+    @Transactional
+    public void onCreated(Transaction t) {
+        if (!tracked(t)) {
+            return;
+        }
+        UUID categoryId = categoryKey(t);
+        double x = t.getAmount().doubleValue();
+        RunningStats before = load(t.getUserId(), categoryId, t.getTransactionId());
+        Double score = score(before, x);
+        if (score != null) {
+            t.setAnomalyScore(score);
+            log.debug("Spending anomaly: userId={}, transactionId={}, z={}", t.getUserId(), t.getTransactionId(), score);
+        }
+        statsRepository.merge(t.getUserId(), categoryId, 1, x, 0, LocalDateTime.now());
+    }
+
+    /**
+     * Cộng nhiều khoản chi (đã flush) của cùng 1 user: gom theo category, mỗi category 1 câu lệnh
+     */
+    @Transactional
+    public void onCreated(UUID userId, List<Transaction> transactions) {
+        Map<UUID, RunningStats> byCategory = new LinkedHashMap<>();
+        for (Transaction t : transactions) {
+            if (tracked(t)) {
+                byCategory.computeIfAbsent(categoryKey(t), k -> new RunningStats()).add(t.getAmount().doubleValue());
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        byCategory.forEach((categoryId, batch) -> {
+            if (statsRepository.findState(userId, categoryId).isEmpty()) {
+                // Lần đầu: tính từ lịch sử, batch đã flush nên đã nằm trong kết quả
+                statsRepository.seedCategory(userId, categoryId, NO_EXCLUDE, now);
+            } else {
+                statsRepository.merge(userId, categoryId, batch.count(), batch.mean(), batch.m2(), now);
+            }
+        });
+    }
+
+    /**
+     * Gỡ khoản chi ACTIVE vừa bị xóa khỏi thống kê
+     */
+    @Transactional
+    public void onDeleted(Transaction t) {
+        if (!tracked(t)) {
+            return;
+        }
+        UUID categoryId = categoryKey(t);
+        if (statsRepository.findState(t.getUserId(), categoryId).isEmpty()) {
+            statsRepository.seedCategory(t.getUserId(), categoryId, t.getTransactionId(), LocalDateTime.now());
+            return;
+        }
+        statsRepository.remove(t.getUserId(), categoryId, t.getAmount().doubleValue(), LocalDateTime.now());
+    }
+
+    /**
+     * Tính lại toàn bộ thống kê của user từ bảng transactions (sau thay đổi hàng loạt hoặc khi bị lệch)
+     */
+    @Transactional
+    public void rebuildUser(UUID userId) {
+        statsRepository.deleteByUserId(userId);
+        statsRepository.insertFromTransactions(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Job đối chiếu: so thống kê đang lưu với count / tổng / tổng bình phương (DECIMAL) của lịch sử,
+     * user bị lệch (sai số double tích lũy, cập nhật bị bỏ sót) được tính lại. Mỗi user 1 DB transaction.
+     */
+    @Scheduled(cron = "${app.anomaly.reconcile-cron:0 0 4 * * SUN}", zone = "Asia/Ho_Chi_Minh")
+    public void reconcileAll() {
+        int page = 0;
+        int checked = 0;
+        int drifted = 0;
+        List<UUID> userIds;
+        do {
+            userIds = transactionRepository.findDistinctUserIds(PageRequest.of(page++, RECONCILE_PAGE_SIZE));
+            for (UUID userId : userIds) {
+                Boolean rebuilt = transactionTemplate.execute(status -> {
+                    if (!drifted(userId)) {
+                        return false;
+                    }
+                    rebuildUser(userId);
+                    return true;
+                });
+                checked++;
+                if (Boolean.TRUE.equals(rebuilt)) {
+                    drifted++;
+                }
+            }
+        } while (userIds.size() == RECONCILE_PAGE_SIZE);
+
+        log.info("Spending stats reconcile finished: checked={}, rebuilt={}", checked, drifted);
+    }
+
+    private boolean drifted(UUID userId) {
+        Map<UUID, SpendingStatsView> stored = new HashMap<>();
+        for (SpendingStatsView s : statsRepository.findByUserId(userId)) {
+            stored.put(s.getCategoryId(), s);
+        }
+        for (ExpenseMomentsView m : statsRepository.sumExpenseMoments(userId, "ACTIVE", TransactionType.EXPENSE)) {
+            UUID categoryId = m.getCategoryId() != null ? m.getCategoryId() : DailyCategoryTotal.NO_CATEGORY;
+            SpendingStatsView s = stored.remove(categoryId);
+            if (s == null || !matches(s, fromMoments(m.getTxnCount(), m.getTotal(), m.getSumSquares()))) {
+                return true;
+            }
+        }
+        // Dòng còn lại chỉ hợp lệ khi rỗng (category không còn khoản chi ACTIVE)
+        return stored.values().stream().anyMatch(s -> s.getTxnCount() != 0);
+    }
+
+    /**
+     * z-score làm tròn 2 chữ số nếu x bất thường so với stats (đủ mẫu, stddev > 0, z >= ngưỡng), ngược lại null
+     */
+    Double score(RunningStats stats, double x) {
+        if (stats.count() < minSamples) {
+            return null;
+        }
+        double z = stats.zScore(x);
+        if (Double.isNaN(z) || z < zThreshold) {
+            return null;
+        }
+        return Math.round(z * 100) / 100.0;
+    }
+
+    /**
+     * Thống kê chính xác từ count, tổng và tổng bình phương: m2 = sumSq - sum^2 / n (tính bằng BigDecimal)
+     */
+    static RunningStats fromMoments(long count, BigDecimal total, BigDecimal sumSquares) {
+        if (count == 0) {
+            return new RunningStats();
+        }
+        BigDecimal n = BigDecimal.valueOf(count);
+        BigDecimal mean = total.divide(n, MathContext.DECIMAL64);
+        BigDecimal m2 = sumSquares.subtract(total.multiply(mean));
+        return new RunningStats(count, mean.doubleValue(), Math.max(0, m2.doubleValue()));
+    }
+
+    static boolean matches(SpendingStatsView stored, RunningStats exact) {
+        return stored.getTxnCount() == exact.count()
+                && close(stored.getMean(), exact.mean())
+                && close(stored.getM2(), exact.m2());
+    }
+
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) <= RELATIVE_TOLERANCE * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+    }
+
+    private RunningStats load(UUID userId, UUID categoryId, UUID excludeId) {
+        SpendingStatsView s = statsRepository.findState(userId, categoryId).orElse(null);
+        if (s == null) {
+            statsRepository.seedCategory(userId, categoryId, excludeId, LocalDateTime.now());
+            s = statsRepository.findState(userId, categoryId).orElse(null);
+        }
+        return s != null ? new RunningStats(s.getTxnCount(), s.getMean(), s.getM2()) : new RunningStats();
+    }
+
+    private static boolean tracked(Transaction t) {
+        return t.getType() == TransactionType.EXPENSE;
+    }
+
+    private static UUID categoryKey(Transaction t) {
+        return t.getCategory() != null ? t.getCategory().getCategoryId() : DailyCategoryTotal.NO_CATEGORY;
+    }
+}
@@ -0,0 +1,121 @@
+package vn.uth.financeservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache ngắn hạn (Caffeine, in-memory) cho các API summary.
+ * - Mỗi kết quả là 1 entry riêng, key = (user, generation, endpoint, period), TTL tính riêng từng entry
+ * - Mọi thay đổi dữ liệu của user tăng generation của user đó (sau khi DB transaction commit):
+ *   entry cũ không còn được đọc tới và tự hết hạn / bị đẩy ra theo TTL và kích thước
+ * - Lần load đang chạy dở khi bị invalidate ghi vào generation cũ, không làm "sống lại" dữ liệu cũ
+ */
+@Component
+public class SummaryCache {
+
+    private final Cache<EntryKey, Object> cache;
+    // Generation hiện tại của user; user chưa từng bị invalidate (hoặc đã lâu không dùng) = 0
+    private final Cache<UUID, Long> generations;
+    private final AtomicLong generationSequence = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Counter invalidations;
+
+    @Autowired
+    public SummaryCache(MeterRegistry meterRegistry,
+                        @Value("${app.summary-cache.ttl-seconds:60}") long ttlSeconds,
+                        @Value("${app.summary-cache.max-entries:50000}") long maxEntries) {
+        this(meterRegistry, ttlSeconds, maxEntries, Ticker.systemTicker());
+    }
+
+    SummaryCache(MeterRegistry meterRegistry, long ttlSeconds, long maxEntries, Ticker ticker) {
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        // Không giới hạn kích thước: generation chỉ được bỏ khi mọi entry của generation cũ chắc chắn đã hết hạn,
+        // nếu không user quay về generation 0 có thể đọc lại entry cũ chưa hết hạn
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds).multipliedBy(2))
+                .ticker(ticker)
+                .build();
+        this.invalidations = Counter.builder("summary.cache.invalidations")
+                .description("Số lần xóa cache summary của user do dữ liệu thay đổi")
+                .register(meterRegistry);
+
+        // cache.size, cache.evictions, ... (mức entry)
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "summary");
+    }
+
+    /**
+     * Lấy kết quả từ cache, nếu chưa có thì gọi loader và lưu lại
+     *
+     * @param endpoint tên API (month-optimized, 7days, daily, ...)
+     * @param period   kỳ của dữ liệu (2025-01, 2025-01-15, ...)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID userId, String endpoint, String period, Supplier<T> loader) {
+        // Đọc generation trước khi đọc DB: nếu bị invalidate trong lúc load thì kết quả chỉ nằm ở generation cũ
+        Long generation = generations.getIfPresent(userId);
+        EntryKey key = new EntryKey(userId, generation != null ? generation : 0L, endpoint, period);
+
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            count(endpoint, "hit");
+            return (T) cached;
+        }
+
+        count(endpoint, "miss");
+        T value = loader.get();
+        if (value != null) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Xóa cache của user. Nếu đang trong DB transaction thì chỉ xóa sau khi commit,
+     * tránh request khác đọc dữ liệu chưa commit rồi cache lại.
+     */
+    public void evictAfterCommit(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    public void evict(UUID userId) {
+        // Số tăng toàn cục: generation mới không bao giờ trùng generation cũ của user
+        generations.put(userId, generationSequence.incrementAndGet());
+        invalidations.increment();
+    }
+
+    private void count(String endpoint, String result) {
+        meterRegistry.counter("summary.cache.gets", "endpoint", endpoint, "result", result).increment();
+    }
+
+    private record EntryKey(UUID userId, long generation, String endpoint, String period) {
+    }
+}
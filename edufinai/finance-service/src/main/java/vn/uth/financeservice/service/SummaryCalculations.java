@@ -0,0 +1,650 @@
+package vn.uth.financeservice.service;
+
+import vn.uth.financeservice.aggregation.IntKeyedMoneySums;
+import vn.uth.financeservice.aggregation.MoneyAccumulator;
+import vn.uth.financeservice.dto.*;
+import vn.uth.financeservice.entity.Goal;
+import vn.uth.financeservice.entity.GoalStatus;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.projection.AnomalyView;
+import vn.uth.financeservice.repository.projection.CategoryTotalView;
+import vn.uth.financeservice.repository.projection.DailyReportRowView;
+import vn.uth.financeservice.repository.projection.DailyTotalView;
+import vn.uth.financeservice.repository.projection.TypeTotalView;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Phần tính toán thuần (không truy cập DB) của SummaryService:
+ * nhận dữ liệu đã đọc từ repository, trả về DTO response.
+ * Tách riêng để test / benchmark (src/jmh/java) không cần Spring hay database.
+ */
+public final class SummaryCalculations {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private SummaryCalculations() {
+    }
+
+    // ===== Month optimized =====
+
+    public static MonthOptimizedResponseDto buildMonthOptimized(YearMonth month,
+                                                                TypeTotals monthTotals,
+                                                                TypeTotals previousTotals,
+                                                                List<CategoryTotalView> categoryTotals,
+                                                                List<Goal> userGoals,
+                                                                LocalDate today) {
+        LocalDate startDate = month.atDay(1);
+        LocalDate endDate = month.atEndOfMonth();
+
+        // 1. Period
+        PeriodDto period = new PeriodDto(startDate, endDate);
+
+        // 2. Summary
+        BigDecimal totalIncome = monthTotals.income;
+        BigDecimal totalExpense = monthTotals.expense;
+        BigDecimal totalBalance = totalIncome.subtract(totalExpense);
+        double savingRate = savingRate(totalIncome, totalExpense);
+
+        long daysInMonth = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        BigDecimal averageDailyExpense = averagePerDay(totalExpense, daysInMonth);
+
+        MonthOptimizedResponseDto.SummaryDto summary = new MonthOptimizedResponseDto.SummaryDto(
+                totalIncome, totalExpense, totalBalance, savingRate, averageDailyExpense);
+
+        // 3 + 4. Income/Expense.topCategories
+        MonthOptimizedResponseDto.IncomeDto income = new MonthOptimizedResponseDto.IncomeDto(
+                toCategorySummaries(categoryTotals, TransactionType.INCOME, totalIncome));
+        MonthOptimizedResponseDto.ExpenseDto expense = new MonthOptimizedResponseDto.ExpenseDto(
+                toCategorySummaries(categoryTotals, TransactionType.EXPENSE, totalExpense));
+
+        // 5. Goals (risk: progress < 50% và còn < 30 ngày)
+        List<GoalSummaryDto> goals = userGoals.stream()
+                .filter(g -> g.getStatus() == GoalStatus.ACTIVE)
+                .map(goal -> {
+                    double prog = goalProgressPct(goal);
+                    long days = daysRemaining(goal, today);
+                    return new GoalSummaryDto(goal.getTitle(), prog, days, prog < 50.0 && days < 30);
+                })
+                .collect(Collectors.toList());
+
+        // 6. Trends (so với tháng trước)
+        TrendsDto trends = new TrendsDto(
+                changePercent(totalExpense, previousTotals.expense),
+                changePercent(totalIncome, previousTotals.income));
+
+        MonthOptimizedResponseDto response = new MonthOptimizedResponseDto();
+        response.setPeriod(period);
+        response.setSummary(summary);
+        response.setIncome(income);
+        response.setExpense(expense);
+        response.setGoals(goals);
+        response.setTrends(trends);
+        return response;
+    }
+
+    // ===== 7 days =====
+
+    public static SevenDaysResponseDto buildSevenDays(LocalDate endDate,
+                                                      TypeTotals periodTotals,
+                                                      BigDecimal currentBalance,
+                                                      List<CategoryTotalView> categoryTotals,
+                                                      List<RangeSummaryResponseDto.BucketDto> dailySeries,
+                                                      List<Goal> userGoals) {
+        int days = 7;
+        LocalDate startDate = endDate.minusDays(days - 1);
+
+        // 1. Period
+        SevenDaysResponseDto.SevenDaysPeriodDto period =
+            new SevenDaysResponseDto.SevenDaysPeriodDto(startDate, endDate, days);
+
+        // 2 + 3. Summary (totalBalance = số dư thực tế hiện tại)
+        BigDecimal totalIncome = periodTotals.income;
+        BigDecimal totalExpense = periodTotals.expense;
+
+        SevenDaysResponseDto.SevenDaysSummaryDto summary =
+            new SevenDaysResponseDto.SevenDaysSummaryDto(
+                totalIncome, totalExpense, currentBalance, savingRate(totalIncome, totalExpense),
+                averagePerDay(totalExpense, days), averagePerDay(totalIncome, days));
+
+        // 4. Expense.topCategories
+        List<CategorySummaryDto> expenseTopCategories =
+                toCategorySummaries(categoryTotals, TransactionType.EXPENSE, totalExpense);
+
+        // 5. Expense.dailyBreakdown (chỉ ngày có chi tiêu, mới nhất trước)
+        List<SevenDaysResponseDto.DailyBreakdownDto> dailyBreakdown = dailySeries.stream()
+                .filter(bucket -> bucket.getExpenseCount() > 0)
+                .map(bucket -> new SevenDaysResponseDto.DailyBreakdownDto(
+                        bucket.getStart(),
+                        bucket.getExpense(),
+                        bucket.getExpenseCount()))
+                .sorted((a, b) -> b.getDate().compareTo(a.getDate()))
+                .collect(Collectors.toList());
+
+        SevenDaysResponseDto.SevenDaysExpenseDto expense =
+            new SevenDaysResponseDto.SevenDaysExpenseDto(expenseTopCategories, dailyBreakdown);
+
+        // 6. Income.topSources
+        List<SevenDaysResponseDto.IncomeSummaryDto> incomeTopSources =
+                toCategorySummaries(categoryTotals, TransactionType.INCOME, totalIncome).stream()
+                        .map(c -> new SevenDaysResponseDto.IncomeSummaryDto(
+                                c.getCat(), c.getAmt(), c.getCnt(), c.getPct()))
+                        .collect(Collectors.toList());
+
+        SevenDaysResponseDto.SevenDaysIncomeDto income =
+            new SevenDaysResponseDto.SevenDaysIncomeDto(incomeTopSources);
+
+        // 7. Goals (chỉ ACTIVE)
+        List<SevenDaysResponseDto.SevenDaysGoalDto> goals = userGoals.stream()
+                .filter(g -> g.getStatus() == GoalStatus.ACTIVE)
+                .map(goal -> new SevenDaysResponseDto.SevenDaysGoalDto(
+                        goal.getTitle(), goalProgressPct(goal), daysRemaining(goal, endDate)))
+                .collect(Collectors.toList());
+
+        SevenDaysResponseDto response = new SevenDaysResponseDto();
+        response.setPeriod(period);
+        response.setSummary(summary);
+        response.setExpense(expense);
+        response.setIncome(income);
+        response.setGoals(goals);
+        return response;
+    }
+
+    // ===== Range =====
+
+    /**
+     * Summary cho khoảng ngày tùy ý từ dữ liệu đã gom trong DB (tổng theo type, theo category, chuỗi bucket)
+     *
+     * @param previous       kỳ so sánh, null nếu không so sánh
+     * @param previousTotals tổng của kỳ so sánh, null nếu không so sánh
+     */
+    public static RangeSummaryResponseDto buildRange(SummaryRange range,
+                                                     SummaryGranularity granularity,
+                                                     TypeTotals totals,
+                                                     List<CategoryTotalView> categoryTotals,
+                                                     List<RangeSummaryResponseDto.BucketDto> series,
+                                                     SummaryRange previous,
+                                                     TypeTotals previousTotals) {
+        RangeSummaryResponseDto response = new RangeSummaryResponseDto();
+        response.setPeriod(new PeriodDto(range.from(), range.to()));
+        response.setGranularity(granularity.name().toLowerCase(Locale.ROOT));
+        response.setSummary(toTotals(totals, range.days()));
+        response.setIncomeCategories(toCategorySummaries(categoryTotals, TransactionType.INCOME, totals.income));
+        response.setExpenseCategories(toCategorySummaries(categoryTotals, TransactionType.EXPENSE, totals.expense));
+        response.setSeries(series);
+        if (previous != null && previousTotals != null) {
+            response.setComparison(new RangeSummaryResponseDto.ComparisonDto(
+                    new PeriodDto(previous.from(), previous.to()),
+                    toTotals(previousTotals, previous.days()),
+                    changePercent(totals.income, previousTotals.income),
+                    changePercent(totals.expense, previousTotals.expense)));
+        }
+        return response;
+    }
+
+    /**
+     * Chia các dòng tổng theo (kỳ, type) vào bucket của khoảng: mọi bucket đều có mặt (bucket trống = 0),
+     * bucket đầu / cuối bị cắt theo from / to. Bộ nhớ tỷ lệ với số bucket, không phụ thuộc số transaction.
+     */
+    public static List<RangeSummaryResponseDto.BucketDto> buildSeries(SummaryRange range,
+                                                                      SummaryGranularity granularity,
+                                                                      Iterable<PeriodTotal> rows) {
+        Map<LocalDate, BucketSums> buckets = new LinkedHashMap<>();
+        for (LocalDate start = range.from(); !start.isAfter(range.to());
+             start = granularity.nextBucketStart(start)) {
+            LocalDate end = granularity.nextBucketStart(start).minusDays(1);
+            buckets.put(start, new BucketSums(start, end.isAfter(range.to()) ? range.to() : end));
+        }
+
+        for (PeriodTotal row : rows) {
+            LocalDate start = granularity.bucketStart(row.day());
+            BucketSums bucket = buckets.get(start.isBefore(range.from()) ? range.from() : start);
+            if (bucket == null || row.total() == null) {
+                continue;
+            }
+            if (row.type() == TransactionType.INCOME) {
+                bucket.income.add(row.total());
+                bucket.incomeCount += row.count();
+            } else if (row.type() == TransactionType.EXPENSE) {
+                bucket.expense.add(row.total());
+                bucket.expenseCount += row.count();
+            }
+        }
+
+        List<RangeSummaryResponseDto.BucketDto> series = new ArrayList<>(buckets.size());
+        for (BucketSums bucket : buckets.values()) {
+            series.add(new RangeSummaryResponseDto.BucketDto(bucket.start, bucket.end,
+                    bucket.income.total(), bucket.expense.total(), bucket.incomeCount, bucket.expenseCount));
+        }
+        return series;
+    }
+
+    private static RangeSummaryResponseDto.TotalsDto toTotals(TypeTotals totals, long days) {
+        return new RangeSummaryResponseDto.TotalsDto(
+                totals.income,
+                totals.expense,
+                totals.income.subtract(totals.expense),
+                totals.incomeCount,
+                totals.expenseCount,
+                savingRate(totals.income, totals.expense),
+                averagePerDay(totals.expense, days));
+    }
+
+    // ===== Heatmap =====
+
+    /**
+     * Mảng tổng theo ngày của khoảng: 1 phần tử / ngày, ngày không có dòng = 0
+     *
+     * @param rows tổng theo ngày đã GROUP BY trong DB (mỗi ngày tối đa 1 dòng)
+     */
+    public static HeatmapResponseDto buildHeatmap(SummaryRange range,
+                                                  TransactionType type,
+                                                  Iterable<? extends DailyTotalView> rows) {
+        int firstDay = IntKeyedMoneySums.dayKey(range.from());
+        double[] values = new double[(int) range.days()];
+        MoneyAccumulator total = new MoneyAccumulator();
+        double max = 0;
+        for (DailyTotalView row : rows) {
+            int index = IntKeyedMoneySums.dayKey(row.getTxnDay()) - firstDay;
+            if (index < 0 || index >= values.length || row.getTotal() == null) {
+                continue;
+            }
+            total.add(row.getTotal());
+            values[index] += row.getTotal().doubleValue();
+            max = Math.max(max, values[index]);
+        }
+        return new HeatmapResponseDto(range.from(), range.to(), type.name().toLowerCase(Locale.ROOT),
+                total.total(), max, values);
+    }
+
+    // ===== Daily report =====
+
+    /**
+     * @param rows transactions ACTIVE từ (today - 6) đến hết hôm nay, mỗi dòng được duyệt đúng 1 lần
+     */
+    public static DailyReportResponseDto buildDailyReport(LocalDate today,
+                                                          Iterable<? extends DailyReportRowView> rows,
+                                                          List<Goal> allGoals) {
+        LocalDate yesterday = today.minusDays(1);
+
+        // 1. Chia bucket: hôm nay / hôm qua / 7 ngày, category hôm nay, chi tiêu lớn nhất, tiền nạp goal
+        DailyBuckets buckets = new DailyBuckets(today, yesterday);
+        for (DailyReportRowView row : rows) {
+            buckets.add(row);
+        }
+
+        // 2. Summary
+        BigDecimal totalIncome = buckets.today.income.total();
+        BigDecimal totalExpense = buckets.today.expense.total();
+        BigDecimal netAmount = totalIncome.subtract(totalExpense);
+        int transactionCount = (int) (buckets.today.income.count() + buckets.today.expense.count());
+
+        BigDecimal avgTransactionAmount = BigDecimal.ZERO;
+        if (transactionCount > 0) {
+            avgTransactionAmount = totalIncome.add(totalExpense).divide(
+                    BigDecimal.valueOf(transactionCount), 2, RoundingMode.HALF_UP);
+        }
+
+        DailyReportResponseDto.DailySummaryDto summary =
+            new DailyReportResponseDto.DailySummaryDto(
+                totalIncome, totalExpense, netAmount, transactionCount, avgTransactionAmount);
+
+        // 3. Expense breakdown: theo category (giảm dần) + giao dịch lớn nhất + khoản chi bất thường
+        List<CategorySummaryDto> byCategory = buckets.todayExpenseByCategory.entrySet().stream()
+                .map(e -> new CategorySummaryDto(
+                        e.getKey(),
+                        e.getValue().total(),
+                        e.getValue().count(),
+                        percentOf(e.getValue().total(), totalExpense)))
+                .sorted((a, b) -> b.getAmt().compareTo(a.getAmt()))
+                .collect(Collectors.toList());
+
+        DailyReportRowView largest = buckets.largestExpenseToday;
+        DailyReportResponseDto.LargestTransactionDto largestTransaction = largest == null ? null
+                : new DailyReportResponseDto.LargestTransactionDto(
+                        largest.getName(),
+                        largest.getAmount(),
+                        largest.getCategoryName(),
+                        largest.getTransactionDate()
+                );
+
+        DailyReportResponseDto.ExpenseBreakdownDto expenseBreakdown =
+            new DailyReportResponseDto.ExpenseBreakdownDto(byCategory, largestTransaction);
+        expenseBreakdown.setAnomalies(buckets.anomaliesToday.stream()
+                .sorted(Comparator.comparing(DailyReportRowView::getAnomalyScore).reversed())
+                .map(row -> new DailyReportResponseDto.AnomalyDto(
+                        row.getName(),
+                        row.getAmount(),
+                        row.getCategoryName(),
+                        row.getTransactionDate(),
+                        row.getAnomalyScore()))
+                .collect(Collectors.toList()));
+
+        // 4. Comparison: hôm qua, % thay đổi, trung bình 7 ngày
+        BigDecimal yesterdayTotalIncome = buckets.yesterday.income.total();
+        BigDecimal yesterdayTotalExpense = buckets.yesterday.expense.total();
+
+        DailyReportResponseDto.PreviousDayDto previousDay =
+            new DailyReportResponseDto.PreviousDayDto(yesterday, yesterdayTotalExpense, yesterdayTotalIncome);
+
+        DailyReportResponseDto.Avg7DaysDto avg7Days = new DailyReportResponseDto.Avg7DaysDto(
+                averagePerDay(buckets.last7Days.expense.total(), 7),
+                averagePerDay(buckets.last7Days.income.total(), 7));
+
+        DailyReportResponseDto.ComparisonDto comparison = new DailyReportResponseDto.ComparisonDto(
+                previousDay,
+                changePercent(totalExpense, yesterdayTotalExpense),
+                changePercent(totalIncome, yesterdayTotalIncome),
+                avg7Days);
+
+        // 5. Goals
+        List<Goal> activeGoals = allGoals.stream()
+                .filter(g -> g.getStatus() == GoalStatus.ACTIVE)
+                .collect(Collectors.toList());
+
+        List<DailyReportResponseDto.GoalProgressDto> goalsProgress = activeGoals.stream()
+                .map(goal -> {
+                    double progressPct = goalProgressPct(goal);
+                    long daysRemaining = daysRemaining(goal, today);
+                    return new DailyReportResponseDto.GoalProgressDto(
+                            goal.getTitle(), progressPct, daysRemaining, progressPct < 50.0 && daysRemaining < 30);
+                })
+                .collect(Collectors.toList());
+
+        DailyReportResponseDto.GoalsDto goals = new DailyReportResponseDto.GoalsDto(
+                activeGoals.size(),
+                buckets.today.goalDeposit.total(),
+                buckets.last7Days.goalDeposit.total(),
+                goalsProgress);
+
+        DailyReportResponseDto response = new DailyReportResponseDto();
+        response.setReportDate(today);
+        response.setSummary(summary);
+        response.setExpenseBreakdown(expenseBreakdown);
+        response.setComparison(comparison);
+        response.setGoals(goals);
+        return response;
+    }
+
+    // ===== AI digest =====
+
+    /**
+     * Bản rút gọn của month-optimized cho prompt AI: chỉ top N category mỗi type, goal ACTIVE gần hạn nhất,
+     * khoản chi bất thường (đã giới hạn số lượng khi query), số tiền làm tròn tới đồng, phần trăm 1 chữ số thập phân
+     */
+    public static AiDigestDto buildAiDigest(YearMonth month,
+                                            TypeTotals monthTotals,
+                                            TypeTotals previousTotals,
+                                            List<CategoryTotalView> categoryTotals,
+                                            List<Goal> userGoals,
+                                            List<? extends AnomalyView> anomalies,
+                                            LocalDate today,
+                                            int topCategories,
+                                            int maxGoals) {
+        BigDecimal totalIncome = monthTotals.income;
+        BigDecimal totalExpense = monthTotals.expense;
+
+        // Chi trung bình theo số ngày đã qua của tháng (tháng cũ thì cả tháng)
+        LocalDate lastDay = month.equals(YearMonth.from(today)) ? today : month.atEndOfMonth();
+        long daysElapsed = ChronoUnit.DAYS.between(month.atDay(1), lastDay) + 1;
+
+        AiDigestDto digest = new AiDigestDto();
+        digest.setMo(month.toString());
+        digest.setInc(roundMoney(totalIncome));
+        digest.setExp(roundMoney(totalExpense));
+        digest.setBal(roundMoney(totalIncome.subtract(totalExpense)));
+        digest.setSr(round1(savingRate(totalIncome, totalExpense)));
+        digest.setAvgExp(roundMoney(averagePerDay(totalExpense, daysElapsed)));
+        digest.setIncTr(round1(changePercent(totalIncome, previousTotals.income)));
+        digest.setExpTr(round1(changePercent(totalExpense, previousTotals.expense)));
+        digest.setTopExp(topCategories(categoryTotals, TransactionType.EXPENSE, totalExpense, topCategories));
+        digest.setTopInc(topCategories(categoryTotals, TransactionType.INCOME, totalIncome, topCategories));
+        digest.setGoals(userGoals.stream()
+                .filter(g -> g.getStatus() == GoalStatus.ACTIVE && g.getEndAt() != null)
+                .sorted(Comparator.comparing(Goal::getEndAt))
+                .limit(maxGoals)
+                .map(goal -> {
+                    double prog = goalProgressPct(goal);
+                    long days = daysRemaining(goal, today);
+                    return new AiDigestDto.GoalDigest(goal.getTitle(), round1(prog), days,
+                            prog < 50.0 && days < 30 ? Boolean.TRUE : null);
+                })
+                .collect(Collectors.toList()));
+        digest.setAnom(anomalies.stream()
+                .map(a -> new AiDigestDto.Anom(a.getCategoryName(), roundMoney(a.getAmount()),
+                        round1(a.getAnomalyScore()), a.getTransactionDate().getDayOfMonth()))
+                .collect(Collectors.toList()));
+        return digest;
+    }
+
+    private static List<AiDigestDto.Cat> topCategories(List<CategoryTotalView> rows,
+                                                       TransactionType type,
+                                                       BigDecimal typeTotal,
+                                                       int limit) {
+        return rows.stream()
+                .filter(row -> row.getTxnType() == type && row.getTotal() != null)
+                .sorted((a, b) -> b.getTotal().compareTo(a.getTotal()))
+                .limit(limit)
+                .map(row -> new AiDigestDto.Cat(
+                        row.getCategoryName(), roundMoney(row.getTotal()), row.getTxnCount(),
+                        round1(percentOf(row.getTotal(), typeTotal))))
+                .collect(Collectors.toList());
+    }
+
+    private static long roundMoney(BigDecimal amount) {
+        return amount.setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    // ===== Các phép tính dùng chung =====
+
+    /**
+     * Chuyển các dòng GROUP BY category của một type thành CategorySummaryDto
+     * (tính phần trăm trên tổng của type, sắp xếp theo số tiền giảm dần)
+     */
+    public static List<CategorySummaryDto> toCategorySummaries(List<CategoryTotalView> rows,
+                                                               TransactionType type,
+                                                               BigDecimal typeTotal) {
+        return rows.stream()
+                .filter(row -> row.getTxnType() == type)
+                .map(row -> new CategorySummaryDto(
+                        row.getCategoryName(), row.getTotal(), row.getTxnCount(),
+                        percentOf(row.getTotal(), typeTotal)))
+                .sorted((a, b) -> b.getAmt().compareTo(a.getAmt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Phần trăm của amount trên total (0 nếu total = 0)
+     */
+    public static Double percentOf(BigDecimal amount, BigDecimal total) {
+        return total.compareTo(BigDecimal.ZERO) > 0
+                ? amount.divide(total, 4, RoundingMode.HALF_UP).multiply(HUNDRED).doubleValue()
+                : 0.0;
+    }
+
+    /**
+     * % thay đổi so với kỳ trước; kỳ trước = 0 mà kỳ này > 0 thì coi là tăng 100%
+     */
+    public static double changePercent(BigDecimal current, BigDecimal previous) {
+        if (previous.compareTo(BigDecimal.ZERO) > 0) {
+            return current.subtract(previous).divide(previous, 4, RoundingMode.HALF_UP)
+                    .multiply(HUNDRED).doubleValue();
+        }
+        return current.compareTo(BigDecimal.ZERO) > 0 ? 100.0 : 0.0;
+    }
+
+    /**
+     * Tỷ lệ tiết kiệm = (thu - chi) / thu * 100 (0 nếu không có thu)
+     */
+    public static double savingRate(BigDecimal income, BigDecimal expense) {
+        if (income.compareTo(BigDecimal.ZERO) > 0) {
+            return income.subtract(expense).divide(income, 4, RoundingMode.HALF_UP)
+                    .multiply(HUNDRED).doubleValue();
+        }
+        return 0.0;
+    }
+
+    public static BigDecimal averagePerDay(BigDecimal total, long days) {
+        return days > 0 ? total.divide(BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    public static double goalProgressPct(Goal goal) {
+        BigDecimal saved = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
+        BigDecimal target = goal.getAmount() != null ? goal.getAmount() : BigDecimal.ONE;
+        return saved.divide(target, 4, RoundingMode.HALF_UP).multiply(HUNDRED).doubleValue();
+    }
+
+    public static long daysRemaining(Goal goal, LocalDate today) {
+        long days = ChronoUnit.DAYS.between(today, goal.getEndAt().toLocalDate());
+        return Math.max(days, 0);
+    }
+
+    /**
+     * Tổng theo type của một khoảng thời gian (null từ SUM → BigDecimal.ZERO)
+     */
+    public static final class TypeTotals {
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        BigDecimal goalDeposit = BigDecimal.ZERO; // INCOME có gắn goal
+        long incomeCount = 0;
+        long expenseCount = 0;
+
+        public static TypeTotals of(List<? extends TypeTotalView> rows) {
+            TypeTotals totals = new TypeTotals();
+            for (TypeTotalView row : rows) {
+                BigDecimal total = row.getTotal() != null ? row.getTotal() : BigDecimal.ZERO;
+                long count = row.getTxnCount() != null ? row.getTxnCount() : 0L;
+                if (row.getTxnType() == TransactionType.INCOME) {
+                    totals.income = total;
+                    totals.incomeCount = count;
+                    totals.goalDeposit = row.getGoalTotal() != null ? row.getGoalTotal() : BigDecimal.ZERO;
+                } else if (row.getTxnType() == TransactionType.EXPENSE) {
+                    totals.expense = total;
+                    totals.expenseCount = count;
+                }
+            }
+            return totals;
+        }
+
+        public BigDecimal getIncome() {
+            return income;
+        }
+
+        public BigDecimal getExpense() {
+            return expense;
+        }
+
+        public BigDecimal getGoalDeposit() {
+            return goalDeposit;
+        }
+
+        public long getIncomeCount() {
+            return incomeCount;
+        }
+
+        public long getExpenseCount() {
+            return expenseCount;
+        }
+    }
+
+    /**
+     * 1 dòng tổng đã gom trong DB: day = ngày (gom theo ngày) hoặc ngày đầu tháng (gom theo tháng)
+     */
+    public record PeriodTotal(LocalDate day, TransactionType type, BigDecimal total, long count) {
+    }
+
+    // Tổng của 1 bucket trong chuỗi thời gian
+    private static final class BucketSums {
+        final LocalDate start;
+        final LocalDate end;
+        final MoneyAccumulator income = new MoneyAccumulator();
+        final MoneyAccumulator expense = new MoneyAccumulator();
+        long incomeCount;
+        long expenseCount;
+
+        BucketSums(LocalDate start, LocalDate end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    // Cộng dồn tiền theo type (đơn vị nhỏ nhất, không tạo BigDecimal cho mỗi dòng)
+    private static final class TypeSums {
+        final MoneyAccumulator income = new MoneyAccumulator();
+        final MoneyAccumulator expense = new MoneyAccumulator();
+        final MoneyAccumulator goalDeposit = new MoneyAccumulator(); // INCOME có gắn goal
+    }
+
+    /**
+     * Bộ chia bucket cho Daily Report: mỗi transaction trong cửa sổ 7 ngày được duyệt đúng 1 lần
+     * và cộng vào tất cả bucket mà nó thuộc về
+     */
+    private static final class DailyBuckets {
+        private final LocalDate todayDate;
+        private final LocalDate yesterdayDate;
+
+        final TypeSums today = new TypeSums();
+        final TypeSums yesterday = new TypeSums();
+        final TypeSums last7Days = new TypeSums();
+        final Map<String, MoneyAccumulator> todayExpenseByCategory = new HashMap<>();
+        DailyReportRowView largestExpenseToday;
+        final List<DailyReportRowView> anomaliesToday = new ArrayList<>();
+
+        DailyBuckets(LocalDate todayDate, LocalDate yesterdayDate) {
+            this.todayDate = todayDate;
+            this.yesterdayDate = yesterdayDate;
+        }
+
+        void add(DailyReportRowView row) {
+            LocalDate day = row.getTransactionDate().toLocalDate();
+            addTo(last7Days, row);
+            if (day.equals(yesterdayDate)) {
+                addTo(yesterday, row);
+            } else if (day.equals(todayDate)) {
+                addTo(today, row);
+                if (row.getTxnType() == TransactionType.EXPENSE) {
+                    // Transaction không có category không nằm trong breakdown
+                    if (row.getCategoryName() != null) {
+                        todayExpenseByCategory
+                                .computeIfAbsent(row.getCategoryName(), k -> new MoneyAccumulator())
+                                .add(row.getAmount());
+                    }
+                    if (largestExpenseToday == null
+                            || row.getAmount().compareTo(largestExpenseToday.getAmount()) > 0) {
+                        largestExpenseToday = row;
+                    }
+                    if (row.getAnomalyScore() != null) {
+                        anomaliesToday.add(row);
+                    }
+                }
+            }
+        }
+
+        private static void addTo(TypeSums sums, DailyReportRowView row) {
+            if (row.getTxnType() == TransactionType.INCOME) {
+                sums.income.add(row.getAmount());
+                if (Boolean.TRUE.equals(row.getGoalLinked())) {
+                    sums.goalDeposit.add(row.getAmount());
+                }
+            } else if (row.getTxnType() == TransactionType.EXPENSE) {
+                sums.expense.add(row.getAmount());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package vn.uth.financeservice.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Độ chia bucket của chuỗi thời gian trong summary theo khoảng ngày. Tuần bắt đầu từ thứ Hai.
+ */
+public enum SummaryGranularity {
+    DAY, WEEK, MONTH;
+
+    public static SummaryGranularity parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("granularity must be day, week or month");
+        }
+    }
+
+    /**
+     * Ngày bắt đầu tự nhiên của bucket chứa date (chưa cắt theo đầu khoảng)
+     */
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate nextBucketStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date.plusDays(1);
+            case WEEK -> bucketStart(date).plusWeeks(1);
+            case MONTH -> bucketStart(date).plusMonths(1);
+        };
+    }
+
+    public long bucketCount(SummaryRange range) {
+        return switch (this) {
+            case DAY -> range.days();
+            case WEEK -> ChronoUnit.WEEKS.between(bucketStart(range.from()), bucketStart(range.to())) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(YearMonth.from(range.from()), YearMonth.from(range.to())) + 1;
+        };
+    }
+}
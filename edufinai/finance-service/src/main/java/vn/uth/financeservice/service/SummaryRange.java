@@ -0,0 +1,37 @@
+package vn.uth.financeservice.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Khoảng ngày [from, to] (gồm cả 2 đầu) của summary
+ */
+public record SummaryRange(LocalDate from, LocalDate to) {
+
+    public SummaryRange {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("from must be on or before to");
+        }
+    }
+
+    public static SummaryRange month(YearMonth month) {
+        return new SummaryRange(month.atDay(1), month.atEndOfMonth());
+    }
+
+    public long days() {
+        return ChronoUnit.DAYS.between(from, to) + 1;
+    }
+
+    /**
+     * Kỳ liền trước có cùng độ dài: khoảng trọn tháng thì lùi đúng số tháng (tháng 3 → tháng 2),
+     * còn lại lùi đúng số ngày
+     */
+    public SummaryRange previous() {
+        if (from.getDayOfMonth() == 1 && to.equals(YearMonth.from(to).atEndOfMonth())) {
+            long months = ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(to)) + 1;
+            return new SummaryRange(from.minusMonths(months), from.minusDays(1));
+        }
+        return new SummaryRange(from.minusDays(days()), from.minusDays(1));
+    }
+}
@@ -1,252 +1,207 @@
 package vn.uth.financeservice.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vn.uth.financeservice.dto.*;
 import vn.uth.financeservice.entity.*;
 import vn.uth.financeservice.repository.*;
+import vn.uth.financeservice.repository.projection.AnomalyView;
+import vn.uth.financeservice.repository.projection.CategoryTotalView;
+import vn.uth.financeservice.repository.projection.DailyReportRowView;
+import vn.uth.financeservice.repository.projection.DailyTotalView;
+import vn.uth.financeservice.service.SummaryCalculations.PeriodTotal;
+import vn.uth.financeservice.service.SummaryCalculations.TypeTotals;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class SummaryService {
 
+    private static final int AI_DIGEST_TOP_CATEGORIES = 5;
+    private static final int AI_DIGEST_MAX_GOALS = 5;
+    private static final int AI_DIGEST_MAX_ANOMALIES = 5;
+    private static final int MAX_RANGE_YEARS = 10;
+    // Giới hạn số điểm của chuỗi (vd theo ngày tối đa ~3 năm), khoảng dài hơn dùng week / month
+    private static final int MAX_SERIES_BUCKETS = 1100;
+
     private final TransactionRepository transactionRepository;
     private final GoalRepository goalRepository;
     private final BalanceService balanceService;
+    private final DailyCategoryTotalRepository dailyRollupRepository;
+    private final DailyRollupService dailyRollupService;
+    private final ParallelReads parallelReads;
 
-    @Transactional(readOnly = true)
+    /**
+     * API: GET /api/summary/month
+     * Tổng thu / chi tháng hiện tại (rollup) và số dư = toàn bộ thu - chi (đọc từ balance ledger)
+     */
     public SummaryResponseDto getMonthlySummary(UUID userId) {
-        // Lấy tháng hiện tại
-        YearMonth currentMonth = YearMonth.now();
-        LocalDateTime startOfMonth = currentMonth.atDay(1).atStartOfDay();
-        LocalDateTime endOfMonth = currentMonth.atEndOfMonth().atTime(23, 59, 59);
-
-        // Tính tổng thu nhập trong tháng (chỉ ACTIVE)
-        BigDecimal monthlyIncome = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.INCOME, "ACTIVE", startOfMonth, endOfMonth)
-                .stream()
-                .map(t -> t.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Tính tổng chi tiêu trong tháng (chỉ ACTIVE)
-        BigDecimal monthlyExpense = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.EXPENSE, "ACTIVE", startOfMonth, endOfMonth)
-                .stream()
-                .map(t -> t.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Số dư hiện tại = tổng thu nhập - tổng chi tiêu (tất cả thời gian, chỉ ACTIVE)
-        BigDecimal totalIncome = transactionRepository
-                .findByUserIdAndTypeAndStatus(userId, TransactionType.INCOME, "ACTIVE")
-                .stream()
-                .map(t -> t.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = transactionRepository
-                .findByUserIdAndTypeAndStatus(userId, TransactionType.EXPENSE, "ACTIVE")
-                .stream()
-                .map(t -> t.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal currentBalance = totalIncome.subtract(totalExpense);
-
-        // Tỷ lệ tiết kiệm = (số dư / thu nhập) * 100
-        double savingRate = 0.0;
-        if (monthlyIncome.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal balance = monthlyIncome.subtract(monthlyExpense);
-            savingRate = balance.divide(monthlyIncome, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .doubleValue();
+        SummaryRange range = SummaryRange.month(YearMonth.now());
+        dailyRollupService.ensureBackfilled(userId);
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            RangeForks month = forkRange(scope, userId, range, null, null);
+            Supplier<BalanceResponseDto> balance = scope.fork(() -> balanceService.getCurrentBalance(userId));
+            scope.join();
+
+            TypeTotals monthTotals = month.join().totals();
+            BalanceResponseDto ledger = balance.get();
+            // Số dư ở API này = tổng INCOME (kể cả nạp goal) - tổng EXPENSE, không tính initial balance / rút goal
+            BigDecimal currentBalance = ledger.getTotalIncome()
+                    .add(ledger.getTotalGoalDeposit())
+                    .subtract(ledger.getTotalExpense());
+            double savingRate = SummaryCalculations.savingRate(monthTotals.getIncome(), monthTotals.getExpense());
+
+            return new SummaryResponseDto(currentBalance, monthTotals.getIncome(), monthTotals.getExpense(), savingRate);
         }
-
-        return new SummaryResponseDto(currentBalance, monthlyIncome, monthlyExpense, savingRate);
     }
 
-    @Transactional(readOnly = true)
     public MonthOptimizedResponseDto getMonthOptimizedSummary(UUID userId) {
-        // Lấy tháng hiện tại
         YearMonth currentMonth = YearMonth.now();
-        LocalDate startDate = currentMonth.atDay(1);
-        LocalDate endDate = currentMonth.atEndOfMonth();
-        LocalDateTime startOfMonth = startDate.atStartOfDay();
-        LocalDateTime endOfMonth = endDate.atTime(23, 59, 59);
-
-        // Lấy tháng trước để tính trends
-        YearMonth previousMonth = currentMonth.minusMonths(1);
-        LocalDateTime startOfPreviousMonth = previousMonth.atDay(1).atStartOfDay();
-        LocalDateTime endOfPreviousMonth = previousMonth.atEndOfMonth().atTime(23, 59, 59);
-
-        // 1. Tính period
-        PeriodDto period = new PeriodDto(startDate, endDate);
-
-        // 2. Tính summary
-        // Lấy tất cả transactions trong tháng (ACTIVE)
-        List<Transaction> monthTransactions = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.INCOME, "ACTIVE", startOfMonth, endOfMonth);
-        monthTransactions.addAll(transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.EXPENSE, "ACTIVE", startOfMonth, endOfMonth));
-
-        BigDecimal totalIncome = monthTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = monthTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalBalance = totalIncome.subtract(totalExpense);
-
-        // Tính savingRate
-        double savingRate = 0.0;
-        if (totalIncome.compareTo(BigDecimal.ZERO) > 0) {
-            savingRate = totalBalance.divide(totalIncome, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .doubleValue();
-        }
+        MonthAggregates data = loadMonthAggregates(userId, currentMonth, false);
+        return SummaryCalculations.buildMonthOptimized(currentMonth, data.current(), data.previous(),
+                data.categories(), data.goals(), LocalDate.now());
+    }
 
-        // Tính averageDailyExpense
-        long daysInMonth = ChronoUnit.DAYS.between(startDate, endDate) + 1;
-        BigDecimal averageDailyExpense = BigDecimal.ZERO;
-        if (daysInMonth > 0) {
-            averageDailyExpense = totalExpense.divide(BigDecimal.valueOf(daysInMonth), 2, RoundingMode.HALF_UP);
+    /**
+     * API: GET /api/summary/ai-digest
+     * Dữ liệu tháng hiện tại dạng rút gọn cho prompt AI (cùng nguồn aggregate với month-optimized)
+     */
+    public AiDigestDto getAiDigest(UUID userId) {
+        YearMonth currentMonth = YearMonth.now();
+        MonthAggregates data = loadMonthAggregates(userId, currentMonth, true);
+        return SummaryCalculations.buildAiDigest(currentMonth, data.current(), data.previous(),
+                data.categories(), data.goals(), data.anomalies(), LocalDate.now(),
+                AI_DIGEST_TOP_CATEGORIES, AI_DIGEST_MAX_GOALS);
+    }
+
+    /**
+     * API: GET /api/summary/range
+     * Summary cho khoảng ngày tùy ý: tổng, breakdown theo category, chuỗi theo day / week / month
+     * và (tùy chọn) so sánh với kỳ liền trước cùng độ dài
+     */
+    public RangeSummaryResponseDto getRangeSummary(UUID userId, SummaryRange range,
+                                                   SummaryGranularity granularity, boolean comparePrevious) {
+        if (range.to().isAfter(range.from().plusYears(MAX_RANGE_YEARS))) {
+            throw new IllegalArgumentException("range must not exceed " + MAX_RANGE_YEARS + " years");
         }
+        if (granularity.bucketCount(range) > MAX_SERIES_BUCKETS) {
+            throw new IllegalArgumentException("too many buckets for this range, use a coarser granularity");
+        }
+        dailyRollupService.ensureBackfilled(userId);
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            RangeForks forks = forkRange(scope, userId, range, granularity, comparePrevious ? range.previous() : null);
+            scope.join();
 
-        MonthOptimizedResponseDto.SummaryDto summary = new MonthOptimizedResponseDto.SummaryDto(
-                totalIncome, totalExpense, totalBalance, savingRate, averageDailyExpense);
-
-        // 3. Tính Income.topCategories
-        Map<String, CategoryStats> incomeCategoryMap = new HashMap<>();
-        monthTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME && t.getCategory() != null)
-                .forEach(t -> {
-                    String categoryName = t.getCategory().getName();
-                    incomeCategoryMap.computeIfAbsent(categoryName, k -> new CategoryStats())
-                            .addAmount(t.getAmount());
-                });
-
-        List<CategorySummaryDto> incomeTopCategories = incomeCategoryMap.entrySet().stream()
-                .map(entry -> {
-                    CategoryStats stats = entry.getValue();
-                    Double pct = totalIncome.compareTo(BigDecimal.ZERO) > 0
-                            ? stats.totalAmount.divide(totalIncome, 4, RoundingMode.HALF_UP)
-                                    .multiply(BigDecimal.valueOf(100)).doubleValue()
-                            : 0.0;
-                    return new CategorySummaryDto(entry.getKey(), stats.totalAmount, stats.count, pct);
-                })
-                .sorted((a, b) -> b.getAmt().compareTo(a.getAmt()))
-                .collect(Collectors.toList());
-
-        MonthOptimizedResponseDto.IncomeDto income = new MonthOptimizedResponseDto.IncomeDto(incomeTopCategories);
-
-        // 4. Tính Expense.topCategories
-        Map<String, CategoryStats> expenseCategoryMap = new HashMap<>();
-        monthTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE && t.getCategory() != null)
-                .forEach(t -> {
-                    String categoryName = t.getCategory().getName();
-                    expenseCategoryMap.computeIfAbsent(categoryName, k -> new CategoryStats())
-                            .addAmount(t.getAmount());
-                });
-
-        List<CategorySummaryDto> expenseTopCategories = expenseCategoryMap.entrySet().stream()
-                .map(entry -> {
-                    CategoryStats stats = entry.getValue();
-                    Double pct = totalExpense.compareTo(BigDecimal.ZERO) > 0
-                            ? stats.totalAmount.divide(totalExpense, 4, RoundingMode.HALF_UP)
-                                    .multiply(BigDecimal.valueOf(100)).doubleValue()
-                            : 0.0;
-                    return new CategorySummaryDto(entry.getKey(), stats.totalAmount, stats.count, pct);
-                })
-                .sorted((a, b) -> b.getAmt().compareTo(a.getAmt()))
-                .collect(Collectors.toList());
-
-        MonthOptimizedResponseDto.ExpenseDto expense = new MonthOptimizedResponseDto.ExpenseDto(expenseTopCategories);
-
-        // 5. Tính goals
-        List<Goal> userGoals = goalRepository.findByUserId(userId);
-        List<GoalSummaryDto> goals = userGoals.stream()
-                .filter(g -> g.getStatus() == GoalStatus.ACTIVE)
-                .map(goal -> {
-                    // Tính progress
-                    BigDecimal saved = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
-                    BigDecimal target = goal.getAmount() != null ? goal.getAmount() : BigDecimal.ONE;
-                    double prog = saved.divide(target, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100)).doubleValue();
-
-                    // Tính days remaining
-                    LocalDateTime now = LocalDateTime.now();
-                    long days = ChronoUnit.DAYS.between(now.toLocalDate(), goal.getEndAt().toLocalDate());
-                    if (days < 0) days = 0;
-
-                    // Tính risk: nếu progress < 50% và còn < 30 ngày thì risk = true
-                    boolean risk = prog < 50.0 && days < 30;
-
-                    return new GoalSummaryDto(goal.getTitle(), prog, days, risk);
-                })
-                .collect(Collectors.toList());
-
-        // 6. Tính trends (so sánh với tháng trước)
-        BigDecimal previousMonthIncome = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.INCOME, "ACTIVE", startOfPreviousMonth, endOfPreviousMonth)
-                .stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal previousMonthExpense = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.EXPENSE, "ACTIVE", startOfPreviousMonth, endOfPreviousMonth)
-                .stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Tính phần trăm thay đổi
-        double expenseChange = 0.0;
-        if (previousMonthExpense.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal diff = totalExpense.subtract(previousMonthExpense);
-            expenseChange = diff.divide(previousMonthExpense, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-        } else if (totalExpense.compareTo(BigDecimal.ZERO) > 0) {
-            expenseChange = 100.0; // Tăng từ 0
+            RangeAggregates data = forks.join();
+            return SummaryCalculations.buildRange(range, granularity, data.totals(), data.categories(),
+                    data.series(), data.previous(), data.previousTotals());
         }
+    }
 
-        double incomeChange = 0.0;
-        if (previousMonthIncome.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal diff = totalIncome.subtract(previousMonthIncome);
-            incomeChange = diff.divide(previousMonthIncome, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-        } else if (totalIncome.compareTo(BigDecimal.ZERO) > 0) {
-            incomeChange = 100.0; // Tăng từ 0
+    /**
+     * Các query bên dưới không phụ thuộc nhau nên chạy song song (ParallelReads), mỗi query 1 transaction
+     * readOnly riêng; vì vậy các method gọi hàm này không mở DB transaction bao ngoài.
+     *
+     * @param withAnomalies đọc thêm khoản chi bất thường của tháng (chỉ AI digest dùng)
+     */
+    private MonthAggregates loadMonthAggregates(UUID userId, YearMonth month, boolean withAnomalies) {
+        SummaryRange range = SummaryRange.month(month);
+
+        // Các tổng bên dưới đọc từ daily rollup (số dòng ~ số ngày, không phụ thuộc số transaction)
+        dailyRollupService.ensureBackfilled(userId);
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            RangeForks monthForks = forkRange(scope, userId, range, null, range.previous());
+            Supplier<List<Goal>> userGoals = scope.fork(() -> goalRepository.findByUserId(userId));
+            Supplier<List<AnomalyView>> anomalies = withAnomalies
+                    ? scope.fork(() -> transactionRepository.findAnomaliesBetween(userId, "ACTIVE",
+                            range.from().atStartOfDay(), range.to().atTime(23, 59, 59),
+                            PageRequest.of(0, AI_DIGEST_MAX_ANOMALIES)))
+                    : List::of;
+            scope.join();
+
+            RangeAggregates data = monthForks.join();
+            return new MonthAggregates(data.totals(), data.previousTotals(), data.categories(), userGoals.get(),
+                    anomalies.get());
         }
+    }
 
-        TrendsDto trends = new TrendsDto(expenseChange, incomeChange);
+    private record MonthAggregates(TypeTotals current, TypeTotals previous,
+                                   List<CategoryTotalView> categories, List<Goal> goals,
+                                   List<AnomalyView> anomalies) {
+    }
 
-        // Tạo response
-        MonthOptimizedResponseDto response = new MonthOptimizedResponseDto();
-        response.setPeriod(period);
-        response.setSummary(summary);
-        response.setIncome(income);
-        response.setExpense(expense);
-        response.setGoals(goals);
-        response.setTrends(trends);
+    // ===== Pipeline tổng hợp theo khoảng ngày (dùng chung cho month, month-optimized, 7days, range) =====
+
+    /**
+     * Fork các query tổng hợp của 1 khoảng ngày vào scope của caller (để chạy song song với query khác của API).
+     * Mọi query đều GROUP BY trên daily rollup: số dòng trả về ~ số ngày / tháng, không phụ thuộc số transaction.
+     * Caller gọi ensureBackfilled trước, và chỉ gọi RangeForks.join() sau scope.join().
+     *
+     * @param granularity null nếu không cần chuỗi thời gian
+     * @param previous    kỳ so sánh, null nếu không so sánh
+     */
+    private RangeForks forkRange(ParallelReads.Scope scope, UUID userId, SummaryRange range,
+                                 SummaryGranularity granularity, SummaryRange previous) {
+        Supplier<TypeTotals> totals = scope.fork(() -> sumByType(userId, range.from(), range.to()));
+        Supplier<List<CategoryTotalView>> categories = scope.fork(
+                () -> dailyRollupRepository.sumByCategory(userId, range.from(), range.to()));
+        Supplier<List<PeriodTotal>> periodTotals = granularity == null
+                ? List::of
+                : scope.fork(() -> sumByPeriod(userId, range, granularity));
+        Supplier<TypeTotals> previousTotals = previous == null
+                ? () -> null
+                : scope.fork(() -> sumByType(userId, previous.from(), previous.to()));
+        return new RangeForks(range, granularity, previous, totals, categories, periodTotals, previousTotals);
+    }
+
+    /**
+     * Tổng theo (kỳ, type): gom theo tháng ngay trong DB khi granularity = month, còn lại gom theo ngày
+     * (tuần được chia bucket trong SummaryCalculations.buildSeries)
+     */
+    private List<PeriodTotal> sumByPeriod(UUID userId, SummaryRange range, SummaryGranularity granularity) {
+        if (granularity == SummaryGranularity.MONTH) {
+            return dailyRollupRepository.sumByMonthAndType(userId, range.from(), range.to()).stream()
+                    .map(row -> new PeriodTotal(LocalDate.of(row.getYr(), row.getMo(), 1), row.getTxnType(),
+                            row.getTotal(), row.getTxnCount() != null ? row.getTxnCount() : 0L))
+                    .toList();
+        }
+        return dailyRollupRepository.sumByDayAndType(userId, range.from(), range.to()).stream()
+                .map(row -> new PeriodTotal(row.getTxnDay(), row.getTxnType(),
+                        row.getTotal(), row.getTxnCount() != null ? row.getTxnCount() : 0L))
+                .toList();
+    }
+
+    private record RangeForks(SummaryRange range,
+                              SummaryGranularity granularity,
+                              SummaryRange previous,
+                              Supplier<TypeTotals> totals,
+                              Supplier<List<CategoryTotalView>> categories,
+                              Supplier<List<PeriodTotal>> periodTotals,
+                              Supplier<TypeTotals> previousTotals) {
+
+        RangeAggregates join() {
+            List<RangeSummaryResponseDto.BucketDto> series = granularity == null
+                    ? List.of()
+                    : SummaryCalculations.buildSeries(range, granularity, periodTotals.get());
+            return new RangeAggregates(totals.get(), categories.get(), series, previous, previousTotals.get());
+        }
+    }
 
-        return response;
+    private record RangeAggregates(TypeTotals totals,
+                                   List<CategoryTotalView> categories,
+                                   List<RangeSummaryResponseDto.BucketDto> series,
+                                   SummaryRange previous,
+                                   TypeTotals previousTotals) {
     }
 
     /**
@@ -256,158 +211,26 @@ public class SummaryService {
      * @param userId UUID của user (từ JWT)
      * @return SevenDaysResponseDto
      */
-    @Transactional(readOnly = true)
     public SevenDaysResponseDto get7DaysSummary(UUID userId) {
-        // 1. Tính period: 7 ngày gần nhất (từ hôm nay - 6 ngày đến hôm nay)
+        // Period: 7 ngày gần nhất (từ hôm nay - 6 ngày đến hôm nay)
         LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(6);
-        LocalDateTime startOfPeriod = startDate.atStartOfDay();
-        LocalDateTime endOfPeriod = endDate.atTime(23, 59, 59);
-        int days = 7;
-
-        SevenDaysResponseDto.SevenDaysPeriodDto period = 
-            new SevenDaysResponseDto.SevenDaysPeriodDto(startDate, endDate, days);
-
-        // 2. Lấy tất cả transactions trong 7 ngày (ACTIVE)
-        List<Transaction> incomeTransactions = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.INCOME, "ACTIVE", startOfPeriod, endOfPeriod);
-        
-        List<Transaction> expenseTransactions = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.EXPENSE, "ACTIVE", startOfPeriod, endOfPeriod);
-
-        // 3. Tính summary
-        BigDecimal totalIncome = incomeTransactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = expenseTransactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // totalBalance = lấy từ BalanceService (số dư thực tế hiện tại)
-        BigDecimal totalBalance = balanceService.getCurrentBalance(userId).getCurrentBalance();
-
-        // Tính savingRate: (totalIncome - totalExpense) / totalIncome * 100
-        double savingRate = 0.0;
-        if (totalIncome.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal savings = totalIncome.subtract(totalExpense);
-            savingRate = savings.divide(totalIncome, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .doubleValue();
+        SummaryRange range = new SummaryRange(endDate.minusDays(6), endDate);
+
+        // Các tổng bên dưới đọc từ daily rollup
+        dailyRollupService.ensureBackfilled(userId);
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            RangeForks week = forkRange(scope, userId, range, SummaryGranularity.DAY, null);
+            // totalBalance = lấy từ BalanceService (số dư thực tế hiện tại)
+            Supplier<BigDecimal> totalBalance = scope.fork(
+                    () -> balanceService.getCurrentBalance(userId).getCurrentBalance());
+            Supplier<List<Goal>> userGoals = scope.fork(() -> goalRepository.findByUserId(userId));
+            scope.join();
+
+            RangeAggregates data = week.join();
+            return SummaryCalculations.buildSevenDays(
+                    endDate, data.totals(), totalBalance.get(), data.categories(), data.series(), userGoals.get());
         }
-
-        // Tính averageDailyExpense: totalExpense / 7
-        BigDecimal averageDailyExpense = totalExpense.divide(
-                BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP);
-
-        // Tính averageDailyIncome: totalIncome / 7
-        BigDecimal averageDailyIncome = totalIncome.divide(
-                BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP);
-
-        SevenDaysResponseDto.SevenDaysSummaryDto summary = 
-            new SevenDaysResponseDto.SevenDaysSummaryDto(
-                totalIncome, totalExpense, totalBalance, savingRate, 
-                averageDailyExpense, averageDailyIncome);
-
-        // 4. Tính Expense.topCategories
-        Map<String, CategoryStats> expenseCategoryMap = new HashMap<>();
-        expenseTransactions.stream()
-                .filter(t -> t.getCategory() != null)
-                .forEach(t -> {
-                    String categoryName = t.getCategory().getName();
-                    expenseCategoryMap.computeIfAbsent(categoryName, k -> new CategoryStats())
-                            .addAmount(t.getAmount());
-                });
-
-        List<CategorySummaryDto> expenseTopCategories = expenseCategoryMap.entrySet().stream()
-                .map(entry -> {
-                    CategoryStats stats = entry.getValue();
-                    Double pct = totalExpense.compareTo(BigDecimal.ZERO) > 0
-                            ? stats.totalAmount.divide(totalExpense, 4, RoundingMode.HALF_UP)
-                                    .multiply(BigDecimal.valueOf(100)).doubleValue()
-                            : 0.0;
-                    return new CategorySummaryDto(entry.getKey(), stats.totalAmount, stats.count, pct);
-                })
-                .sorted((a, b) -> b.getAmt().compareTo(a.getAmt()))
-                .collect(Collectors.toList());
-
-        // 5. Tính Expense.dailyBreakdown (chi tiêu theo từng ngày, sắp xếp mới nhất trước)
-        Map<LocalDate, DailyStats> dailyExpenseMap = new HashMap<>();
-        expenseTransactions.forEach(t -> {
-            LocalDate date = t.getTransactionDate().toLocalDate();
-            dailyExpenseMap.computeIfAbsent(date, k -> new DailyStats())
-                    .addAmount(t.getAmount());
-        });
-
-        List<SevenDaysResponseDto.DailyBreakdownDto> dailyBreakdown = dailyExpenseMap.entrySet().stream()
-                .map(entry -> new SevenDaysResponseDto.DailyBreakdownDto(
-                        entry.getKey(), 
-                        entry.getValue().totalAmount, 
-                        entry.getValue().count))
-                .sorted((a, b) -> b.getDate().compareTo(a.getDate())) // Mới nhất trước
-                .collect(Collectors.toList());
-
-        SevenDaysResponseDto.SevenDaysExpenseDto expense = 
-            new SevenDaysResponseDto.SevenDaysExpenseDto(expenseTopCategories, dailyBreakdown);
-
-        // 6. Tính Income.topSources
-        Map<String, CategoryStats> incomeCategoryMap = new HashMap<>();
-        incomeTransactions.stream()
-                .filter(t -> t.getCategory() != null)
-                .forEach(t -> {
-                    String categoryName = t.getCategory().getName();
-                    incomeCategoryMap.computeIfAbsent(categoryName, k -> new CategoryStats())
-                            .addAmount(t.getAmount());
-                });
-
-        List<SevenDaysResponseDto.IncomeSummaryDto> incomeTopSources = incomeCategoryMap.entrySet().stream()
-                .map(entry -> {
-                    CategoryStats stats = entry.getValue();
-                    Double pct = totalIncome.compareTo(BigDecimal.ZERO) > 0
-                            ? stats.totalAmount.divide(totalIncome, 4, RoundingMode.HALF_UP)
-                                    .multiply(BigDecimal.valueOf(100)).doubleValue()
-                            : 0.0;
-                    return new SevenDaysResponseDto.IncomeSummaryDto(
-                            entry.getKey(), stats.totalAmount, stats.count, pct);
-                })
-                .sorted((a, b) -> b.getAmt().compareTo(a.getAmt()))
-                .collect(Collectors.toList());
-
-        SevenDaysResponseDto.SevenDaysIncomeDto income = 
-            new SevenDaysResponseDto.SevenDaysIncomeDto(incomeTopSources);
-
-        // 7. Tính goals (chỉ ACTIVE goals)
-        List<Goal> userGoals = goalRepository.findByUserId(userId);
-        List<SevenDaysResponseDto.SevenDaysGoalDto> goals = userGoals.stream()
-                .filter(g -> g.getStatus() == GoalStatus.ACTIVE)
-                .map(goal -> {
-                    // Tính progress percentage
-                    BigDecimal saved = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
-                    BigDecimal target = goal.getAmount() != null ? goal.getAmount() : BigDecimal.ONE;
-                    double progressPct = saved.divide(target, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100)).doubleValue();
-
-                    // Tính days remaining
-                    LocalDateTime now = LocalDateTime.now();
-                    long daysRemaining = ChronoUnit.DAYS.between(now.toLocalDate(), goal.getEndAt().toLocalDate());
-                    if (daysRemaining < 0) daysRemaining = 0;
-
-                    return new SevenDaysResponseDto.SevenDaysGoalDto(
-                            goal.getTitle(), progressPct, daysRemaining);
-                })
-                .collect(Collectors.toList());
-
-        // 8. Tạo response
-        SevenDaysResponseDto response = new SevenDaysResponseDto();
-        response.setPeriod(period);
-        response.setSummary(summary);
-        response.setExpense(expense);
-        response.setIncome(income);
-        response.setGoals(goals);
-
-        return response;
     }
 
     /**
@@ -420,240 +243,39 @@ public class SummaryService {
     @Transactional(readOnly = true)
     public DailyReportResponseDto getDailyReport(UUID userId) {
         LocalDate today = LocalDate.now();
-        LocalDateTime startOfToday = today.atStartOfDay();
-        LocalDateTime endOfToday = today.atTime(23, 59, 59);
-
-        // Previous day
-        LocalDate yesterday = today.minusDays(1);
-        LocalDateTime startOfYesterday = yesterday.atStartOfDay();
-        LocalDateTime endOfYesterday = yesterday.atTime(23, 59, 59);
-
-        // 7 days ago
-        LocalDate sevenDaysAgo = today.minusDays(6);
-        LocalDateTime startOf7Days = sevenDaysAgo.atStartOfDay();
-
-        // 1. Lấy tất cả transactions hôm nay
-        List<Transaction> todayIncomeTransactions = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.INCOME, "ACTIVE", startOfToday, endOfToday);
-
-        List<Transaction> todayExpenseTransactions = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.EXPENSE, "ACTIVE", startOfToday, endOfToday);
-
-        // 2. Tính summary
-        BigDecimal totalIncome = todayIncomeTransactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = todayExpenseTransactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal netAmount = totalIncome.subtract(totalExpense);
-
-        int transactionCount = todayIncomeTransactions.size() + todayExpenseTransactions.size();
-
-        BigDecimal avgTransactionAmount = BigDecimal.ZERO;
-        if (transactionCount > 0) {
-            BigDecimal totalAmount = totalIncome.add(totalExpense);
-            avgTransactionAmount = totalAmount.divide(
-                    BigDecimal.valueOf(transactionCount), 2, RoundingMode.HALF_UP);
-        }
-
-        DailyReportResponseDto.DailySummaryDto summary = 
-            new DailyReportResponseDto.DailySummaryDto(
-                totalIncome, totalExpense, netAmount, transactionCount, avgTransactionAmount);
-
-        // 3. Tính expenseBreakdown
-        // 3.1 By category
-        Map<String, CategoryStats> expenseCategoryMap = new HashMap<>();
-        todayExpenseTransactions.stream()
-                .filter(t -> t.getCategory() != null)
-                .forEach(t -> {
-                    String categoryName = t.getCategory().getName();
-                    expenseCategoryMap.computeIfAbsent(categoryName, k -> new CategoryStats())
-                            .addAmount(t.getAmount());
-                });
-
-        List<CategorySummaryDto> byCategory = expenseCategoryMap.entrySet().stream()
-                .map(entry -> {
-                    CategoryStats stats = entry.getValue();
-                    Double pct = totalExpense.compareTo(BigDecimal.ZERO) > 0
-                            ? stats.totalAmount.divide(totalExpense, 4, RoundingMode.HALF_UP)
-                                    .multiply(BigDecimal.valueOf(100)).doubleValue()
-                            : 0.0;
-                    return new CategorySummaryDto(entry.getKey(), stats.totalAmount, stats.count, pct);
-                })
-                .sorted((a, b) -> b.getAmt().compareTo(a.getAmt()))
-                .collect(Collectors.toList());
-
-        // 3.2 Largest transaction
-        DailyReportResponseDto.LargestTransactionDto largestTransaction = null;
-        if (!todayExpenseTransactions.isEmpty()) {
-            Transaction largest = todayExpenseTransactions.stream()
-                    .max((t1, t2) -> t1.getAmount().compareTo(t2.getAmount()))
-                    .orElse(null);
-            if (largest != null) {
-                largestTransaction = new DailyReportResponseDto.LargestTransactionDto(
-                        largest.getName(),
-                        largest.getAmount(),
-                        largest.getCategory() != null ? largest.getCategory().getName() : null,
-                        largest.getTransactionDate()
-                );
-            }
-        }
-
-        DailyReportResponseDto.ExpenseBreakdownDto expenseBreakdown = 
-            new DailyReportResponseDto.ExpenseBreakdownDto(byCategory, largestTransaction);
-
-        // 4. Tính comparison
-        // 4.1 Previous day
-        List<Transaction> yesterdayIncome = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.INCOME, "ACTIVE", startOfYesterday, endOfYesterday);
-
-        List<Transaction> yesterdayExpense = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.EXPENSE, "ACTIVE", startOfYesterday, endOfYesterday);
-
-        BigDecimal yesterdayTotalIncome = yesterdayIncome.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal yesterdayTotalExpense = yesterdayExpense.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        DailyReportResponseDto.PreviousDayDto previousDay = 
-            new DailyReportResponseDto.PreviousDayDto(yesterday, yesterdayTotalExpense, yesterdayTotalIncome);
-
-        // 4.2 Expense change %
-        double expenseChangePct = 0.0;
-        if (yesterdayTotalExpense.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal diff = totalExpense.subtract(yesterdayTotalExpense);
-            expenseChangePct = diff.divide(yesterdayTotalExpense, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-        } else if (totalExpense.compareTo(BigDecimal.ZERO) > 0) {
-            expenseChangePct = 100.0;
-        }
-
-        // 4.3 Income change %
-        double incomeChangePct = 0.0;
-        if (yesterdayTotalIncome.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal diff = totalIncome.subtract(yesterdayTotalIncome);
-            incomeChangePct = diff.divide(yesterdayTotalIncome, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-        } else if (totalIncome.compareTo(BigDecimal.ZERO) > 0) {
-            incomeChangePct = 100.0;
-        }
 
-        // 4.4 7-day average
-        List<Transaction> last7DaysIncome = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.INCOME, "ACTIVE", startOf7Days, endOfToday);
-
-        List<Transaction> last7DaysExpense = transactionRepository
-                .findByUserIdAndTypeAndStatusAndTransactionDateBetween(
-                        userId, TransactionType.EXPENSE, "ACTIVE", startOf7Days, endOfToday);
-
-        BigDecimal total7DaysIncome = last7DaysIncome.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal total7DaysExpense = last7DaysExpense.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal avg7DaysIncome = total7DaysIncome.divide(BigDecimal.valueOf(7), 2, RoundingMode.HALF_UP);
-        BigDecimal avg7DaysExpense = total7DaysExpense.divide(BigDecimal.valueOf(7), 2, RoundingMode.HALF_UP);
-
-        DailyReportResponseDto.Avg7DaysDto avg7Days = 
-            new DailyReportResponseDto.Avg7DaysDto(avg7DaysExpense, avg7DaysIncome);
-
-        DailyReportResponseDto.ComparisonDto comparison = 
-            new DailyReportResponseDto.ComparisonDto(previousDay, expenseChangePct, incomeChangePct, avg7Days);
-
-        // 5. Tính goals
+        // Một query duy nhất cho cửa sổ rộng nhất (7 ngày), phần chia bucket làm trong 1 lần duyệt
+        List<DailyReportRowView> rows = transactionRepository.findReportRowsBetween(
+                userId, "ACTIVE", today.minusDays(6).atStartOfDay(), today.atTime(23, 59, 59));
         List<Goal> allGoals = goalRepository.findByUserId(userId);
-        
-        // 5.1 Active count
-        int activeCount = (int) allGoals.stream()
-                .filter(g -> g.getStatus() == GoalStatus.ACTIVE)
-                .count();
-
-        // 5.2 Total saved today (INCOME transactions with goalId today)
-        List<Transaction> todayGoalDeposits = todayIncomeTransactions.stream()
-                .filter(t -> t.getGoal() != null)
-                .collect(Collectors.toList());
-
-        BigDecimal totalSavedToday = todayGoalDeposits.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // 5.3 Total saved last 7 days
-        List<Transaction> last7DaysGoalDeposits = last7DaysIncome.stream()
-                .filter(t -> t.getGoal() != null)
-                .collect(Collectors.toList());
-
-        BigDecimal totalSaved7Days = last7DaysGoalDeposits.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // 5.4 Goals progress
-        List<DailyReportResponseDto.GoalProgressDto> goalsProgress = allGoals.stream()
-                .filter(g -> g.getStatus() == GoalStatus.ACTIVE)
-                .map(goal -> {
-                    BigDecimal saved = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
-                    BigDecimal target = goal.getAmount() != null ? goal.getAmount() : BigDecimal.ONE;
-                    double progressPct = saved.divide(target, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100)).doubleValue();
-
-                    LocalDateTime now = LocalDateTime.now();
-                    long daysRemaining = ChronoUnit.DAYS.between(now.toLocalDate(), goal.getEndAt().toLocalDate());
-                    if (daysRemaining < 0) daysRemaining = 0;
-
-                    boolean risk = progressPct < 50.0 && daysRemaining < 30;
-
-                    return new DailyReportResponseDto.GoalProgressDto(
-                            goal.getTitle(), progressPct, daysRemaining, risk);
-                })
-                .collect(Collectors.toList());
-
-        DailyReportResponseDto.GoalsDto goals = 
-            new DailyReportResponseDto.GoalsDto(activeCount, totalSavedToday, totalSaved7Days, goalsProgress);
-
-        // 6. Tạo response
-        DailyReportResponseDto response = new DailyReportResponseDto();
-        response.setReportDate(today);
-        response.setSummary(summary);
-        response.setExpenseBreakdown(expenseBreakdown);
-        response.setComparison(comparison);
-        response.setGoals(goals);
-
-        return response;
-    }
 
-    // Helper class để tính toán category statistics
-    private static class CategoryStats {
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        long count = 0;
+        return SummaryCalculations.buildDailyReport(today, rows, allGoals);
+    }
 
-        void addAmount(BigDecimal amount) {
-            this.totalAmount = this.totalAmount.add(amount);
-            this.count++;
+    /**
+     * API: GET /api/summary/heatmap
+     * Tổng theo ngày của N tháng gần nhất (kết thúc hôm nay) cho calendar heatmap:
+     * 1 câu GROUP BY ngày trên daily rollup (tối đa ~366 dòng / năm), không load transaction.
+     * Không @Transactional: backfill phải commit trước khi transaction đọc (snapshot) được mở
+     */
+    public HeatmapResponseDto getHeatmap(UUID userId, TransactionType type, int months) {
+        LocalDate today = LocalDate.now();
+        SummaryRange range = new SummaryRange(today.minusMonths(months).plusDays(1), today);
+
+        dailyRollupService.ensureBackfilled(userId);
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            Supplier<List<DailyTotalView>> days = scope.fork(() ->
+                    dailyRollupRepository.sumByDay(userId, type, range.from(), range.to()));
+            scope.join();
+            return SummaryCalculations.buildHeatmap(range, type, days.get());
         }
     }
 
-    // Helper class để tính toán daily statistics
-    private static class DailyStats {
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        long count = 0;
-
-        void addAmount(BigDecimal amount) {
-            this.totalAmount = this.totalAmount.add(amount);
-            this.count++;
-        }
+    /**
+     * Đọc tổng theo type từ daily rollup (1 câu GROUP BY) và chuẩn hóa null → BigDecimal.ZERO
+     * để output giống hệt cách reduce(BigDecimal.ZERO, BigDecimal::add) trước đây
+     */
+    private TypeTotals sumByType(UUID userId, LocalDate from, LocalDate to) {
+        return TypeTotals.of(dailyRollupRepository.sumByType(userId, from, to));
     }
 }
-
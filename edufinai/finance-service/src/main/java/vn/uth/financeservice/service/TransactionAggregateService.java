@@ -0,0 +1,81 @@
+package vn.uth.financeservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uth.financeservice.entity.Transaction;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Điểm duy nhất để cập nhật các bảng tổng hợp (balance ledger, daily rollup, bộ đếm ngân sách,
+ * thống kê chi tiêu để phát hiện bất thường)
+ * khi transaction thay đổi. Luôn chạy trong DB transaction của caller.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionAggregateService {
+
+    private final BalanceLedgerService balanceLedgerService;
+    private final DailyRollupService dailyRollupService;
+    private final BudgetService budgetService;
+    private final SpendingAnomalyService spendingAnomalyService;
+
+    /**
+     * Transaction mới (ACTIVE) đã được lưu (entity managed: có thể được gán anomalyScore)
+     */
+    @Transactional
+    public void onCreated(Transaction t) {
+        balanceLedgerService.apply(t, 1);
+        dailyRollupService.apply(t, 1);
+        budgetService.applyAll(t.getUserId(), List.of(t), 1);
+        spendingAnomalyService.onCreated(t);
+    }
+
+    /**
+     * Transaction mới (ACTIVE) CHƯA được INSERT: caller ghi nó ở cuối DB transaction, ngay sau câu UPDATE goal,
+     * để khóa dòng goal chỉ giữ trong vài câu lệnh cuối. Ledger / rollup chưa có của user được tính
+     * từ lịch sử trước (chưa gồm t), sau đó mới cộng t như bình thường.
+     */
+    @Transactional
+    public void onCreatedBeforeInsert(Transaction t) {
+        balanceLedgerService.ensureExists(t.getUserId());
+        dailyRollupService.ensureRebuilt(t.getUserId());
+        onCreated(t);
+    }
+
+    /**
+     * Nhiều transaction mới (ACTIVE) của cùng 1 user đã được lưu và flush (import, thao tác hàng loạt)
+     */
+    @Transactional
+    public void onCreated(UUID userId, List<Transaction> transactions) {
+        balanceLedgerService.applyAll(userId, transactions, 1);
+        dailyRollupService.applyAll(userId, transactions, 1);
+        budgetService.applyAll(userId, transactions, 1);
+        spendingAnomalyService.onCreated(userId, transactions);
+    }
+
+    /**
+     * Transaction ACTIVE vừa bị xóa (soft delete)
+     */
+    @Transactional
+    public void onDeleted(Transaction t) {
+        balanceLedgerService.apply(t, -1);
+        dailyRollupService.apply(t, -1);
+        budgetService.applyAll(t.getUserId(), List.of(t), -1);
+        spendingAnomalyService.onDeleted(t);
+    }
+
+    /**
+     * Tính lại toàn bộ dữ liệu tổng hợp của user sau các thay đổi hàng loạt
+     * (xóa goal kèm transaction, chuyển category, ...)
+     */
+    @Transactional
+    public void rebuildUser(UUID userId) {
+        balanceLedgerService.rebuild(userId);
+        dailyRollupService.rebuildUser(userId);
+        budgetService.rebuildUser(userId);
+        spendingAnomalyService.rebuildUser(userId);
+    }
+}
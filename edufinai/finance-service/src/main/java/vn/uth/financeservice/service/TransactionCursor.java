@@ -0,0 +1,44 @@
+package vn.uth.financeservice.service;
+
+import vn.uth.financeservice.entity.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Vị trí của transaction cuối cùng trong trang, theo đúng thứ tự sắp xếp
+ * (transactionDate DESC, createdAt DESC, transactionId DESC).
+ * Client chỉ thấy chuỗi base64 (opaque), không cần biết cấu trúc bên trong.
+ */
+public record TransactionCursor(LocalDateTime transactionDate, LocalDateTime createdAt, UUID transactionId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor of(Transaction t) {
+        return new TransactionCursor(t.getTransactionDate(), t.getCreatedAt(), t.getTransactionId());
+    }
+
+    public String encode() {
+        String raw = transactionDate + SEPARATOR + createdAt + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TransactionCursor(
+                    LocalDateTime.parse(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    UUID.fromString(parts[2]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package vn.uth.financeservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.repository.projection.TransactionExportView;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Export lịch sử transaction dạng stream (CSV hoặc NDJSON):
+ * đọc từng dòng từ DB cursor và ghi thẳng ra response, bộ nhớ không phụ thuộc độ dài lịch sử.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    // Flush định kỳ để client nhận dữ liệu sớm thay vì chờ buffer đầy
+    private static final int FLUSH_EVERY_ROWS = 500;
+    private static final String CSV_HEADER = "transactionId,transactionDate,type,amount,name,category,note,goalId";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Ghi toàn bộ transaction ACTIVE của user ra output.
+     * Chạy trong transaction readOnly riêng vì được gọi từ thread của StreamingResponseBody.
+     */
+    public void export(UUID userId, Format format, OutputStream out) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<TransactionExportView> rows = transactionRepository.streamForExport(userId, "ACTIVE")) {
+                if (format == Format.NDJSON) {
+                    writeNdjson(rows.iterator(), out);
+                } else {
+                    writeCsv(rows.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeCsv(Iterator<TransactionExportView> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        writer.flush();
+
+        int count = 0;
+        while (rows.hasNext()) {
+            TransactionExportView row = rows.next();
+            writer.write(csv(row.getTransactionId()));
+            writer.write(',');
+            writer.write(csv(row.getTransactionDate()));
+            writer.write(',');
+            writer.write(csv(row.getTxnType()));
+            writer.write(',');
+            writer.write(csv(row.getAmount() != null ? row.getAmount().toPlainString() : null));
+            writer.write(',');
+            writer.write(csv(row.getName()));
+            writer.write(',');
+            writer.write(csv(row.getCategoryName()));
+            writer.write(',');
+            writer.write(csv(row.getNote()));
+            writer.write(',');
+            writer.write(csv(row.getGoalId()));
+            writer.write('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<TransactionExportView> rows, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+
+        int count = 0;
+        while (rows.hasNext()) {
+            TransactionExportView row = rows.next();
+            json.writeStartObject();
+            json.writeStringField("transactionId", str(row.getTransactionId()));
+            json.writeStringField("transactionDate", str(row.getTransactionDate()));
+            json.writeStringField("type", str(row.getTxnType()));
+            json.writeNumberField("amount", row.getAmount());
+            json.writeStringField("name", row.getName());
+            json.writeStringField("category", row.getCategoryName());
+            json.writeStringField("note", row.getNote());
+            json.writeStringField("goalId", str(row.getGoalId()));
+            json.writeEndObject();
+            json.writeRaw('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                json.flush();
+            }
+        }
+        json.flush();
+    }
+
+    private static String str(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Escape giá trị CSV: bọc trong "" nếu có dấu phẩy, ngoặc kép hoặc xuống dòng
+     */
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String s = value.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,335 @@
+package vn.uth.financeservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.dto.TransactionImportResultDto;
+import vn.uth.financeservice.entity.Category;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.CategoryRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Import hàng loạt transaction từ CSV hoặc NDJSON (đọc stream, không giữ cả file trong bộ nhớ).
+ * - Category được tra theo tên từ map nạp 1 lần (ưu tiên category của user, sau đó default)
+ * - Mỗi batch persist trong 1 DB transaction riêng, Hibernate gửi INSERT theo JDBC batch
+ * - Dòng lỗi được ghi lại và bỏ qua, không làm hỏng cả file: lỗi parse / validate báo ngay theo dòng,
+ *   batch lỗi ở DB (vi phạm constraint, dữ liệu quá cột...) được ghi lại từng dòng trong transaction
+ *   riêng để tìm đúng dòng lỗi, các batch sau vẫn tiếp tục
+ *
+ * CSV: dòng đầu là header, các cột: type, amount, name, category, note, transactionDate
+ * NDJSON: mỗi dòng 1 object JSON với các field cùng tên
+ * Chỉ hỗ trợ INCOME / EXPENSE không gắn goal (nạp / rút goal phải đi qua API goal).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 200;
+    private static final int MAX_NAME_LENGTH = 255; // VARCHAR(255)
+    private static final int MAX_NOTE_BYTES = 65_535; // TEXT
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 17; // DECIMAL(19,2)
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionAggregateService transactionAggregateService;
+    private final SummaryCache summaryCache;
+    private final DataVersionService dataVersionService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public TransactionImportResultDto importTransactions(UUID userId, InputStream body, Format format) {
+        Map<String, Category> categoriesByName = loadCategories(userId);
+        TransactionImportResultDto result = new TransactionImportResultDto();
+        List<ImportRow> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseCsvLine(stripBom(line)).toArray(new String[0]);
+                    continue;
+                }
+
+                result.setTotalRows(result.getTotalRows() + 1);
+                try {
+                    Map<String, String> fields = format == Format.CSV
+                            ? toFields(header, parseCsvLine(line))
+                            : parseJsonLine(line);
+                    batch.add(new ImportRow(lineNo, toTransaction(userId, fields, categoriesByName)));
+                } catch (IllegalArgumentException e) {
+                    addError(result, lineNo, e.getMessage());
+                }
+
+                if (batch.size() >= BATCH_SIZE) {
+                    flushBatch(userId, batch, result);
+                }
+            }
+            flushBatch(userId, batch, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không đọc được dữ liệu import", e);
+        } finally {
+            // Các batch đã commit được giữ lại kể cả khi lỗi giữa chừng, nên luôn xóa cache summary
+            if (result.getImportedRows() > 0) {
+                summaryCache.evict(userId);
+            }
+        }
+
+        log.info("Transaction import finished: userId={}, total={}, imported={}, failed={}",
+                userId, result.getTotalRows(), result.getImportedRows(), result.getFailedRows());
+        return result;
+    }
+
+    /**
+     * Persist 1 batch + cập nhật ledger / rollup (gom theo nhóm) trong cùng 1 DB transaction.
+     * Batch lỗi ở DB bị rollback cả batch: ghi lại từng dòng, mỗi dòng 1 transaction, để chỉ bỏ dòng lỗi.
+     */
+    private void flushBatch(UUID userId, List<ImportRow> batch, TransactionImportResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            persist(userId, batch.stream().map(ImportRow::transaction).toList());
+            result.setImportedRows(result.getImportedRows() + batch.size());
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            log.warn("Transaction import batch failed, retrying row by row: userId={}, lines {}-{}: {}",
+                    userId, batch.get(0).lineNo(), batch.get(batch.size() - 1).lineNo(), e.getMessage());
+            for (ImportRow row : batch) {
+                try {
+                    persist(userId, List.of(row.transaction()));
+                    result.setImportedRows(result.getImportedRows() + 1);
+                } catch (DataAccessException | PersistenceException | TransactionException rowError) {
+                    addError(result, row.lineNo(), "Không lưu được dòng: " + rootMessage(rowError));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void persist(UUID userId, List<Transaction> transactions) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Transaction t : transactions) {
+                entityManager.persist(t); // id gán sẵn nên persist không cần SELECT như save()/merge
+            }
+            entityManager.flush();
+            transactionAggregateService.onCreated(userId, transactions);
+            dataVersionService.bump(userId);
+            entityManager.clear();
+        });
+    }
+
+    private String rootMessage(Exception e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+        return message.length() > 300 ? message.substring(0, 300) : message;
+    }
+
+    private Transaction toTransaction(UUID userId, Map<String, String> fields, Map<String, Category> categoriesByName) {
+        TransactionType type;
+        try {
+            type = TransactionType.valueOf(required(fields, "type").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type phải là INCOME hoặc EXPENSE");
+        }
+        if (type != TransactionType.INCOME && type != TransactionType.EXPENSE) {
+            throw new IllegalArgumentException("type phải là INCOME hoặc EXPENSE");
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(required(fields, "amount"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("amount không hợp lệ");
+        }
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("amount phải lớn hơn 0");
+        }
+        if (amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS) {
+            throw new IllegalArgumentException("amount quá lớn");
+        }
+
+        String name = required(fields, "name");
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("name tối đa " + MAX_NAME_LENGTH + " ký tự");
+        }
+        String note = fields.get("note");
+        if (note != null && note.getBytes(StandardCharsets.UTF_8).length > MAX_NOTE_BYTES) {
+            throw new IllegalArgumentException("note quá dài");
+        }
+
+        Category category = null;
+        String categoryName = fields.get("category");
+        if (categoryName != null && !categoryName.isBlank()) {
+            category = categoriesByName.get(categoryName.trim().toLowerCase(Locale.ROOT));
+            if (category == null) {
+                throw new IllegalArgumentException("Category not found: " + categoryName);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Transaction t = new Transaction();
+        t.setTransactionId(UUID.randomUUID());
+        t.setUserId(userId);
+        t.setType(type);
+        t.setAmount(amount);
+        t.setName(name);
+        t.setNote(note);
+        t.setCategory(category);
+        t.setTransactionDate(parseDate(fields.get("transactionDate"), now));
+        t.setStatus("ACTIVE");
+        t.setCreatedAt(now);
+        t.setUpdatedAt(now);
+        return t;
+    }
+
+    /**
+     * Nạp category của user + default categories vào map theo tên (không phân biệt hoa thường).
+     * Category của user ghi đè default cùng tên.
+     */
+    private Map<String, Category> loadCategories(UUID userId) {
+        Map<String, Category> byName = new HashMap<>();
+        for (Category c : categoryRepository.findByUserIdOrIsDefaultTrue(userId)) {
+            String key = c.getName().trim().toLowerCase(Locale.ROOT);
+            if (userId.equals(c.getUserId()) || !byName.containsKey(key)) {
+                byName.put(key, c);
+            }
+        }
+        return byName;
+    }
+
+    private LocalDateTime parseDate(String value, LocalDateTime defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return value.length() <= 10
+                    ? LocalDate.parse(value.trim()).atStartOfDay()
+                    : LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("transactionDate không hợp lệ: " + value);
+        }
+    }
+
+    private String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value.trim();
+    }
+
+    private void addError(TransactionImportResultDto result, long lineNo, String message) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new TransactionImportResultDto.RowErrorDto(lineNo, message));
+        }
+    }
+
+    private Map<String, String> parseJsonLine(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON không hợp lệ");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Mỗi dòng phải là 1 JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(e -> {
+            if (!e.getValue().isNull()) {
+                fields.put(e.getKey(), e.getValue().asText());
+            }
+        });
+        return fields;
+    }
+
+    private Map<String, String> toFields(String[] header, List<String> values) {
+        if (values.size() > header.length) {
+            throw new IllegalArgumentException("Số cột nhiều hơn header");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header[i].trim(), values.get(i));
+        }
+        return fields;
+    }
+
+    /**
+     * Tách 1 dòng CSV (hỗ trợ giá trị trong dấu ngoặc kép và "" để escape)
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV thiếu dấu \" đóng");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    private record ImportRow(long lineNo, Transaction transaction) {
+    }
+}
@@ -2,9 +2,13 @@ package vn.uth.financeservice.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vn.uth.financeservice.dto.CursorPageDto;
+import vn.uth.financeservice.dto.TransactionBulkRequestDto;
+import vn.uth.financeservice.dto.TransactionBulkResultDto;
 import vn.uth.financeservice.dto.TransactionRequestDto;
 import vn.uth.financeservice.dto.TransactionResponseDto;
 import vn.uth.financeservice.entity.Category;
@@ -12,10 +16,8 @@ import vn.uth.financeservice.entity.Goal;
 import vn.uth.financeservice.entity.Transaction;
 import vn.uth.financeservice.entity.TransactionType;
 import vn.uth.financeservice.repository.CategoryRepository;
-import vn.uth.financeservice.repository.GoalRepository;
 import vn.uth.financeservice.repository.TransactionRepository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -27,8 +29,10 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
-    private final GoalRepository goalRepository;
     private final GoalService goalService;
+    private final TransactionAggregateService transactionAggregateService;
+    private final SummaryCache summaryCache;
+    private final DataVersionService dataVersionService;
 
     @Transactional
     public Transaction createTransaction(UUID userId, TransactionRequestDto request) {
@@ -54,24 +58,29 @@ public class TransactionService {
                 ? request.getTransactionDate() 
                 : LocalDateTime.now());
         
-        // Gắn transaction vào goal nếu có goalId và là INCOME
+        // Gắn transaction vào goal nếu có goalId và là INCOME (đọc thường, chưa khóa dòng goal)
+        Goal goal = null;
         if (request.getGoalId() != null && t.getType() == TransactionType.INCOME) {
-            Goal goal = goalRepository.findById(request.getGoalId())
-                    .orElseThrow(() -> new RuntimeException("Goal not found"));
+            goal = goalService.getOwnedGoal(request.getGoalId(), userId);
             t.setGoal(goal);
-            
-            // Cập nhật saved_amount của goal
-            BigDecimal currentSaved = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
-            goal.setSavedAmount(currentSaved.add(request.getAmount()));
-            goalRepository.save(goal);
-            
-            // Tự động check và update status của goal (COMPLETED nếu đạt mục tiêu)
-            goalService.checkAndUpdateGoalStatus(goal);
         }
         
         t.setStatus("ACTIVE");
         t.setCreatedAt(LocalDateTime.now());
         t.setUpdatedAt(LocalDateTime.now());
+
+        // Cập nhật balance ledger + daily rollup trong cùng transaction (t chưa INSERT)
+        transactionAggregateService.onCreatedBeforeInsert(t);
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
+
+        // Làm cuối cùng: cộng saved_amount bằng 1 câu UPDATE nguyên tử (kèm kiểm tra goal thuộc user,
+        // status cập nhật theo số tiền mới), rồi mới INSERT transaction. Khóa dòng goal chỉ giữ qua
+        // 2 câu lệnh này đến commit; INSERT sau UPDATE để khóa S của foreign key goal_id không bị
+        // nâng lên X (2 lần nạp song song sẽ deadlock)
+        if (goal != null) {
+            t.setGoal(goalService.applySavedAmountDelta(goal.getGoalId(), userId, request.getAmount(), null));
+        }
         return transactionRepository.save(t);
     }
 
@@ -84,20 +93,62 @@ public class TransactionService {
             throw new RuntimeException("Forbidden");
         }
         
-        // Nếu transaction đã được gắn vào goal và là INCOME, trừ lại saved_amount
-        if (t.getGoal() != null && t.getType() == TransactionType.INCOME && "ACTIVE".equals(t.getStatus())) {
-            Goal goal = t.getGoal();
-            BigDecimal currentSaved = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
-            goal.setSavedAmount(currentSaved.subtract(t.getAmount()));
-            goalRepository.save(goal);
-            
-            // Tự động check và update status của goal (có thể chuyển về ACTIVE nếu chưa đạt mục tiêu)
-            goalService.checkAndUpdateGoalStatus(goal);
-        }
-        
+        boolean wasActive = "ACTIVE".equals(t.getStatus());
         t.setStatus("DELETED");
         t.setUpdatedAt(LocalDateTime.now());
         transactionRepository.save(t);
+
+        // Trừ khỏi balance ledger + daily rollup (chỉ khi transaction đang ACTIVE, tránh trừ 2 lần)
+        if (wasActive) {
+            transactionAggregateService.onDeleted(t);
+        }
+        summaryCache.evictAfterCommit(userId);
+        dataVersionService.bump(userId);
+
+        // Nếu transaction đã được gắn vào goal và là INCOME, trừ lại saved_amount ở cuối (cùng thứ tự khóa
+        // với createTransaction: bảng tổng hợp trước, goal sau). Trừ bằng UPDATE nguyên tử; status có thể
+        // chuyển về ACTIVE nếu chưa đạt mục tiêu. Không cho xóa nếu số tiền nạp này đã bị rút khỏi goal
+        if (t.getGoal() != null && t.getType() == TransactionType.INCOME && wasActive) {
+            goalService.applySavedAmountDelta(t.getGoal().getGoalId(), userId, t.getAmount().negate(), null);
+        }
+    }
+
+    /**
+     * Thao tác hàng loạt theo bộ lọc: đổi category / xóa mềm / khôi phục.
+     * Mỗi thao tác là 1 câu UPDATE, sau đó tính lại ledger + rollup của user bằng GROUP BY.
+     * Transaction gắn goal không bị ảnh hưởng (saved_amount của goal phải đi qua API goal).
+     */
+    @Transactional
+    public TransactionBulkResultDto bulkUpdate(UUID userId, TransactionBulkRequestDto request) {
+        if (request.getFilter() == null || request.getFilter().isEmpty()) {
+            throw new IllegalArgumentException("filter must have at least one condition");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int affected = switch (request.getOperation()) {
+            case RECATEGORIZE -> {
+                if (request.getTargetCategoryId() == null) {
+                    throw new IllegalArgumentException("targetCategoryId is required for RECATEGORIZE");
+                }
+                Category target = categoryRepository.findById(request.getTargetCategoryId())
+                        .orElseThrow(() -> new RuntimeException("Category not found"));
+                if (!target.getIsDefault() && !target.getUserId().equals(userId)) {
+                    throw new RuntimeException("Forbidden");
+                }
+                yield transactionRepository.bulkUpdateCategory(userId, request.getFilter(), target, now);
+            }
+            case SOFT_DELETE -> transactionRepository.bulkUpdateStatus(
+                    userId, request.getFilter(), "ACTIVE", "DELETED", now);
+            case RESTORE -> transactionRepository.bulkUpdateStatus(
+                    userId, request.getFilter(), "DELETED", "ACTIVE", now);
+        };
+
+        if (affected > 0) {
+            transactionAggregateService.rebuildUser(userId);
+            summaryCache.evictAfterCommit(userId);
+            dataVersionService.bump(userId);
+        }
+        return new TransactionBulkResultDto(request.getOperation(), affected);
     }
 
     @Transactional(readOnly = true)
@@ -125,6 +176,36 @@ public class TransactionService {
         return transactions.map(this::toResponseDto);
     }
 
+    /**
+     * Phân trang theo cursor (keyset) cho infinite scroll: không COUNT, không OFFSET,
+     * chi phí mỗi trang không phụ thuộc đã cuộn sâu bao nhiêu.
+     * Thứ tự (transactionDate, createdAt, transactionId) là duy nhất nên không trùng / sót khi có insert mới.
+     *
+     * @param cursor null = trang đầu, hoặc nextCursor của trang trước
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<TransactionResponseDto> getTransactionsByCursor(UUID userId, String cursor, int size) {
+        // Lấy thêm 1 dòng để biết còn trang sau hay không
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findKeysetFirstPage(userId, "ACTIVE", limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findKeysetPageAfter(
+                    userId, "ACTIVE", after.transactionDate(), after.createdAt(), after.transactionId(), limit);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<Transaction> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        List<TransactionResponseDto> items = page.stream()
+                .map(this::toResponseDto)
+                .collect(Collectors.toList());
+        return new CursorPageDto<>(items, nextCursor, hasMore);
+    }
+
     private TransactionResponseDto toResponseDto(Transaction t) {
         return new TransactionResponseDto(
                 t.getTransactionId(),
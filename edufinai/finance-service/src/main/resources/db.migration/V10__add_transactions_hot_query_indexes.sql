@@ -0,0 +1,12 @@
+-- Flyway migration V10: Composite index cho các truy vấn nóng trên bảng transactions
+-- (chỉ có index đơn cột từ V2, MySQL phải lọc status/type/ngày sau khi đọc hết transactions của user)
+
+-- Theo user + loại giao dịch trong khoảng thời gian (thống kê INCOME/EXPENSE theo tháng)
+CREATE INDEX idx_txn_user_status_type_date ON transactions (user_id, status, type, transaction_date);
+
+-- Lịch sử giao dịch: trang offset/cursor, giao dịch gần đây, báo cáo ngày, export
+-- (ORDER BY transaction_date DESC, created_at DESC đọc ngược index, không cần filesort)
+CREATE INDEX idx_txn_user_status_date_created ON transactions (user_id, status, transaction_date, created_at);
+
+-- Theo category (chuyển transaction sang "Khác" khi xóa category, drilldown theo category)
+CREATE INDEX idx_txn_category_status_date ON transactions (category_id, status, transaction_date);
@@ -0,0 +1,7 @@
+-- Flyway migration V11: Version dữ liệu theo user (tăng sau mỗi thay đổi), dùng làm ETag cho các API đọc
+
+CREATE TABLE IF NOT EXISTS user_data_version (
+    user_id    BINARY(16) PRIMARY KEY,
+    version    BIGINT     NOT NULL,
+    updated_at DATETIME   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
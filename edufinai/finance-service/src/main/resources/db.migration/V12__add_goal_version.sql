@@ -0,0 +1,3 @@
+-- Flyway migration V12: Optimistic lock cho goal (saved_amount cập nhật bằng UPDATE có điều kiện)
+
+ALTER TABLE goal ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,34 @@
+-- Flyway migration V13: Giao dịch định kỳ (tiền nhà, lương, subscription, ...)
+-- Job hằng đêm sinh transaction cho các lần đến hạn, mỗi (template, ngày) đúng 1 lần
+
+CREATE TABLE IF NOT EXISTS recurring_transaction (
+    recurring_id    BINARY(16)    PRIMARY KEY,
+    user_id         BINARY(16)    NOT NULL,
+    type            VARCHAR(10)   NOT NULL, -- INCOME / EXPENSE
+    amount          DECIMAL(19,2) NOT NULL,
+    name            VARCHAR(255)  NOT NULL,
+    category_id     BINARY(16)    NULL,
+    note            TEXT          NULL,
+    frequency       VARCHAR(10)   NOT NULL, -- DAILY / WEEKLY / MONTHLY / YEARLY / CRON
+    interval_count  INT           NOT NULL DEFAULT 1,
+    cron_expression VARCHAR(100)  NULL,     -- chỉ dùng khi frequency = CRON
+    start_date      DATE          NOT NULL, -- lần đầu tiên, cũng là mốc ngày trong tháng / trong năm
+    end_date        DATE          NULL,
+    next_run_date   DATE          NOT NULL, -- lần kế tiếp chưa sinh transaction
+    last_run_date   DATE          NULL,
+    active          BOOLEAN       NOT NULL DEFAULT TRUE,
+    created_at      DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at      DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_recurring_category FOREIGN KEY (category_id) REFERENCES category(category_id)
+);
+
+-- Job quét template đến hạn theo keyset (next_run_date, recurring_id)
+CREATE INDEX idx_recurring_active_next_run ON recurring_transaction (active, next_run_date, recurring_id);
+CREATE INDEX idx_recurring_user ON recurring_transaction (user_id);
+
+-- Transaction sinh từ template: unique theo (template, ngày) để chạy lại job không sinh trùng
+-- (transaction nhập tay có 2 cột NULL, MySQL không coi các giá trị NULL là trùng nhau)
+ALTER TABLE transactions
+    ADD COLUMN recurring_id BINARY(16) NULL,
+    ADD COLUMN occurrence_date DATE NULL;
+CREATE UNIQUE INDEX uk_txn_recurring_occurrence ON transactions (recurring_id, occurrence_date);
@@ -0,0 +1,24 @@
+-- Flyway migration V14: Ngân sách theo category / tháng và bộ đếm chi tiêu để cảnh báo 80% / 100%
+
+CREATE TABLE IF NOT EXISTS category_budget (
+    budget_id   BINARY(16)    PRIMARY KEY,
+    user_id     BINARY(16)    NOT NULL,
+    category_id BINARY(16)    NOT NULL,
+    amount      DECIMAL(19,2) NOT NULL, -- hạn mức mỗi tháng
+    created_at  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_budget_user_category UNIQUE (user_id, category_id),
+    CONSTRAINT fk_budget_category FOREIGN KEY (category_id) REFERENCES category(category_id)
+);
+
+-- Tổng chi (EXPENSE ACTIVE) của category có ngân sách trong tháng, cộng/trừ delta theo từng transaction.
+-- Dòng của tháng được tạo lần đầu từ bảng rollup daily_user_category_totals.
+CREATE TABLE IF NOT EXISTS category_budget_usage (
+    user_id     BINARY(16)    NOT NULL,
+    category_id BINARY(16)    NOT NULL,
+    month_start DATE          NOT NULL, -- ngày 1 của tháng
+    spent       DECIMAL(19,2) NOT NULL DEFAULT 0,
+    alert_level INT           NOT NULL DEFAULT 0, -- ngưỡng cao nhất đã cảnh báo trong tháng: 0 / 80 / 100
+    updated_at  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, category_id, month_start)
+);
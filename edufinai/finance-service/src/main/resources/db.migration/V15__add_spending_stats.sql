@@ -0,0 +1,14 @@
+-- Flyway migration V15: Thống kê chi tiêu chạy (Welford) theo user / category để phát hiện khoản chi bất thường
+
+CREATE TABLE IF NOT EXISTS spending_stats (
+    user_id     BINARY(16) NOT NULL,
+    category_id BINARY(16) NOT NULL, -- 0x00..00 cho transaction không có category
+    txn_count   BIGINT     NOT NULL DEFAULT 0,
+    mean        DOUBLE     NOT NULL DEFAULT 0,
+    m2          DOUBLE     NOT NULL DEFAULT 0, -- tổng bình phương độ lệch, phương sai = m2 / (txn_count - 1)
+    updated_at  DATETIME   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, category_id)
+);
+
+-- Số độ lệch chuẩn so với mức chi thường ngày của category (chỉ có khi transaction bị đánh dấu bất thường)
+ALTER TABLE transactions ADD COLUMN anomaly_score DOUBLE NULL;
@@ -0,0 +1,22 @@
+-- Flyway migration V5: Add per-user balance ledger (running totals of ACTIVE transactions)
+
+CREATE TABLE IF NOT EXISTS user_balance_ledger (
+    user_id            BINARY(16)    PRIMARY KEY,
+    total_income       DECIMAL(19,2) NOT NULL DEFAULT 0, -- INCOME không gắn goal
+    total_goal_deposit DECIMAL(19,2) NOT NULL DEFAULT 0, -- INCOME có gắn goal
+    total_expense      DECIMAL(19,2) NOT NULL DEFAULT 0,
+    total_withdrawal   DECIMAL(19,2) NOT NULL DEFAULT 0,
+    updated_at         DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill ledger từ dữ liệu hiện có (chỉ ACTIVE)
+INSERT INTO user_balance_ledger (user_id, total_income, total_goal_deposit, total_expense, total_withdrawal, updated_at)
+SELECT user_id,
+       COALESCE(SUM(CASE WHEN type = 'INCOME' AND goal_id IS NULL THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN type = 'INCOME' AND goal_id IS NOT NULL THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN type = 'WITHDRAWAL' THEN amount END), 0),
+       CURRENT_TIMESTAMP
+FROM transactions
+WHERE status = 'ACTIVE'
+GROUP BY user_id;
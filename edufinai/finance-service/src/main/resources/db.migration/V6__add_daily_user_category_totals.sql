@@ -0,0 +1,35 @@
+-- Flyway migration V6: Daily rollup of ACTIVE transactions per (user, day, category, type, goal flag)
+
+CREATE TABLE IF NOT EXISTS daily_user_category_totals (
+    user_id      BINARY(16)    NOT NULL,
+    txn_date     DATE          NOT NULL,
+    category_id  BINARY(16)    NOT NULL, -- 0x00..00 nếu transaction không có category
+    type         VARCHAR(20)   NOT NULL, -- INCOME / EXPENSE / WITHDRAWAL
+    goal_linked  BOOLEAN       NOT NULL, -- transaction có gắn goal
+    total_amount DECIMAL(19,2) NOT NULL DEFAULT 0,
+    txn_count    BIGINT        NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, txn_date, category_id, type, goal_linked)
+);
+
+-- User đã được backfill rollup (user chưa có dòng ở đây sẽ được backfill khi ghi/đọc lần đầu)
+CREATE TABLE IF NOT EXISTS daily_rollup_user_state (
+    user_id       BINARY(16) PRIMARY KEY,
+    backfilled_at DATETIME   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill rollup từ dữ liệu hiện có (chỉ ACTIVE)
+INSERT INTO daily_user_category_totals (user_id, txn_date, category_id, type, goal_linked, total_amount, txn_count)
+SELECT user_id,
+       DATE(transaction_date),
+       COALESCE(category_id, UNHEX(REPEAT('0', 32))),
+       type,
+       goal_id IS NOT NULL,
+       SUM(amount),
+       COUNT(*)
+FROM transactions
+WHERE status = 'ACTIVE'
+GROUP BY user_id, DATE(transaction_date), category_id, type, goal_id IS NOT NULL;
+
+INSERT INTO daily_rollup_user_state (user_id, backfilled_at)
+SELECT DISTINCT user_id, CURRENT_TIMESTAMP
+FROM transactions;
@@ -0,0 +1,18 @@
+-- Flyway migration V7: Transactional outbox cho event gửi sang service khác (gamification, ...)
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    event_id        BINARY(16)   PRIMARY KEY,
+    user_id         BINARY(16)   NOT NULL,
+    destination     VARCHAR(20)  NOT NULL, -- GAMIFICATION
+    event_type      VARCHAR(50)  NOT NULL,
+    payload         TEXT         NOT NULL, -- JSON body gửi đi
+    status          VARCHAR(10)  NOT NULL, -- PENDING / DELIVERED / FAILED
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME     NOT NULL,
+    last_error      VARCHAR(500) NULL,
+    created_at      DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    delivered_at    DATETIME     NULL
+);
+
+-- Relay chỉ quét event PENDING đến hạn
+CREATE INDEX idx_outbox_status_next_attempt ON outbox_event (status, next_attempt_at);
@@ -0,0 +1,4 @@
+-- Flyway migration V8: Index cho job chuyển goal quá hạn sang FAILED
+-- (WHERE status = 'ACTIVE' AND end_at < now)
+
+CREATE INDEX idx_goal_status_end_at ON goal (status, end_at);
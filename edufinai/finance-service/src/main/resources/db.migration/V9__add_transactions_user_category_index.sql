@@ -0,0 +1,4 @@
+-- Flyway migration V9: Index cho Category Transactions API
+-- (WHERE user_id = ? AND category_id = ? AND status = 'ACTIVE' AND transaction_date trong tháng)
+
+CREATE INDEX idx_txn_user_category_status_date ON transactions (user_id, category_id, status, transaction_date);
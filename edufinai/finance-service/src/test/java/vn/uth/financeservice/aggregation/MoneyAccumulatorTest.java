@@ -0,0 +1,95 @@
+package vn.uth.financeservice.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyAccumulatorTest {
+
+    @Test
+    void matchesBigDecimalReduceIncludingScale() {
+        List<BigDecimal> amounts = List.of(
+                new BigDecimal("150000.00"), new BigDecimal("0.05"), new BigDecimal("-20.10"), new BigDecimal("99999999.99"));
+
+        MoneyAccumulator acc = new MoneyAccumulator();
+        amounts.forEach(acc::add);
+
+        BigDecimal expected = amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(expected, acc.total()); // equals() so sánh cả scale
+        assertEquals(4, acc.count());
+        assertTrue(acc.fitsInLong());
+    }
+
+    @Test
+    void emptyAndLowScaleInputsKeepReduceScale() {
+        assertEquals(BigDecimal.ZERO, new MoneyAccumulator().total());
+
+        MoneyAccumulator acc = new MoneyAccumulator()
+                .add(new BigDecimal("50000"))
+                .add(new BigDecimal("2.5"))
+                .add(null);
+        assertEquals(new BigDecimal("50002.5"), acc.total());
+        assertEquals(2, acc.count());
+    }
+
+    @Test
+    void overflowFallsBackToBigDecimal() {
+        // 18 chữ số: vẫn đi đường long, cộng 10 lần thì tràn long
+        BigDecimal big = BigDecimal.valueOf(999_999_999_999_999_999L, 2);
+        MoneyAccumulator acc = new MoneyAccumulator();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 10; i++) {
+            acc.add(big);
+            expected = expected.add(big);
+        }
+        acc.add(new BigDecimal("0.01"));
+        expected = expected.add(new BigDecimal("0.01"));
+
+        assertEquals(expected, acc.total());
+        assertFalse(acc.fitsInLong());
+        assertThrows(ArithmeticException.class, acc::minorUnits);
+    }
+
+    @Test
+    void amountsWithMoreThanTwoDecimalsStayExact() {
+        MoneyAccumulator acc = new MoneyAccumulator()
+                .add(new BigDecimal("1.005"))
+                .add(new BigDecimal("2.10"));
+
+        assertEquals(new BigDecimal("3.105"), acc.total());
+    }
+
+    @Test
+    void randomAmountsMatchReduce() {
+        Random random = new Random(42);
+        MoneyAccumulator acc = new MoneyAccumulator();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 1_000_000_000_00L, 2);
+            acc.add(amount);
+            expected = expected.add(amount);
+        }
+        assertEquals(expected, acc.total());
+    }
+
+    @Test
+    void groupsByIntKeyInInsertionOrder() {
+        IntKeyedMoneySums byDay = new IntKeyedMoneySums(2);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 100; i++) {
+            byDay.add(IntKeyedMoneySums.dayKey(start.plusDays(i % 40)), new BigDecimal("1.50"));
+        }
+
+        assertEquals(40, byDay.size());
+        assertEquals(start, IntKeyedMoneySums.dayOf(byDay.keys()[0]));
+        // Ngày 0..19 xuất hiện 3 lần, ngày 20..39 xuất hiện 2 lần
+        assertEquals(new BigDecimal("4.50"), byDay.total(IntKeyedMoneySums.dayKey(start)));
+        assertEquals(2, byDay.count(IntKeyedMoneySums.dayKey(start.plusDays(39))));
+        assertEquals(BigDecimal.ZERO, byDay.total(IntKeyedMoneySums.dayKey(start.minusDays(1))));
+    }
+}
@@ -0,0 +1,72 @@
+package vn.uth.financeservice.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningStatsTest {
+
+    @Test
+    void matchesTwoPassMeanAndSampleStddev() {
+        double[] values = {120_000, 85_000, 40_000, 250_000, 99_000, 61_500};
+        RunningStats stats = new RunningStats();
+        for (double v : values) {
+            stats.add(v);
+        }
+
+        double mean = 0;
+        for (double v : values) {
+            mean += v / values.length;
+        }
+        double ss = 0;
+        for (double v : values) {
+            ss += (v - mean) * (v - mean);
+        }
+
+        assertEquals(values.length, stats.count());
+        assertEquals(mean, stats.mean(), 1e-6);
+        assertEquals(Math.sqrt(ss / (values.length - 1)), stats.stddev(), 1e-6);
+    }
+
+    @Test
+    void mergeAndRemoveMatchSequentialAdds() {
+        Random random = new Random(42);
+        RunningStats all = new RunningStats();
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        double last = 0;
+        for (int i = 0; i < 1_000; i++) {
+            last = 10_000 + random.nextInt(5_000_000);
+            all.add(last);
+            (i % 3 == 0 ? left : right).add(last);
+        }
+
+        left.merge(right);
+        assertEquals(all.count(), left.count());
+        assertEquals(all.mean(), left.mean(), 1e-6);
+        assertEquals(all.stddev(), left.stddev(), 1e-3);
+
+        RunningStats withoutLast = new RunningStats();
+        Random replay = new Random(42);
+        for (int i = 0; i < 999; i++) {
+            withoutLast.add(10_000 + replay.nextInt(5_000_000));
+        }
+        all.remove(last);
+        assertEquals(withoutLast.count(), all.count());
+        assertEquals(withoutLast.mean(), all.mean(), 1e-6);
+        assertEquals(withoutLast.stddev(), all.stddev(), 1e-3);
+    }
+
+    @Test
+    void zScoreIsNaNWithoutSpread() {
+        RunningStats stats = new RunningStats().add(50_000).add(50_000);
+        assertEquals(0, stats.stddev());
+        assertTrue(Double.isNaN(stats.zScore(1_000_000)));
+
+        stats.remove(50_000).remove(50_000);
+        assertEquals(0, stats.count());
+        assertEquals(0, stats.mean());
+    }
+}
@@ -0,0 +1,60 @@
+package vn.uth.financeservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import vn.uth.financeservice.service.DataVersionService;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalGetTest {
+
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private final ConditionalGet conditionalGet = new ConditionalGet(dataVersionService);
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void matchingIfNoneMatchReturns304WithoutRunningQuery() {
+        when(dataVersionService.etag(userId)).thenReturn("W/\"v7\"");
+        AtomicInteger loads = new AtomicInteger();
+
+        ResponseEntity<String> first = conditionalGet.respond(get(null), userId, () -> "body" + loads.incrementAndGet());
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals("body1", first.getBody());
+        assertEquals("W/\"v7\"", first.getHeaders().getETag());
+
+        ResponseEntity<String> second = conditionalGet.respond(get(first.getHeaders().getETag()), userId,
+                () -> "body" + loads.incrementAndGet());
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertNull(second.getBody());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void changedVersionReturnsFreshBody() {
+        when(dataVersionService.etag(userId)).thenReturn("W/\"v8\"");
+
+        ResponseEntity<String> response = conditionalGet.respond(get("W/\"v7\""), userId, () -> "fresh");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("fresh", response.getBody());
+        assertEquals("W/\"v8\"", response.getHeaders().getETag());
+    }
+
+    private static ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/summary/daily");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,112 @@
+package vn.uth.financeservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Định tuyến đọc/ghi trên 2 DB H2 nhúng: mỗi DB có bảng node chứa tên của chính nó.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ReadYourWritesGuard guard = new ReadYourWritesGuard(5, nanos::get);
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, guard));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbc = new JdbcTemplate(routing);
+        writeTx = new TransactionTemplate(transactionManager);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertEquals("replica", readTx.execute(status -> currentNode()));
+        assertEquals("primary", writeTx.execute(status -> currentNode()));
+        // Ngoài transaction (vd Hibernate khởi tạo schema) luôn dùng primary
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryUntilWindowExpires() {
+        UUID writer = UUID.randomUUID();
+        startRequest(writer);
+        writeTx.executeWithoutResult(status -> jdbc.update("update node set name = name"));
+
+        assertEquals("primary", readTx.execute(status -> currentNode()));
+
+        startRequest(UUID.randomUUID());
+        assertEquals("replica", readTx.execute(status -> currentNode()));
+
+        startRequest(writer);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals("replica", readTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinUser() {
+        UUID userId = UUID.randomUUID();
+        startRequest(userId);
+        writeTx.executeWithoutResult(status -> {
+            jdbc.update("update node set name = name");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readTx.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return jdbc.queryForObject("select name from node", String.class);
+    }
+
+    private void startRequest(UUID userId) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        guard.bindCurrentUser(userId);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + UUID.randomUUID())
+                .build();
+        new JdbcTemplate(database).execute("create table node (name varchar(20))");
+        new JdbcTemplate(database).update("insert into node (name) values (?)", name);
+        return database;
+    }
+}
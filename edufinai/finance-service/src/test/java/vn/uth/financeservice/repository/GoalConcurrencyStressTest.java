@@ -0,0 +1,218 @@
+package vn.uth.financeservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import vn.uth.financeservice.dto.GoalWithdrawRequestDto;
+import vn.uth.financeservice.dto.TransactionRequestDto;
+import vn.uth.financeservice.service.BalanceLedgerService;
+import vn.uth.financeservice.service.BudgetService;
+import vn.uth.financeservice.service.DailyRollupService;
+import vn.uth.financeservice.service.DataVersionService;
+import vn.uth.financeservice.service.GoalService;
+import vn.uth.financeservice.service.OutboxService;
+import vn.uth.financeservice.service.SpendingAnomalyService;
+import vn.uth.financeservice.service.SummaryCache;
+import vn.uth.financeservice.service.TransactionAggregateService;
+import vn.uth.financeservice.service.TransactionService;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nhiều thread cùng nạp / rút 1 goal qua TransactionService.createTransaction và GoalService.withdrawFromGoal
+ * trên MySQL thật: không được mất cập nhật, saved_amount không bao giờ âm, ledger khớp với goal.
+ * Thông lượng của thứ tự mới (khóa dòng goal ở cuối) được so với thứ tự cũ (khóa dòng goal từ câu lệnh đầu)
+ * và ghi ra log, không assert (phụ thuộc máy).
+ * Tự bỏ qua khi máy không có Docker.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionService.class, GoalService.class, TransactionAggregateService.class,
+        BalanceLedgerService.class, DailyRollupService.class, BudgetService.class,
+        SpendingAnomalyService.class, DataVersionService.class})
+class GoalConcurrencyStressTest {
+
+    private static final Logger log = LoggerFactory.getLogger(GoalConcurrencyStressTest.class);
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 25;
+    private static final BigDecimal DEPOSIT = new BigDecimal("10.00");
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.driver-class-name", MYSQL::getDriverClassName);
+    }
+
+    @MockitoBean
+    private OutboxService outboxService;
+    @MockitoBean
+    private SummaryCache summaryCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private GoalService goalService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentDepositsAreNotLostAndLockGoalOnlyAtTheEnd() throws Exception {
+        int deposits = THREADS * OPS_PER_THREAD;
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // Thứ tự cũ: dòng goal bị khóa ngay câu lệnh đầu và giữ qua INSERT + cập nhật bảng tổng hợp
+        UUID oldUser = UUID.randomUUID();
+        UUID oldGoal = seedGoal(oldUser);
+        transactionService.createTransaction(oldUser, deposit(oldGoal)); // tạo sẵn ledger / rollup của user
+        long lockFirstMs = runConcurrently(deposits, () -> tx.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT version FROM goal WHERE goal_id = ? FOR UPDATE", Long.class, bytes(oldGoal));
+            transactionService.createTransaction(oldUser, deposit(oldGoal));
+        }));
+
+        // Thứ tự mới: service tự khóa dòng goal ở câu UPDATE cuối cùng
+        UUID newUser = UUID.randomUUID();
+        UUID newGoal = seedGoal(newUser);
+        transactionService.createTransaction(newUser, deposit(newGoal));
+        long lockLastMs = runConcurrently(deposits, () -> transactionService.createTransaction(newUser, deposit(newGoal)));
+
+        log.info("Goal deposits via TransactionService ({} threads, {} deposits): lock-first {} ms ({} ops/s), lock-last {} ms ({} ops/s)",
+                THREADS, deposits, lockFirstMs, opsPerSecond(deposits, lockFirstMs), lockLastMs, opsPerSecond(deposits, lockLastMs));
+
+        BigDecimal expected = DEPOSIT.multiply(BigDecimal.valueOf(deposits + 1L));
+        assertEquals(0, expected.compareTo(savedAmount(newGoal)));
+        assertEquals(0, expected.compareTo(savedAmount(oldGoal)));
+        assertEquals(deposits + 1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE goal_id = ? AND status = 'ACTIVE'", Integer.class, bytes(newGoal)));
+        assertEquals(0, expected.compareTo(jdbcTemplate.queryForObject(
+                "SELECT total_goal_deposit FROM user_balance_ledger WHERE user_id = ?", BigDecimal.class, bytes(newUser))));
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOverdraw() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID goalId = seedGoal(userId);
+        TransactionRequestDto initial = deposit(goalId);
+        initial.setAmount(new BigDecimal("10000.00"));
+        transactionService.createTransaction(userId, initial);
+        // Category "Rút tiền" có sẵn, để các lần rút đầu tiên không tranh nhau tạo category
+        jdbcTemplate.update("INSERT INTO category (category_id, user_id, name, type, is_default, created_at) " +
+                        "VALUES (?, ?, 'Rút tiền', 'EXPENSE', false, ?)",
+                bytes(UUID.randomUUID()), bytes(userId), Timestamp.valueOf(LocalDateTime.now()));
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(50, () -> {
+            GoalWithdrawRequestDto request = new GoalWithdrawRequestDto();
+            request.setAmount(new BigDecimal("1000.00"));
+            try {
+                goalService.withdrawFromGoal(goalId, request, userId);
+                succeeded.incrementAndGet();
+            } catch (RuntimeException e) {
+                rejected.incrementAndGet(); // không đủ tiền: cả transaction bị rollback
+            }
+        });
+
+        assertEquals(10, succeeded.get());
+        assertEquals(40, rejected.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(savedAmount(goalId)));
+        assertEquals(10, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE goal_id = ? AND type = 'WITHDRAWAL'", Integer.class, bytes(goalId)));
+        assertEquals(0, new BigDecimal("10000.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT total_withdrawal FROM user_balance_ledger WHERE user_id = ?", BigDecimal.class, bytes(userId))));
+    }
+
+    private long runConcurrently(int tasks, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long opsPerSecond(int ops, long elapsedMs) {
+        return elapsedMs == 0 ? ops : ops * 1000L / elapsedMs;
+    }
+
+    private static TransactionRequestDto deposit(UUID goalId) {
+        TransactionRequestDto request = new TransactionRequestDto();
+        request.setType("INCOME");
+        request.setAmount(DEPOSIT);
+        request.setName("Nạp mục tiêu");
+        request.setGoalId(goalId);
+        return request;
+    }
+
+    private UUID seedGoal(UUID userId) {
+        UUID goalId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO goal (goal_id, user_id, title, amount, start_at, end_at, status, updated_at, new_status, saved_amount, version) " +
+                        "VALUES (?, ?, 'Goal', 1000000, ?, ?, 'ACTIVE', ?, 'ACTIVE', 0, 0)",
+                bytes(goalId), bytes(userId), Timestamp.valueOf(now), Timestamp.valueOf(now.plusDays(30)),
+                Timestamp.valueOf(now));
+        return goalId;
+    }
+
+    private BigDecimal savedAmount(UUID goalId) {
+        return jdbcTemplate.queryForObject("SELECT saved_amount FROM goal WHERE goal_id = ?", BigDecimal.class, bytes(goalId));
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,201 @@
+package vn.uth.financeservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy EXPLAIN cho các truy vấn nóng (SQL tương ứng với query trong repository) trên MySQL thật
+ * và fail nếu truy vấn nào phải full scan (type = ALL) bảng chính.
+ * Schema tạo bằng Hibernate từ entity (index khai báo trong @Table trùng với migration V8 - V10).
+ * Tự bỏ qua khi máy không có Docker.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanRegressionTest {
+
+    private static final int USERS = 200;
+    private static final int TXNS_PER_USER = 60;
+    private static final int CATEGORIES = 50;
+    private static final String[] TYPES = {"INCOME", "EXPENSE", "WITHDRAWAL"};
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.driver-class-name", MYSQL::getDriverClassName);
+    }
+
+    private static boolean seeded;
+    private static final UUID USER_ID = new UUID(1L, 1L);
+    private static final UUID CATEGORY_ID = new UUID(2L, 1L);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> categoryIds = new ArrayList<>();
+        for (int c = 1; c <= CATEGORIES; c++) {
+            UUID categoryId = new UUID(2L, c);
+            categoryIds.add(categoryId);
+            jdbcTemplate.update(
+                    "INSERT INTO category (category_id, user_id, name, type, is_default, created_at) VALUES (?, ?, ?, 'EXPENSE', true, ?)",
+                    bytes(categoryId), bytes(new UUID(0L, 0L)), "Category " + c, Timestamp.valueOf(now));
+        }
+
+        List<Object[]> goals = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int u = 1; u <= USERS; u++) {
+            UUID userId = new UUID(1L, u);
+            // Phần lớn goal đã kết thúc (FAILED / COMPLETED), goal ACTIVE còn hạn
+            String[] goalStatuses = {"FAILED", "COMPLETED", "ACTIVE"};
+            for (int g = 0; g < goalStatuses.length; g++) {
+                LocalDateTime endAt = g == 2 ? now.plusDays(30) : now.minusDays(30L * (g + 1));
+                goals.add(new Object[]{bytes(UUID.randomUUID()), bytes(userId), "Goal", 1000, Timestamp.valueOf(now.minusDays(120)),
+                        Timestamp.valueOf(endAt), goalStatuses[g], Timestamp.valueOf(now), goalStatuses[g], 100, 0});
+            }
+            for (int i = 0; i < TXNS_PER_USER; i++) {
+                LocalDateTime date = now.minusDays(i * 3L);
+                rows.add(new Object[]{bytes(UUID.randomUUID()), bytes(userId), TYPES[i % TYPES.length], 10 + i, "Txn " + i,
+                        bytes(categoryIds.get(i % categoryIds.size())), Timestamp.valueOf(date),
+                        i % 10 == 0 ? "DELETED" : "ACTIVE", Timestamp.valueOf(date), Timestamp.valueOf(date)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO goal (goal_id, user_id, title, amount, start_at, end_at, status, updated_at, new_status, saved_amount, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", goals);
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (transaction_id, user_id, type, amount, name, category_id, transaction_date, status, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE TABLE transactions, goal, category");
+        seeded = true;
+    }
+
+    @Test
+    void transactionHistoryPageUsesIndex() {
+        // TransactionRepository.findByUserIdAndStatusOrderByTransactionDateDesc / findKeysetFirstPage
+        assertNoFullScan("transactions",
+                "SELECT * FROM transactions WHERE user_id = ? AND status = 'ACTIVE' " +
+                "ORDER BY transaction_date DESC, created_at DESC, transaction_id DESC LIMIT 21",
+                bytes(USER_ID));
+    }
+
+    @Test
+    void keysetPageAfterCursorUsesIndex() {
+        // TransactionRepository.findKeysetPageAfter
+        LocalDateTime cursor = LocalDateTime.now().minusDays(30);
+        assertNoFullScan("transactions",
+                "SELECT * FROM transactions WHERE user_id = ? AND status = 'ACTIVE' " +
+                "AND (transaction_date < ? OR (transaction_date = ? AND created_at < ?) " +
+                "OR (transaction_date = ? AND created_at = ? AND transaction_id < ?)) " +
+                "ORDER BY transaction_date DESC, created_at DESC, transaction_id DESC LIMIT 21",
+                bytes(USER_ID), Timestamp.valueOf(cursor), Timestamp.valueOf(cursor), Timestamp.valueOf(cursor),
+                Timestamp.valueOf(cursor), Timestamp.valueOf(cursor), bytes(UUID.randomUUID()));
+    }
+
+    @Test
+    void monthRangeByTypeUsesIndex() {
+        // TransactionRepository.findByUserIdAndTypeAndStatusAndTransactionDateBetween
+        LocalDateTime end = LocalDateTime.now();
+        assertNoFullScan("transactions",
+                "SELECT * FROM transactions WHERE user_id = ? AND type = 'EXPENSE' AND status = 'ACTIVE' " +
+                "AND transaction_date BETWEEN ? AND ?",
+                bytes(USER_ID), Timestamp.valueOf(end.minusMonths(1)), Timestamp.valueOf(end));
+    }
+
+    @Test
+    void dailyReportRowsUseIndex() {
+        // TransactionRepository.findReportRowsBetween
+        LocalDateTime end = LocalDateTime.now();
+        assertNoFullScan("transactions",
+                "SELECT transaction_date, type, amount, name, goal_id FROM transactions " +
+                "WHERE user_id = ? AND status = 'ACTIVE' AND transaction_date >= ? AND transaction_date < ?",
+                bytes(USER_ID), Timestamp.valueOf(end.minusDays(2)), Timestamp.valueOf(end));
+    }
+
+    @Test
+    void ledgerTotalsUseIndex() {
+        // TransactionRepository.sumLedgerTotalsByUserId
+        assertNoFullScan("transactions",
+                "SELECT type, SUM(CASE WHEN goal_id IS NULL THEN amount END), SUM(CASE WHEN goal_id IS NOT NULL THEN amount END) " +
+                "FROM transactions WHERE user_id = ? AND status = 'ACTIVE' GROUP BY type",
+                bytes(USER_ID));
+    }
+
+    @Test
+    void categoryDrilldownUsesIndex() {
+        // TransactionRepository.findCategoryPage
+        LocalDateTime start = LocalDateTime.now().withDayOfMonth(1);
+        assertNoFullScan("transactions",
+                "SELECT * FROM transactions WHERE user_id = ? AND category_id = ? AND status = 'ACTIVE' " +
+                "AND transaction_date >= ? AND transaction_date < ? " +
+                "ORDER BY transaction_date DESC, created_at DESC, transaction_id DESC LIMIT 20",
+                bytes(USER_ID), bytes(CATEGORY_ID), Timestamp.valueOf(start), Timestamp.valueOf(start.plusMonths(1)));
+    }
+
+    @Test
+    void categoryReassignUsesIndex() {
+        // TransactionRepository.reassignCategory
+        assertNoFullScan("transactions",
+                "UPDATE transactions SET category_id = ?, updated_at = ? WHERE category_id = ?",
+                bytes(new UUID(2L, CATEGORIES)), Timestamp.valueOf(LocalDateTime.now()), bytes(CATEGORY_ID));
+    }
+
+    @Test
+    void overdueGoalScanUsesIndex() {
+        // GoalRepository.findOverdue
+        assertNoFullScan("goal",
+                "SELECT goal_id, user_id FROM goal WHERE status = 'ACTIVE' AND end_at < ? AND saved_amount < amount " +
+                "ORDER BY end_at LIMIT 500",
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void assertNoFullScan(String table, String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        List<Map<String, Object>> tableRows = plan.stream()
+                .filter(row -> table.equals(row.get("table")))
+                .toList();
+
+        assertFalse(tableRows.isEmpty(), "EXPLAIN has no row for table " + table + ": " + plan);
+        for (Map<String, Object> row : tableRows) {
+            assertNotEquals("ALL", row.get("type"), "Full table scan on " + table + " for: " + sql + "\nplan: " + plan);
+            assertNotNull(row.get("key"), "No index used on " + table + " for: " + sql + "\nplan: " + plan);
+        }
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,154 @@
+package vn.uth.financeservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vn.uth.financeservice.entity.Category;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.CategoryBudgetRepository;
+import vn.uth.financeservice.repository.CategoryBudgetUsageRepository;
+import vn.uth.financeservice.repository.CategoryRepository;
+import vn.uth.financeservice.repository.projection.BudgetUsageStateView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetServiceTest {
+
+    @Mock
+    private CategoryBudgetRepository budgetRepository;
+    @Mock
+    private CategoryBudgetUsageRepository usageRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private DailyRollupService dailyRollupService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private DataVersionService dataVersionService;
+
+    private BudgetService budgetService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+    private final LocalDate monthStart = YearMonth.now().atDay(1);
+
+    @BeforeEach
+    void setUp() {
+        budgetService = new BudgetService(budgetRepository, usageRepository, categoryRepository,
+                dailyRollupService, outboxService, dataVersionService);
+    }
+
+    @Test
+    void expensesOfSameCategoryAndMonthAreOneCounterUpdate() {
+        when(usageRepository.addSpent(eq(userId), eq(categoryId), eq(monthStart), any(), any())).thenReturn(1);
+        when(usageRepository.findState(userId, categoryId, monthStart)).thenReturn(Optional.of(state("500", "1000", 0)));
+
+        budgetService.applyAll(userId, List.of(expense("200"), expense("300")), 1);
+
+        verify(usageRepository).addSpent(eq(userId), eq(categoryId), eq(monthStart),
+                argThat(delta -> delta.compareTo(new BigDecimal("500")) == 0), any());
+        verify(usageRepository, never()).raiseAlertLevel(any(), any(), any(), anyInt());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void crossingThresholdQueuesOneNotification() {
+        when(usageRepository.addSpent(any(), any(), any(), any(), any())).thenReturn(1);
+        when(usageRepository.findState(userId, categoryId, monthStart)).thenReturn(Optional.of(state("850", "1000", 0)));
+        when(usageRepository.raiseAlertLevel(userId, categoryId, monthStart, 80)).thenReturn(1);
+
+        budgetService.applyAll(userId, List.of(expense("100")), 1);
+
+        verify(outboxService).enqueueUserNotification(eq(userId), eq("BUDGET_80"), anyString(), anyString(),
+                argThat(data -> "80".equals(data.get("level")) && categoryId.toString().equals(data.get("categoryId"))));
+    }
+
+    @Test
+    void concurrentCrossingLosesRaceWithoutNotification() {
+        when(usageRepository.addSpent(any(), any(), any(), any(), any())).thenReturn(1);
+        when(usageRepository.findState(userId, categoryId, monthStart)).thenReturn(Optional.of(state("1200", "1000", 80)));
+        when(usageRepository.raiseAlertLevel(userId, categoryId, monthStart, 100)).thenReturn(0);
+
+        budgetService.applyAll(userId, List.of(expense("300")), 1);
+
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void deletionBelowThresholdLowersAlertLevel() {
+        when(usageRepository.addSpent(any(), any(), any(), any(), any())).thenReturn(1);
+        when(usageRepository.findState(userId, categoryId, monthStart)).thenReturn(Optional.of(state("700", "1000", 100)));
+
+        budgetService.applyAll(userId, List.of(expense("400")), -1);
+
+        verify(usageRepository).addSpent(eq(userId), eq(categoryId), eq(monthStart),
+                argThat(delta -> delta.compareTo(new BigDecimal("-400")) == 0), any());
+        verify(usageRepository).lowerAlertLevel(userId, categoryId, monthStart, 0);
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void categoryWithoutBudgetStopsAfterSeedAttempt() {
+        when(usageRepository.addSpent(any(), any(), any(), any(), any())).thenReturn(0);
+        when(usageRepository.seedFromRollup(any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        budgetService.applyAll(userId, List.of(expense("100")), 1);
+
+        verify(usageRepository, never()).findState(any(), any(), any());
+    }
+
+    @Test
+    void incomeAndUncategorizedAreIgnored() {
+        Transaction income = expense("100");
+        income.setType(TransactionType.INCOME);
+        Transaction uncategorized = expense("100");
+        uncategorized.setCategory(null);
+
+        budgetService.applyAll(userId, List.of(income, uncategorized), 1);
+
+        verifyNoInteractions(usageRepository);
+    }
+
+    @Test
+    void alertLevelThresholds() {
+        assertEquals(0, BudgetService.alertLevel(new BigDecimal("799.99"), new BigDecimal("1000")));
+        assertEquals(80, BudgetService.alertLevel(new BigDecimal("800"), new BigDecimal("1000")));
+        assertEquals(100, BudgetService.alertLevel(new BigDecimal("1000.00"), new BigDecimal("1000")));
+    }
+
+    private Transaction expense(String amount) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+        Transaction t = new Transaction();
+        t.setUserId(userId);
+        t.setType(TransactionType.EXPENSE);
+        t.setAmount(new BigDecimal(amount));
+        t.setCategory(category);
+        t.setTransactionDate(LocalDateTime.now());
+        return t;
+    }
+
+    private static BudgetUsageStateView state(String spent, String budget, int alertLevel) {
+        return new BudgetUsageStateView() {
+            public BigDecimal getSpent() { return new BigDecimal(spent); }
+            public BigDecimal getBudgetAmount() { return new BigDecimal(budget); }
+            public Integer getAlertLevel() { return alertLevel; }
+            public String getCategoryName() { return "Ăn uống"; }
+        };
+    }
+}
@@ -0,0 +1,196 @@
+package vn.uth.financeservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.client.GamificationServiceClient;
+import vn.uth.financeservice.client.NotificationServiceClient;
+import vn.uth.financeservice.entity.OutboxDestination;
+import vn.uth.financeservice.entity.OutboxEvent;
+import vn.uth.financeservice.entity.OutboxStatus;
+import vn.uth.financeservice.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private GamificationServiceClient gamificationServiceClient;
+    @Mock
+    private NotificationServiceClient notificationServiceClient;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        // TransactionTemplate thật trên transaction manager rỗng: đủ để TransactionSynchronizationManager
+        // phản ánh đúng lúc nào đang ở trong transaction
+        outboxService = new OutboxService(outboxEventRepository, gamificationServiceClient,
+                notificationServiceClient, new TransactionTemplate(new NoOpTransactionManager()), new ObjectMapper());
+    }
+
+    @Test
+    void deliveredEventIsMarkedDelivered() {
+        OutboxEvent event = pendingEvent(0);
+        when(outboxEventRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+
+        outboxService.relay();
+
+        verify(gamificationServiceClient).deliverChallengeEvent(event.getEventId(), event.getPayload());
+        assertEquals(OutboxStatus.DELIVERED, event.getStatus());
+        assertNotNull(event.getDeliveredAt());
+    }
+
+    @Test
+    void notificationEventIsSentToEventUser() {
+        OutboxEvent event = pendingEvent(0);
+        event.setDestination(OutboxDestination.NOTIFICATION);
+        when(outboxEventRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+
+        outboxService.relay();
+
+        verify(notificationServiceClient).deliverUserNotification(event.getEventId(), event.getUserId(), event.getPayload());
+        verifyNoInteractions(gamificationServiceClient);
+        assertEquals(OutboxStatus.DELIVERED, event.getStatus());
+    }
+
+    @Test
+    void failedDeliveryIsRescheduledWithBackoff() {
+        OutboxEvent event = pendingEvent(2);
+        when(outboxEventRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+        doThrow(new RuntimeException("503 Service Unavailable"))
+                .when(gamificationServiceClient).deliverChallengeEvent(any(), any());
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxService.relay();
+
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertEquals("503 Service Unavailable", event.getLastError());
+        // Lần thử thứ 3 thất bại: chờ 5s * 2^2 = 20s
+        assertFalse(event.getNextAttemptAt().isBefore(before.plusSeconds(20)));
+    }
+
+    @Test
+    void eventIsFailedAfterMaxAttempts() {
+        OutboxEvent event = pendingEvent(11);
+        when(outboxEventRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+        doThrow(new RuntimeException("timeout"))
+                .when(gamificationServiceClient).deliverChallengeEvent(any(), any());
+
+        outboxService.relay();
+
+        assertEquals(OutboxStatus.FAILED, event.getStatus());
+        assertEquals(12, event.getAttempts());
+    }
+
+    @Test
+    void deliveryRunsOutsideAnyTransaction() {
+        OutboxEvent event = pendingEvent(0);
+        List<Boolean> txActive = new ArrayList<>();
+        when(outboxEventRepository.lockDueBatch(any(), anyInt())).thenAnswer(inv -> {
+            txActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return List.of(event);
+        });
+        doAnswer(inv -> {
+            txActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return null;
+        }).when(gamificationServiceClient).deliverChallengeEvent(any(), any());
+        when(outboxEventRepository.save(any())).thenAnswer(inv -> {
+            txActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return inv.getArgument(0);
+        });
+
+        outboxService.relay();
+
+        // claim trong transaction, gửi ngoài transaction, ghi kết quả trong transaction riêng
+        assertEquals(List.of(true, false, true), txActive);
+        verify(outboxEventRepository).save(event);
+    }
+
+    @Test
+    void claimPushesNextAttemptPastLease() {
+        OutboxEvent event = pendingEvent(0);
+        List<LocalDateTime> nextAttemptAtDelivery = new ArrayList<>();
+        when(outboxEventRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+        doAnswer(inv -> {
+            nextAttemptAtDelivery.add(event.getNextAttemptAt());
+            return null;
+        }).when(gamificationServiceClient).deliverChallengeEvent(any(), any());
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxService.relay();
+
+        // Lúc gửi, dòng đã được commit với next_attempt_at = now + lease nên instance khác không lấy lại
+        assertFalse(nextAttemptAtDelivery.get(0).isBefore(before.plus(OutboxService.CLAIM_LEASE)));
+    }
+
+    @Test
+    void failureToRecordResultDoesNotStopBatch() {
+        OutboxEvent first = pendingEvent(0);
+        OutboxEvent second = pendingEvent(0);
+        when(outboxEventRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(first, second));
+        when(outboxEventRepository.save(any())).thenAnswer(inv -> {
+            if (inv.getArgument(0) == first) {
+                throw new RuntimeException("connection reset");
+            }
+            return inv.getArgument(0);
+        });
+
+        outboxService.relay();
+
+        verify(gamificationServiceClient).deliverChallengeEvent(second.getEventId(), second.getPayload());
+        verify(outboxEventRepository).save(second);
+    }
+
+    private OutboxEvent pendingEvent(int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventId(UUID.randomUUID());
+        event.setUserId(UUID.randomUUID());
+        event.setDestination(OutboxDestination.GAMIFICATION);
+        event.setEventType("GOAL_COMPLETE");
+        event.setPayload("{\"eventType\":\"GOAL\",\"action\":\"COMPLETE\"}");
+        event.setStatus(OutboxStatus.PENDING);
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(LocalDateTime.now());
+        return event;
+    }
+
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package vn.uth.financeservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ParallelReadsTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void forksRunConcurrently() {
+        ParallelReads parallelReads = new ParallelReads(transactionManager, true, 5_000);
+        // Mỗi query chỉ xong khi cả 3 cùng đang chạy
+        CountDownLatch allStarted = new CountDownLatch(3);
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            Supplier<String> a = scope.fork(() -> awaitOthers(allStarted, "a"));
+            Supplier<String> b = scope.fork(() -> awaitOthers(allStarted, "b"));
+            Supplier<String> c = scope.fork(() -> awaitOthers(allStarted, "c"));
+            scope.join();
+
+            assertEquals("abc", a.get() + b.get() + c.get());
+        }
+    }
+
+    @Test
+    void firstFailureCancelsRemainingForks() {
+        ParallelReads parallelReads = new ParallelReads(transactionManager, true, 10_000);
+        AtomicBoolean slowInterrupted = new AtomicBoolean();
+        long start = System.nanoTime();
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            scope.fork(() -> sleep(5_000, slowInterrupted));
+            scope.fork(() -> {
+                throw new IllegalStateException("boom");
+            });
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class, scope::join);
+            assertEquals("boom", ex.getMessage());
+        }
+
+        assertTrue(slowInterrupted.get());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+    }
+
+    @Test
+    void deadlineExceededFailsRequest() {
+        ParallelReads parallelReads = new ParallelReads(transactionManager, true, 200);
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            scope.fork(() -> sleep(5_000, interrupted));
+            ResponseStatusException ex = assertThrows(ResponseStatusException.class, scope::join);
+            assertEquals(503, ex.getStatusCode().value());
+        }
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void disabledRunsInlineOnCallerThread() {
+        ParallelReads parallelReads = new ParallelReads(transactionManager, false, 1_000);
+        Thread caller = Thread.currentThread();
+
+        try (ParallelReads.Scope scope = parallelReads.open()) {
+            Supplier<Boolean> sameThread = scope.fork(() -> Thread.currentThread() == caller);
+            scope.join();
+            assertTrue(sameThread.get());
+        }
+    }
+
+    private static String awaitOthers(CountDownLatch latch, String value) {
+        latch.countDown();
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return value;
+    }
+
+    private static String sleep(long millis, AtomicBoolean interrupted) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            interrupted.set(true);
+        }
+        return "slow";
+    }
+}
@@ -0,0 +1,78 @@
+package vn.uth.financeservice.service;
+
+import org.junit.jupiter.api.Test;
+import vn.uth.financeservice.entity.RecurrenceFrequency;
+import vn.uth.financeservice.entity.RecurringTransaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceScheduleTest {
+
+    @Test
+    void monthlyKeepsAnchorDayAfterShortMonths() {
+        RecurringTransaction rent = recurring(RecurrenceFrequency.MONTHLY, 1, LocalDate.of(2025, 1, 31));
+        rent.setNextRunDate(rent.getStartDate());
+
+        RecurrenceSchedule.Due due = RecurrenceSchedule.due(rent, LocalDate.of(2025, 4, 30), 10);
+
+        assertEquals(List.of(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 28),
+                LocalDate.of(2025, 3, 31), LocalDate.of(2025, 4, 30)), due.dates());
+        assertEquals(LocalDate.of(2025, 5, 31), due.nextRunDate());
+    }
+
+    @Test
+    void catchUpIsCappedAndResumesFromNextRunDate() {
+        RecurringTransaction daily = recurring(RecurrenceFrequency.DAILY, 2, LocalDate.of(2025, 6, 1));
+        daily.setNextRunDate(daily.getStartDate());
+
+        RecurrenceSchedule.Due due = RecurrenceSchedule.due(daily, LocalDate.of(2025, 6, 30), 3);
+
+        assertEquals(List.of(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 5)), due.dates());
+        assertEquals(LocalDate.of(2025, 6, 7), due.nextRunDate());
+    }
+
+    @Test
+    void scheduleEndsAfterEndDate() {
+        RecurringTransaction weekly = recurring(RecurrenceFrequency.WEEKLY, 1, LocalDate.of(2025, 6, 2));
+        weekly.setEndDate(LocalDate.of(2025, 6, 12));
+        weekly.setNextRunDate(weekly.getStartDate());
+
+        RecurrenceSchedule.Due due = RecurrenceSchedule.due(weekly, LocalDate.of(2025, 6, 30), 10);
+
+        assertEquals(List.of(LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 9)), due.dates());
+        assertNull(due.nextRunDate());
+    }
+
+    @Test
+    void cronUsesDayPartOnly() {
+        // 9h sáng ngày 15 hằng tháng
+        RecurringTransaction salary = recurring(RecurrenceFrequency.CRON, 1, LocalDate.of(2025, 6, 15));
+        salary.setCronExpression("0 0 9 15 * *");
+
+        LocalDate first = RecurrenceSchedule.first(salary);
+        salary.setNextRunDate(first);
+        RecurrenceSchedule.Due due = RecurrenceSchedule.due(salary, LocalDate.of(2025, 7, 20), 10);
+
+        assertEquals(LocalDate.of(2025, 6, 15), first);
+        assertEquals(List.of(LocalDate.of(2025, 6, 15), LocalDate.of(2025, 7, 15)), due.dates());
+        assertEquals(LocalDate.of(2025, 8, 15), due.nextRunDate());
+    }
+
+    @Test
+    void invalidCronIsRejected() {
+        RecurringTransaction r = recurring(RecurrenceFrequency.CRON, 1, LocalDate.of(2025, 6, 1));
+        r.setCronExpression("every monday");
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceSchedule.first(r));
+    }
+
+    private static RecurringTransaction recurring(RecurrenceFrequency frequency, int interval, LocalDate start) {
+        RecurringTransaction r = new RecurringTransaction();
+        r.setFrequency(frequency);
+        r.setIntervalCount(interval);
+        r.setStartDate(start);
+        return r;
+    }
+}
@@ -0,0 +1,57 @@
+package vn.uth.financeservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.aggregation.RunningStats;
+import vn.uth.financeservice.repository.SpendingStatsRepository;
+import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.repository.projection.SpendingStatsView;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SpendingAnomalyServiceTest {
+
+    private final SpendingAnomalyService service = new SpendingAnomalyService(
+            mock(SpendingStatsRepository.class), mock(TransactionRepository.class), mock(TransactionTemplate.class),
+            3.0, 10);
+
+    @Test
+    void flagsOnlyWithEnoughSamplesAndLargeDeviation() {
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < 9; i++) {
+            stats.add(i % 2 == 0 ? 90_000 : 110_000);
+        }
+        assertNull(service.score(stats, 1_000_000)); // mới 9 mẫu
+
+        stats.add(100_000);
+        assertNull(service.score(stats, 120_000));
+        Double score = service.score(stats, 500_000);
+        assertNotNull(score);
+        assertEquals(Math.round(stats.zScore(500_000) * 100) / 100.0, score);
+    }
+
+    @Test
+    void exactMomentsDetectDrift() {
+        RunningStats exact = SpendingAnomalyService.fromMoments(3,
+                new BigDecimal("600000.00"), new BigDecimal("140000000000.0000")); // 100k, 200k, 300k
+        assertEquals(200_000, exact.mean(), 1e-9);
+        assertEquals(20_000_000_000d, exact.m2(), 1e-3);
+
+        assertTrue(SpendingAnomalyService.matches(view(3, 200_000, 20_000_000_000d + 1), exact));
+        assertFalse(SpendingAnomalyService.matches(view(3, 200_500, 20_000_000_000d), exact));
+        assertFalse(SpendingAnomalyService.matches(view(2, 200_000, 20_000_000_000d), exact));
+    }
+
+    private static SpendingStatsView view(long count, double mean, double m2) {
+        return new SpendingStatsView() {
+            public UUID getCategoryId() { return UUID.randomUUID(); }
+            public Long getTxnCount() { return count; }
+            public Double getMean() { return mean; }
+            public Double getM2() { return m2; }
+        };
+    }
+}
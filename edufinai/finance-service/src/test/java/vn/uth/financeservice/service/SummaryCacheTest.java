@@ -0,0 +1,95 @@
+package vn.uth.financeservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SummaryCache summaryCache = new SummaryCache(meterRegistry, 60, 100);
+
+    @Test
+    void secondCallIsServedFromCache() {
+        UUID userId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = summaryCache.get(userId, "daily", "2025-01-15", () -> "v" + loads.incrementAndGet());
+        String second = summaryCache.get(userId, "daily", "2025-01-15", () -> "v" + loads.incrementAndGet());
+
+        assertEquals("v1", first);
+        assertEquals("v1", second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.counter("summary.cache.gets", "endpoint", "daily", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("summary.cache.gets", "endpoint", "daily", "result", "miss").count());
+    }
+
+    @Test
+    void evictOnlyAffectsThatUser() {
+        UUID userA = UUID.randomUUID();
+        UUID userB = UUID.randomUUID();
+        summaryCache.get(userA, "daily", "2025-01-15", () -> "a1");
+        summaryCache.get(userB, "daily", "2025-01-15", () -> "b1");
+
+        summaryCache.evictAfterCommit(userA);
+
+        assertEquals("a2", summaryCache.get(userA, "daily", "2025-01-15", () -> "a2"));
+        assertEquals("b1", summaryCache.get(userB, "daily", "2025-01-15", () -> "b2"));
+    }
+
+    @Test
+    void evictInsideTransactionWaitsForCommit() {
+        UUID userId = UUID.randomUUID();
+        summaryCache.get(userId, "7days", "2025-01-15", () -> "old");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            summaryCache.evictAfterCommit(userId);
+            // Chưa commit: vẫn trả về giá trị cũ
+            assertEquals("old", summaryCache.get(userId, "7days", "2025-01-15", () -> "new"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("new", summaryCache.get(userId, "7days", "2025-01-15", () -> "new"));
+    }
+
+    @Test
+    void ttlIsCountedPerEntry() {
+        AtomicLong nanos = new AtomicLong();
+        SummaryCache cache = new SummaryCache(new SimpleMeterRegistry(), 60, 100, nanos::get);
+        UUID userId = UUID.randomUUID();
+
+        cache.get(userId, "daily", "2025-01-15", () -> "daily-1");
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        cache.get(userId, "7days", "2025-01-15", () -> "7days-1");
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        // Entry đầu đã quá 60s, entry thứ 2 mới 2s: vẫn còn trong cache
+        assertEquals("daily-2", cache.get(userId, "daily", "2025-01-15", () -> "daily-2"));
+        assertEquals("7days-1", cache.get(userId, "7days", "2025-01-15", () -> "7days-2"));
+    }
+
+    @Test
+    void loadRunningDuringEvictIsNotServedAfterwards() {
+        UUID userId = UUID.randomUUID();
+
+        String during = summaryCache.get(userId, "daily", "2025-01-15", () -> {
+            summaryCache.evict(userId); // dữ liệu thay đổi trong lúc đang load
+            return "stale";
+        });
+
+        assertEquals("stale", during);
+        assertEquals("fresh", summaryCache.get(userId, "daily", "2025-01-15", () -> "fresh"));
+    }
+}
@@ -0,0 +1,209 @@
+package vn.uth.financeservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import vn.uth.financeservice.dto.AiDigestDto;
+import vn.uth.financeservice.dto.HeatmapResponseDto;
+import vn.uth.financeservice.dto.RangeSummaryResponseDto;
+import vn.uth.financeservice.entity.Goal;
+import vn.uth.financeservice.entity.GoalStatus;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.projection.AnomalyView;
+import vn.uth.financeservice.repository.projection.CategoryTotalView;
+import vn.uth.financeservice.repository.projection.DailyTotalView;
+import vn.uth.financeservice.repository.projection.TypeTotalView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryCalculationsTest {
+
+    private final LocalDate today = LocalDate.of(2025, 6, 10);
+    private final YearMonth month = YearMonth.of(2025, 6);
+
+    @Test
+    void aiDigestKeepsTopCategoriesAndRoundsNumbers() {
+        List<CategoryTotalView> categories = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            categories.add(category(TransactionType.EXPENSE, "Chi " + i, i * 100_000 + ".49", i));
+        }
+        categories.add(category(TransactionType.INCOME, "Lương", "10000000.00", 1));
+
+        AiDigestDto digest = SummaryCalculations.buildAiDigest(month,
+                totals("10000000.00", "3600003.92"), totals("8000000.00", "4000000.00"),
+                categories, List.of(), List.of(), today, 3, 5);
+
+        assertEquals("2025-06", digest.getMo());
+        assertEquals(10_000_000L, digest.getInc());
+        assertEquals(3_600_004L, digest.getExp());
+        assertEquals(64.0, digest.getSr());
+        assertEquals(360_000L, digest.getAvgExp()); // 10 ngày đã qua của tháng
+        assertEquals(25.0, digest.getIncTr());
+        assertEquals(-10.0, digest.getExpTr());
+        assertEquals(List.of("Chi 8", "Chi 7", "Chi 6"),
+                digest.getTopExp().stream().map(AiDigestDto.Cat::getCat).toList());
+        assertEquals(800_000L, digest.getTopExp().get(0).getAmt());
+        assertEquals(22.2, digest.getTopExp().get(0).getPct());
+    }
+
+    @Test
+    void aiDigestOmitsNullsAndEmptyLists() throws Exception {
+        Goal onTrack = goal("Laptop", "800000.00", today.plusDays(60));
+        Goal atRisk = goal("Du lịch", "100000.00", today.plusDays(5));
+
+        AiDigestDto digest = SummaryCalculations.buildAiDigest(month,
+                totals("0", "0"), totals("0", "0"), List.of(), List.of(onTrack, atRisk), List.of(), today, 5, 5);
+        String json = new ObjectMapper().writeValueAsString(digest);
+
+        assertFalse(json.contains("topExp"));
+        assertFalse(json.contains("anom"));
+        assertFalse(json.contains("null"));
+        // Goal gần hạn nhất trước, risk chỉ xuất hiện khi true
+        assertTrue(json.contains("\"goals\":[{\"title\":\"Du lịch\",\"prog\":10.0,\"days\":5,\"risk\":true},"
+                + "{\"title\":\"Laptop\",\"prog\":80.0,\"days\":60}]"));
+    }
+
+    @Test
+    void aiDigestListsAnomaliesWithRoundedScore() throws Exception {
+        AnomalyView anomaly = new AnomalyView() {
+            public BigDecimal getAmount() { return new BigDecimal("2500000.60"); }
+            public String getCategoryName() { return "Mua sắm"; }
+            public Double getAnomalyScore() { return 4.27; }
+            public LocalDateTime getTransactionDate() { return today.minusDays(2).atTime(20, 15); }
+        };
+
+        AiDigestDto digest = SummaryCalculations.buildAiDigest(month,
+                totals("0", "2500000.60"), totals("0", "0"), List.of(), List.of(), List.of(anomaly), today, 5, 5);
+        String json = new ObjectMapper().writeValueAsString(digest);
+
+        assertTrue(json.contains("\"anom\":[{\"cat\":\"Mua sắm\",\"amt\":2500001,\"z\":4.3,\"day\":8}]"));
+    }
+
+    @Test
+    void weeklySeriesClipsEdgesAndKeepsEmptyBuckets() {
+        // Thứ Tư 2025-06-04 → Thứ Sáu 2025-06-20: 3 bucket (04-08, 09-15, 16-20)
+        SummaryRange range = new SummaryRange(LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 20));
+        List<RangeSummaryResponseDto.BucketDto> series = SummaryCalculations.buildSeries(range, SummaryGranularity.WEEK,
+                List.of(period("2025-06-04", TransactionType.EXPENSE, "100000.00", 2),
+                        period("2025-06-08", TransactionType.EXPENSE, "50000.50", 1),
+                        period("2025-06-08", TransactionType.INCOME, "900000.00", 1),
+                        period("2025-06-20", TransactionType.EXPENSE, "20000.00", 1)));
+
+        assertEquals(3, series.size());
+        assertEquals(LocalDate.of(2025, 6, 4), series.get(0).getStart());
+        assertEquals(LocalDate.of(2025, 6, 8), series.get(0).getEnd());
+        assertEquals(new BigDecimal("150000.50"), series.get(0).getExpense());
+        assertEquals(3L, series.get(0).getExpenseCount());
+        assertEquals(new BigDecimal("900000.00"), series.get(0).getIncome());
+
+        assertEquals(LocalDate.of(2025, 6, 9), series.get(1).getStart());
+        assertEquals(0, series.get(1).getExpense().signum());
+        assertEquals(0L, series.get(1).getExpenseCount());
+
+        assertEquals(LocalDate.of(2025, 6, 16), series.get(2).getStart());
+        assertEquals(LocalDate.of(2025, 6, 20), series.get(2).getEnd());
+        assertEquals(new BigDecimal("20000.00"), series.get(2).getExpense());
+    }
+
+    @Test
+    void previousRangeKeepsCalendarMonthsOrDayCount() {
+        SummaryRange march = SummaryRange.month(YearMonth.of(2025, 3));
+        assertEquals(SummaryRange.month(YearMonth.of(2025, 2)), march.previous());
+
+        SummaryRange quarter = new SummaryRange(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 6, 30));
+        assertEquals(new SummaryRange(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31)), quarter.previous());
+
+        SummaryRange tenDays = new SummaryRange(LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 14));
+        assertEquals(new SummaryRange(LocalDate.of(2025, 2, 23), LocalDate.of(2025, 3, 4)), tenDays.previous());
+
+        assertEquals(3, SummaryGranularity.MONTH.bucketCount(quarter));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SummaryRange(LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 1)));
+    }
+
+    @Test
+    void rangeComparesWithPreviousPeriod() {
+        SummaryRange range = SummaryRange.month(month);
+        RangeSummaryResponseDto response = SummaryCalculations.buildRange(range, SummaryGranularity.MONTH,
+                totals("1000000.00", "600000.00"), List.of(category(TransactionType.EXPENSE, "Ăn uống", "600000.00", 4)),
+                List.of(), range.previous(), totals("800000.00", "750000.00"));
+
+        assertEquals("month", response.getGranularity());
+        assertEquals(0, new BigDecimal("400000.00").compareTo(response.getSummary().getNetAmount()));
+        assertEquals(0, new BigDecimal("20000.00").compareTo(response.getSummary().getAverageDailyExpense()));
+        assertEquals(100.0, response.getExpenseCategories().get(0).getPct());
+        assertEquals(LocalDate.of(2025, 5, 1), response.getComparison().getPeriod().getStartDate());
+        assertEquals(25.0, response.getComparison().getIncomeChangePct());
+        assertEquals(-20.0, response.getComparison().getExpenseChangePct());
+    }
+
+    @Test
+    void heatmapHasOneValuePerDayWithZeroGaps() {
+        SummaryRange year = new SummaryRange(today.minusMonths(12).plusDays(1), today);
+        HeatmapResponseDto heatmap = SummaryCalculations.buildHeatmap(year, TransactionType.EXPENSE, List.of(
+                day(year.from(), "150000.50"),
+                day(today.minusDays(1), "20000.00"),
+                day(today, "300000.00"),
+                day(today.plusDays(1), "999.00"))); // ngoài khoảng: bỏ qua
+
+        assertEquals(365, heatmap.getValues().length);
+        assertEquals(150000.5, heatmap.getValues()[0]);
+        assertEquals(0.0, heatmap.getValues()[1]);
+        assertEquals(20000.0, heatmap.getValues()[363]);
+        assertEquals(300000.0, heatmap.getValues()[364]);
+        assertEquals(300000.0, heatmap.getMax());
+        assertEquals(new BigDecimal("470000.50"), heatmap.getTotal());
+        assertEquals("expense", heatmap.getType());
+    }
+
+    private static DailyTotalView day(LocalDate date, String total) {
+        return new DailyTotalView() {
+            public LocalDate getTxnDay() { return date; }
+            public BigDecimal getTotal() { return new BigDecimal(total); }
+            public Long getTxnCount() { return 1L; }
+        };
+    }
+
+    private static SummaryCalculations.PeriodTotal period(String day, TransactionType type, String total, long count) {
+        return new SummaryCalculations.PeriodTotal(LocalDate.parse(day), type, new BigDecimal(total), count);
+    }
+
+    private static SummaryCalculations.TypeTotals totals(String income, String expense) {
+        return SummaryCalculations.TypeTotals.of(List.of(
+                typeTotal(TransactionType.INCOME, income), typeTotal(TransactionType.EXPENSE, expense)));
+    }
+
+    private static TypeTotalView typeTotal(TransactionType type, String total) {
+        return new TypeTotalView() {
+            public TransactionType getTxnType() { return type; }
+            public BigDecimal getTotal() { return new BigDecimal(total); }
+            public Long getTxnCount() { return 1L; }
+            public BigDecimal getGoalTotal() { return null; }
+        };
+    }
+
+    private static CategoryTotalView category(TransactionType type, String name, String total, long count) {
+        return new CategoryTotalView() {
+            public TransactionType getTxnType() { return type; }
+            public String getCategoryName() { return name; }
+            public BigDecimal getTotal() { return new BigDecimal(total); }
+            public Long getTxnCount() { return count; }
+        };
+    }
+
+    private static Goal goal(String title, String saved, LocalDate endAt) {
+        Goal goal = new Goal();
+        goal.setTitle(title);
+        goal.setAmount(new BigDecimal("1000000.00"));
+        goal.setSavedAmount(new BigDecimal(saved));
+        goal.setStatus(GoalStatus.ACTIVE);
+        goal.setEndAt(endAt.atStartOfDay());
+        return goal;
+    }
+}
@@ -0,0 +1,154 @@
+package vn.uth.financeservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vn.uth.financeservice.dto.DailyReportResponseDto;
+import vn.uth.financeservice.entity.Goal;
+import vn.uth.financeservice.entity.GoalStatus;
+import vn.uth.financeservice.entity.TransactionType;
+import vn.uth.financeservice.repository.DailyCategoryTotalRepository;
+import vn.uth.financeservice.repository.GoalRepository;
+import vn.uth.financeservice.repository.TransactionRepository;
+import vn.uth.financeservice.repository.projection.DailyReportRowView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SummaryServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private GoalRepository goalRepository;
+    @Mock
+    private BalanceService balanceService;
+    @Mock
+    private DailyCategoryTotalRepository dailyRollupRepository;
+    @Mock
+    private DailyRollupService dailyRollupService;
+
+    @InjectMocks
+    private SummaryService summaryService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void dailyReportUsesAtMostTwoRepositoryCalls() {
+        LocalDateTime today = LocalDate.now().atTime(10, 0);
+        LocalDateTime yesterday = today.minusDays(1);
+        LocalDateTime fiveDaysAgo = today.minusDays(5);
+
+        when(transactionRepository.findReportRowsBetween(eq(userId), eq("ACTIVE"), any(), any()))
+                .thenReturn(List.of(
+                        row(today, TransactionType.EXPENSE, "120000.00", "Ăn trưa", "Ăn uống", false),
+                        row(today, TransactionType.EXPENSE, "30000.00", "Cà phê", "Ăn uống", false),
+                        row(today, TransactionType.EXPENSE, "200000.00", "Xăng", "Đi lại", false),
+                        row(today, TransactionType.INCOME, "500000.00", "Lương", null, false),
+                        row(today, TransactionType.INCOME, "100000.00", "Nạp mục tiêu", null, true),
+                        row(yesterday, TransactionType.EXPENSE, "50000.00", "Bánh mì", "Ăn uống", false),
+                        row(fiveDaysAgo, TransactionType.INCOME, "70000.00", "Nạp mục tiêu", null, true)));
+
+        Goal goal = new Goal();
+        goal.setTitle("Laptop");
+        goal.setAmount(new BigDecimal("1000000.00"));
+        goal.setSavedAmount(new BigDecimal("250000.00"));
+        goal.setStatus(GoalStatus.ACTIVE);
+        goal.setEndAt(LocalDateTime.now().plusDays(10));
+        when(goalRepository.findByUserId(userId)).thenReturn(List.of(goal));
+
+        DailyReportResponseDto report = summaryService.getDailyReport(userId);
+
+        verify(transactionRepository, times(1)).findReportRowsBetween(eq(userId), eq("ACTIVE"), any(), any());
+        verify(goalRepository, times(1)).findByUserId(userId);
+        verifyNoMoreInteractions(transactionRepository, goalRepository);
+        verifyNoInteractions(balanceService, dailyRollupRepository, dailyRollupService);
+
+        // Hôm nay
+        assertEquals(0, new BigDecimal("350000.00").compareTo(report.getSummary().getTotalExpense()));
+        assertEquals(0, new BigDecimal("600000.00").compareTo(report.getSummary().getTotalIncome()));
+        assertEquals(5, report.getSummary().getTransactionCount());
+
+        // Breakdown theo category, sắp xếp giảm dần
+        assertEquals(2, report.getExpenseBreakdown().getByCategory().size());
+        assertEquals("Đi lại", report.getExpenseBreakdown().getByCategory().get(0).getCat());
+        assertEquals("Ăn uống", report.getExpenseBreakdown().getByCategory().get(1).getCat());
+        assertEquals(2L, report.getExpenseBreakdown().getByCategory().get(1).getCnt());
+        assertEquals("Xăng", report.getExpenseBreakdown().getLargestTransaction().getName());
+
+        // Hôm qua + trung bình 7 ngày
+        assertEquals(0, new BigDecimal("50000.00").compareTo(report.getComparison().getPreviousDay().getTotalExpense()));
+        assertEquals(0, new BigDecimal("57142.86").compareTo(report.getComparison().getAvg7Days().getExpense()));
+
+        // Tiền nạp goal
+        assertEquals(0, new BigDecimal("100000.00").compareTo(report.getGoals().getTotalSavedToday()));
+        assertEquals(0, new BigDecimal("170000.00").compareTo(report.getGoals().getTotalSaved7Days()));
+        assertEquals(1, report.getGoals().getActiveCount());
+    }
+
+    @Test
+    void dailyReportWithoutTransactionsReturnsZeros() {
+        when(transactionRepository.findReportRowsBetween(eq(userId), eq("ACTIVE"), any(), any()))
+                .thenReturn(List.of());
+        when(goalRepository.findByUserId(userId)).thenReturn(List.of());
+
+        DailyReportResponseDto report = summaryService.getDailyReport(userId);
+
+        assertEquals(BigDecimal.ZERO, report.getSummary().getTotalExpense());
+        assertEquals(BigDecimal.ZERO, report.getSummary().getAvgTransactionAmount());
+        assertTrue(report.getExpenseBreakdown().getByCategory().isEmpty());
+        assertNull(report.getExpenseBreakdown().getLargestTransaction());
+        assertEquals(0.0, report.getComparison().getExpenseChangePct());
+    }
+
+    private DailyReportRowView row(LocalDateTime date, TransactionType type, String amount,
+                                   String name, String categoryName, boolean goalLinked) {
+        return new DailyReportRowView() {
+            @Override
+            public LocalDateTime getTransactionDate() {
+                return date;
+            }
+
+            @Override
+            public TransactionType getTxnType() {
+                return type;
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return new BigDecimal(amount);
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getCategoryName() {
+                return categoryName;
+            }
+
+            @Override
+            public Boolean getGoalLinked() {
+                return goalLinked;
+            }
+
+            @Override
+            public Double getAnomalyScore() {
+                return null;
+            }
+        };
+    }
+}
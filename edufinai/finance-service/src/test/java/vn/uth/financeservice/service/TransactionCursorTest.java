@@ -0,0 +1,30 @@
+package vn.uth.financeservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        TransactionCursor cursor = new TransactionCursor(
+                LocalDateTime.of(2025, 1, 15, 8, 30, 0),
+                LocalDateTime.of(2025, 1, 15, 8, 30, 12, 345_000_000),
+                UUID.randomUUID());
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("|"));
+        assertEquals(cursor, TransactionCursor.decode(encoded));
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,146 @@
+package vn.uth.financeservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.uth.financeservice.dto.TransactionImportResultDto;
+import vn.uth.financeservice.entity.Category;
+import vn.uth.financeservice.entity.Transaction;
+import vn.uth.financeservice.repository.CategoryRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionImportServiceTest {
+
+    private static final String HEADER = "type,amount,name,category,note,transactionDate";
+
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private TransactionAggregateService transactionAggregateService;
+    @Mock
+    private SummaryCache summaryCache;
+    @Mock
+    private DataVersionService dataVersionService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+    private final List<String> pendingNames = new ArrayList<>();
+    private final List<String> committedNames = new ArrayList<>();
+    private TransactionImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new TransactionImportService(categoryRepository, transactionAggregateService,
+                summaryCache, dataVersionService, entityManager, transactionTemplate, new ObjectMapper());
+
+        Category food = new Category();
+        food.setCategoryId(UUID.randomUUID());
+        food.setName("Ăn uống");
+        food.setIsDefault(true);
+        // lenient: các test chỉ parse CSV không đụng tới repository / DB
+        lenient().when(categoryRepository.findByUserIdOrIsDefaultTrue(userId)).thenReturn(List.of(food));
+
+        // Mô phỏng DB: batch chứa dòng tên "DUPLICATE" bị rollback cả batch; batch thành công thì ghi nhận tên
+        lenient().doAnswer(inv -> {
+            pendingNames.add(inv.<Transaction>getArgument(0).getName());
+            return null;
+        }).when(entityManager).persist(any());
+        lenient().doAnswer(inv -> {
+            pendingNames.clear();
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            if (pendingNames.contains("DUPLICATE")) {
+                throw new DataIntegrityViolationException("Duplicate entry for key 'uk_transaction'");
+            }
+            committedNames.addAll(pendingNames);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void parsesPlainAndQuotedCsvValues() {
+        assertEquals(List.of("EXPENSE", "45000", "Ăn sáng", "Ăn uống", "", "2025-01-15"),
+                TransactionImportService.parseCsvLine("EXPENSE,45000,Ăn sáng,Ăn uống,,2025-01-15"));
+        assertEquals(List.of("EXPENSE", "120000", "Quà, hoa", "Nói \"cảm ơn\""),
+                TransactionImportService.parseCsvLine("EXPENSE,120000,\"Quà, hoa\",\"Nói \"\"cảm ơn\"\"\""));
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TransactionImportService.parseCsvLine("EXPENSE,1000,\"Ăn trưa"));
+    }
+
+    @Test
+    void invalidRowsAreReportedAndValidRowsImported() {
+        String csv = String.join("\n",
+                HEADER,
+                "EXPENSE,45000,Ăn sáng,Ăn uống,,2025-01-15",
+                "EXPENSE,abc,Ăn trưa,Ăn uống,,2025-01-15",
+                "EXPENSE,30000," + "x".repeat(256) + ",Ăn uống,,2025-01-15",
+                "EXPENSE,30000,Taxi,Di chuyển,,2025-01-15",
+                "INCOME,123456789012345678,Lương,,,2025-01-15",
+                "INCOME,15000000,Lương,,,2025-01-31");
+
+        TransactionImportResultDto result = importCsv(csv);
+
+        assertEquals(6, result.getTotalRows());
+        assertEquals(2, result.getImportedRows());
+        assertEquals(4, result.getFailedRows());
+        assertEquals(List.of(3L, 4L, 5L, 6L),
+                result.getErrors().stream().map(TransactionImportResultDto.RowErrorDto::getLine).toList());
+        assertEquals(List.of("Ăn sáng", "Lương"), committedNames);
+        verify(summaryCache).evict(userId);
+    }
+
+    @Test
+    void databaseFailureInOneBatchOnlySkipsTheFailingRow() {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 1200; i++) {
+            // Dòng dữ liệu thứ 600 (dòng 601 của file, thuộc batch thứ 2) vi phạm constraint ở DB
+            String name = i == 600 ? "DUPLICATE" : "Giao dịch " + i;
+            csv.append("\nEXPENSE,1000,").append(name).append(",Ăn uống,,2025-01-15");
+        }
+
+        TransactionImportResultDto result = importCsv(csv.toString());
+
+        assertEquals(1200, result.getTotalRows());
+        assertEquals(1199, result.getImportedRows());
+        assertEquals(1, result.getFailedRows());
+        assertEquals(601L, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getMessage().contains("Duplicate entry"));
+        assertFalse(committedNames.contains("DUPLICATE"));
+        // Batch 3 (dòng 1001-1200) vẫn được ghi sau khi batch 2 lỗi
+        assertTrue(committedNames.contains("Giao dịch 1200"));
+        // 1 lần batch 1 + 1 lần batch 2 lỗi + 500 lần ghi lại từng dòng + 1 lần batch 3
+        verify(transactionTemplate, times(503)).executeWithoutResult(any());
+        verify(transactionAggregateService, times(1 + 1 + 500 + 1)).onCreated(eq(userId), anyList());
+    }
+
+    private TransactionImportResultDto importCsv(String csv) {
+        return importService.importTransactions(userId,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), TransactionImportService.Format.CSV);
+    }
+}